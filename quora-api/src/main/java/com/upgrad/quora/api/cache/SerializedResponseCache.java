@@ -0,0 +1,202 @@
+package com.upgrad.quora.api.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of response bodies that have already been serialized to JSON, and gzipped when large enough.
+ * Every entry remembers the ResourceVersions tag it was built for and is only served while that tag is current,
+ * so creates, edits and deletes invalidate the affected entries simply by bumping the version.
+ * Entries are evicted in insertion order once more than quora.response-cache.max-entries are held.
+ */
+@Component
+public class SerializedResponseCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${quora.response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quora.response-cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${quora.response-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    private final Map<String, Body> bodies = new ConcurrentHashMap<>();
+
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Starts a lookup of the body cached under key, to be passed to the service as its notModified predicate.
+     * The predicate first lets webRequest answer an If-None-Match with 304, and otherwise reports a cache hit
+     * for the offered tag as "not modified" too, so the service skips its query in both cases.
+     *
+     * @param key        resource the body belongs to, for example "answers:" + question uuid
+     * @param webRequest current request
+     * @return lookup for this request
+     */
+    public Lookup lookup(final String key, final WebRequest webRequest) {
+        return new Lookup(key, "", webRequest);
+    }
+
+    /**
+     * Lookup of one variant of a resource, for example a sparse fieldset of it.
+     * The variant is part of the cache key and of the ETag, so variants never answer for each other.
+     *
+     * @param key        resource the body belongs to
+     * @param variant    short string identifying the variant, empty for the full representation.
+     *                   It is appended to the ETag as it is, so it may only hold characters allowed in an entity tag
+     * @param webRequest current request
+     * @return lookup for this request
+     */
+    public Lookup lookup(final String key, final String variant, final WebRequest webRequest) {
+        return new Lookup(key, variant, webRequest);
+    }
+
+    public int size() {
+        return bodies.size();
+    }
+
+    private void put(final String key, final Body body) {
+        if (bodies.put(key, body) == null) {
+            insertionOrder.add(key);
+            while (bodies.size() > maxEntries) {
+                String eldest = insertionOrder.poll();
+                if (eldest == null) {
+                    break;
+                }
+                bodies.remove(eldest);
+            }
+        }
+    }
+
+    private byte[] gzip(final byte[] json) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+                gzip.write(json);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        }
+    }
+
+    /**
+     * Serialized body of one resource version
+     */
+    private static final class Body {
+
+        private final String tag;
+
+        private final byte[] json;
+
+        //Null when the body is too small to be worth compressing
+        private final byte[] gzipped;
+
+        private Body(final String tag, final byte[] json, final byte[] gzipped) {
+            this.tag = tag;
+            this.json = json;
+            this.gzipped = gzipped;
+        }
+    }
+
+    /**
+     * One cache lookup, see SerializedResponseCache.lookup
+     */
+    public final class Lookup implements Predicate<String> {
+
+        private final String key;
+
+        private final String variant;
+
+        private final WebRequest webRequest;
+
+        private String tag;
+
+        private Body hit;
+
+        private Lookup(final String key, final String variant, final WebRequest webRequest) {
+            this.key = variant.isEmpty() ? key : key + "|" + variant;
+            this.variant = variant;
+            this.webRequest = webRequest;
+        }
+
+        @Override
+        public boolean test(final String resourceTag) {
+            final String offeredTag = variant.isEmpty() ? resourceTag : resourceTag + "-" + variant;
+            if (webRequest.checkNotModified(offeredTag)) {
+                return true;
+            }
+            tag = offeredTag;
+            if (enabled) {
+                Body body = bodies.get(key);
+                if (body != null && body.tag.equals(offeredTag)) {
+                    hit = body;
+                }
+            }
+            return hit != null;
+        }
+
+        /**
+         * @return the cached body if the service stopped because of a cache hit, or null if it stopped with a 304
+         */
+        public ResponseEntity<byte[]> cachedResponse() {
+            return hit == null ? null : respond(hit);
+        }
+
+        /**
+         * Serializes the payload, caches it under the tag seen by this lookup and returns it as the response
+         *
+         * @param payload response object built from the service result
+         * @return response with the serialized payload
+         */
+        public ResponseEntity<byte[]> store(final Object payload) {
+            final byte[] json;
+            try {
+                json = objectMapper.writeValueAsBytes(payload);
+            } catch (JsonProcessingException e) {
+                throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+            }
+            Body body = new Body(tag, json, json.length >= gzipMinBytes ? gzip(json) : null);
+            if (enabled && tag != null) {
+                put(key, body);
+            }
+            return respond(body);
+        }
+
+        private ResponseEntity<byte[]> respond(final Body body) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON_UTF8);
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+            if (body.gzipped != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                //The servlet container does not compress responses that already carry a Content-Encoding
+                headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+                return new ResponseEntity<byte[]>(body.gzipped, headers, HttpStatus.OK);
+            }
+            return new ResponseEntity<byte[]>(body.json, headers, HttpStatus.OK);
+        }
+    }
+}
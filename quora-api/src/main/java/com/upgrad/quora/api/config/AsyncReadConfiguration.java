@@ -0,0 +1,66 @@
+package com.upgrad.quora.api.config;
+
+
+import com.upgrad.quora.service.common.Tracing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * This Configuration backs the non-blocking read endpoints of the "async" profile.
+ * Requests handed to the readExecutor release their Tomcat thread while the DAO call runs,
+ * the executor is bounded so that queued reads cannot pile up behind a slow database.
+ * Tasks run under the trace span of the request that submitted them.
+ * Streamed rows are written to the clients by the separate mvcAsyncExecutor, see AsyncSupportConfiguration.
+ * With the "virtual-threads" profile the workers are virtual threads, the pool size and queue still apply.
+ */
+@Configuration
+@Profile("async")
+public class AsyncReadConfiguration {
+
+    @Value("${quora.async.read.pool-size:10}")
+    private int poolSize;
+
+    @Value("${quora.async.read.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${quora.async.mvc.pool-size:20}")
+    private int mvcPoolSize;
+
+    //Provided by VirtualThreadConfiguration
+    @Autowired(required = false)
+    @Qualifier("readThreadFactory")
+    private ThreadFactory readThreadFactory;
+
+    @Bean
+    public ThreadPoolTaskExecutor readExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("read-");
+        if (readThreadFactory != null) {
+            executor.setThreadFactory(readThreadFactory);
+        }
+        executor.setTaskDecorator(Tracing::wrap);
+        return executor;
+    }
+
+    //The virtual-threads profile brings its own
+    @Bean
+    @Profile("!virtual-threads")
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(mvcPoolSize);
+        executor.setMaxPoolSize(mvcPoolSize);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.setTaskDecorator(Tracing::wrap);
+        return executor;
+    }
+}
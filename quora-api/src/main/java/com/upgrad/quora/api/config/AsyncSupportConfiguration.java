@@ -0,0 +1,35 @@
+package com.upgrad.quora.api.config;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * This Configuration is the only one setting up the Spring MVC async support. The executor writing streamed
+ * Flux elements and running Callables is the mvcAsyncExecutor bean of the active profile: virtual threads with
+ * "virtual-threads", a pool of its own with "async", the Spring default otherwise.
+ * It is never the readExecutor, whose workers wait for the client to take the rows they stream.
+ */
+@Configuration
+public class AsyncSupportConfiguration implements WebMvcConfigurer {
+
+    @Autowired(required = false)
+    @Qualifier("mvcAsyncExecutor")
+    private AsyncTaskExecutor mvcAsyncExecutor;
+
+    @Value("${quora.async.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (mvcAsyncExecutor != null) {
+            configurer.setTaskExecutor(mvcAsyncExecutor);
+        }
+        configurer.setDefaultTimeout(timeoutMs);
+    }
+}
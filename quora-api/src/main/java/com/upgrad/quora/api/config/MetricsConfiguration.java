@@ -0,0 +1,23 @@
+package com.upgrad.quora.api.config;
+
+
+import com.upgrad.quora.api.metrics.EndpointInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * This Configuration names the endpoint of every request for the request metrics, see RequestMetrics
+ */
+@Configuration
+public class MetricsConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private EndpointInterceptor endpointInterceptor;
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(endpointInterceptor);
+    }
+}
@@ -0,0 +1,105 @@
+package com.upgrad.quora.api.config;
+
+
+import com.upgrad.quora.service.common.Tracing;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * This Configuration runs every request on its own virtual thread, it is active with the "virtual-threads" profile
+ * and needs a Java 21 or later runtime started with --add-opens java.base/java.lang=ALL-UNNAMED for the CGLIB
+ * proxies of Spring 5.0. The Tomcat connector and the Spring MVC async dispatch share one thread-per-task executor,
+ * the number of concurrent JDBC calls stays bounded by the Hikari pool instead. The workers of the readExecutor of
+ * the "async" profile are virtual threads as well, still bounded by its pool size and queue.
+ * <p>
+ * The answer group-commit writer, the SSE senders and watchdog and the trace writer stay on platform threads.
+ * They are a few long-lived threads, the number of SSE senders is what bounds the concurrent writes to slow clients,
+ * and the group-commit writer only runs JDBC calls, which gain nothing from a virtual thread:
+ * pgjdbc 42.2 runs each statement inside synchronized blocks, so a virtual thread stays pinned to its carrier while
+ * it waits for PostgreSQL, and no more statements run at once than there are carriers, one per CPU by default.
+ * On a host with few CPUs the profile therefore queues requests earlier than the platform thread pool does.
+ * Start with -Djdk.tracePinnedThreads=short to log virtual threads that block while pinned to their carrier.
+ */
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+
+    private final ExecutorService requestExecutor = newVirtualThreadPerTaskExecutor("request-");
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadConnectorCustomizer() {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            ProtocolHandler protocolHandler = connector.getProtocolHandler();
+            if (protocolHandler instanceof AbstractProtocol) {
+                ((AbstractProtocol<?>) protocolHandler).setExecutor(requestExecutor);
+                LOG.info("Tomcat connector on port {} runs requests on virtual threads", connector.getPort());
+            }
+        });
+    }
+
+    //Used for the Spring MVC async dispatch by AsyncSupportConfiguration
+    @Bean
+    public ConcurrentTaskExecutor mvcAsyncExecutor() {
+        ConcurrentTaskExecutor asyncExecutor = new ConcurrentTaskExecutor(requestExecutor);
+        asyncExecutor.setTaskDecorator(Tracing::wrap);
+        return asyncExecutor;
+    }
+
+    //Workers of the readExecutor of the "async" profile, which keeps them bounded by its pool size
+    @Bean
+    @Profile("async")
+    public ThreadFactory readThreadFactory() {
+        return newVirtualThreadFactory("read-");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        requestExecutor.shutdown();
+    }
+
+    /**
+     * @param prefix thread name prefix, followed by a counter
+     * @return executor starting one virtual thread per task
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor(final String prefix) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, newVirtualThreadFactory(prefix));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("The virtual-threads profile needs a Java 21 or later runtime, running on " + System.getProperty("java.version"), e);
+        }
+    }
+
+    /**
+     * Creates Thread.ofVirtual().name(prefix, 0).factory().
+     * The project compiles for Java 8, so the Java 21 API is looked up reflectively.
+     *
+     * @param prefix thread name prefix, followed by a counter
+     * @return factory of virtual threads
+     */
+    static ThreadFactory newVirtualThreadFactory(final String prefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("The virtual-threads profile needs a Java 21 or later runtime, running on " + System.getProperty("java.version"), e);
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package com.upgrad.quora.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.quora.api.limit.AdaptiveConcurrencyLimit;
+import com.upgrad.quora.api.limit.ConcurrencyLimitFilter;
+import com.upgrad.quora.api.model.ConcurrencyLimitStatsResponse;
 import com.upgrad.quora.api.model.SigninResponse;
+import com.upgrad.quora.api.model.SingleFlightStatsResponse;
 import com.upgrad.quora.api.model.UserDeleteResponse;
 import com.upgrad.quora.service.business.AuthenticationService;
+import com.upgrad.quora.service.business.DataExportService;
 import com.upgrad.quora.service.business.UserAdminService;
 import com.upgrad.quora.service.business.UserBusinessService;
+import com.upgrad.quora.service.common.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -13,6 +22,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.upgrad.quora.service.exception.*;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
 @RestController
 @RequestMapping("/")
 
@@ -23,9 +42,22 @@ import com.upgrad.quora.service.exception.*;
  */
 public class AdminController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
     @Autowired
     private UserAdminService userAdminService;
 
+    @Autowired
+    private DataExportService dataExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
     /**
      * Delete User controller for deleting user by userUuid
      *
@@ -43,5 +75,114 @@ public class AdminController {
         return new ResponseEntity<UserDeleteResponse>(userDeleteResponse, headers, HttpStatus.OK);
     }
 
+    /**
+     * Bulk export of questions, answers or users as newline-delimited JSON, one object per line.
+     * Rows are streamed page by page as they are read, optionally gzip-compressed.
+     * Every row ends with its cursor field, an interrupted export is resumed by passing the last cursor received as after.
+     *
+     * @param resource           questions, answers or users
+     * @param since              only export questions and answers dated at or after this ISO date-time
+     * @param after              cursor of the last row already received, to resume an interrupted export
+     * @param gzip               compress the stream with gzip
+     * @param authorizationToken
+     * @param response
+     * @throws AuthorizationFailedException
+     * @throws IOException
+     */
+    //No produces condition, it would also apply to the JSON error responses of this endpoint
+    @RequestMapping(method = RequestMethod.GET, path = "/admin/export/{resource:questions|answers|users}")
+    public void export(@PathVariable("resource") final String resource,
+                       @RequestParam(value = "since", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final LocalDateTime since,
+                       @RequestParam(value = "after", defaultValue = "0") final int after,
+                       @RequestParam(value = "gzip", defaultValue = "false") final boolean gzip,
+                       @RequestHeader("authorization") final String authorizationToken,
+                       final HttpServletResponse response) throws AuthorizationFailedException, IOException {
+        final DataExportService.Resource exported = DataExportService.Resource.valueOf(resource.toUpperCase(Locale.ROOT));
+        final String[] fields = exported.getFields();
+        final NdjsonWriter writer = new NdjsonWriter(response, gzip);
+        dataExportService.export(exported, authorizationToken, since, after, row -> {
+            writer.start();
+            writer.json.writeStartObject();
+            for (int i = 0; i < fields.length; i++) {
+                writer.json.writeObjectField(fields[i], row[i]);
+            }
+            writer.json.writeEndObject();
+            writer.json.writeRaw('\n');
+            //Push rows out regularly so that slow exports still show progress
+            if (++writer.rows % FLUSH_EVERY_ROWS == 0) {
+                writer.json.flush();
+            }
+        });
+        writer.start();
+        writer.json.close();
+    }
+
+    /**
+     * Counters of the coalesced read paths, showing how many identical concurrent calls shared one database query
+     *
+     * @param authorizationToken
+     * @return one entry per read path
+     * @throws AuthorizationFailedException
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/admin/stats/single-flight", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<List<SingleFlightStatsResponse>> getSingleFlightStats(@RequestHeader("authorization") final String authorizationToken) throws AuthorizationFailedException {
+        final Map<String, SingleFlight<?>> singleFlights = userAdminService.getSingleFlights(authorizationToken);
+        List<SingleFlightStatsResponse> stats = new ArrayList<>(singleFlights.size());
+        for (Map.Entry<String, SingleFlight<?>> entry : singleFlights.entrySet()) {
+            SingleFlight<?> singleFlight = entry.getValue();
+            stats.add(new SingleFlightStatsResponse().name(entry.getKey()).calls(singleFlight.getCalls())
+                    .executions(singleFlight.getExecutions()).collapsed(singleFlight.getCollapsed()));
+        }
+        return new ResponseEntity<List<SingleFlightStatsResponse>>(stats, HttpStatus.OK);
+    }
+
+    /**
+     * Current adaptive concurrency limits of the signin, write and read requests
+     *
+     * @param authorizationToken
+     * @return one entry per request class
+     * @throws AuthorizationFailedException
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/admin/stats/concurrency-limits", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<List<ConcurrencyLimitStatsResponse>> getConcurrencyLimitStats(@RequestHeader("authorization") final String authorizationToken) throws AuthorizationFailedException {
+        userAdminService.authorizeAdmin(authorizationToken);
+        List<ConcurrencyLimitStatsResponse> stats = new ArrayList<>();
+        for (AdaptiveConcurrencyLimit limit : concurrencyLimitFilter.getLimits()) {
+            stats.add(new ConcurrencyLimitStatsResponse().name(limit.getName()).limit(limit.getLimit())
+                    .inFlight(limit.getInFlight()).rejected(limit.getRejected()));
+        }
+        return new ResponseEntity<List<ConcurrencyLimitStatsResponse>>(stats, HttpStatus.OK);
+    }
 
+    /**
+     * Opens the response stream on the first row, so that authorization errors can still be answered with a regular error response.
+     */
+    private final class NdjsonWriter {
+
+        private final HttpServletResponse response;
+
+        private final boolean gzip;
+
+        private JsonGenerator json;
+
+        private long rows;
+
+        private NdjsonWriter(final HttpServletResponse response, final boolean gzip) {
+            this.response = response;
+            this.gzip = gzip;
+        }
+
+        private void start() throws IOException {
+            if (json != null) {
+                return;
+            }
+            response.setContentType(NDJSON_VALUE);
+            OutputStream out = response.getOutputStream();
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                out = new GZIPOutputStream(out, true);
+            }
+            json = objectMapper.getFactory().createGenerator(out);
+        }
+    }
 }
@@ -1,21 +1,31 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.api.cache.SerializedResponseCache;
 import com.upgrad.quora.api.model.*;
+import com.upgrad.quora.api.stream.AnswerEventStreams;
 import com.upgrad.quora.service.business.AnswerBusinessService;
 import com.upgrad.quora.service.business.QuestionBusinessService;
 import com.upgrad.quora.service.entity.AnswerEntity;
 import com.upgrad.quora.service.exception.AnswerNotFoundException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
+import com.upgrad.quora.service.exception.UnknownFieldException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -31,6 +41,15 @@ public class AnswerController {
     @Autowired
     QuestionBusinessService questionService;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    SerializedResponseCache responseCache;
+
+    @Autowired
+    AnswerEventStreams answerEventStreams;
+
     /**
      * Answer controller method for creating answer for a question
      *
@@ -48,7 +67,11 @@ public class AnswerController {
         AnswerEntity answerEntity = new AnswerEntity();
         answerEntity.setAns(answerRequest.getAnswer());
         answerEntity.setUuid(UUID.randomUUID().toString());
-        answerService.createAnswers(quesUuid, answerEntity, authorization);
+        if (answerService.isGroupCommitEnabled()) {
+            answerService.createAnswersGrouped(quesUuid, answerEntity, authorization);
+        } else {
+            answerService.createAnswers(quesUuid, answerEntity, authorization);
+        }
         AnswerResponse answerRsp = new AnswerResponse().id(answerEntity.getUuid()).status("ANSWER CREATED");
         return new ResponseEntity<AnswerResponse>(answerRsp, HttpStatus.CREATED);
 
@@ -97,24 +120,98 @@ public class AnswerController {
      *
      * @param questionId
      * @param authorization
-     * @return List of all answer for a question using question id
+     * @param fields optional sparse fieldset of the answers, see SparseFields
+     * @param include optional related objects to embed, question and/or author
+     * @return List of all answer for a question using question id, served from the SerializedResponseCache while the answers are unchanged
      * @throws AuthorizationFailedException
      * @throws InvalidQuestionException
+     * @throws UnknownFieldException if fields or include name something unknown
      */
     @RequestMapping(method = RequestMethod.GET, path = "answer/all/{questionId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<List<AnswerDetailsResponse>> getAllAnswersForQuestion(@PathVariable(value = "questionId") final String questionId,
-                                                                                @RequestHeader(value = "authorization") final String authorization)
-            throws AuthorizationFailedException, InvalidQuestionException {
+    public ResponseEntity<byte[]> getAllAnswersForQuestion(@PathVariable(value = "questionId") final String questionId,
+                                                           @RequestHeader(value = "authorization") final String authorization,
+                                                           @RequestParam(value = "fields", required = false) final List<String> fields,
+                                                           @RequestParam(value = "include", required = false) final List<String> include,
+                                                           final WebRequest webRequest)
+            throws AuthorizationFailedException, InvalidQuestionException, UnknownFieldException {
+
+        if (fields != null || include != null) {
+            //Only the requested columns are selected, and the question and author are only joined when included
+            SparseFields.AnswerProjection projection = SparseFields.answerProjection(fields, include);
+            SerializedResponseCache.Lookup cached = responseCache.lookup("answers:" + questionId, projection.getVariant(), webRequest);
+            List<Object[]> rows = answerService.getAnswerFieldsForQuestion(questionId, authorization, projection.getColumns(), cached);
+            if (rows == null) {
+                return cached.cachedResponse();
+            }
+            List<Map<String, Object>> answers = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                answers.add(projection.toJson(row));
+            }
+            return cached.store(answers);
+        }
 
-        List<AnswerEntity> answerEntityList = answerService.getAllAnswersForQuestion(questionId, authorization);
+        SerializedResponseCache.Lookup cached = responseCache.lookup("answers:" + questionId, webRequest);
+        List<Object[]> answerRows = answerService.getAllAnswersForQuestion(questionId, authorization, cached);
+        //Null means either the If-None-Match tag is current and the 304 status has already been set, or the body is cached
+        if (answerRows == null) {
+            return cached.cachedResponse();
+        }
         //List is Created to store and retrieve all answer
         List<AnswerDetailsResponse> answerDetailsResponseList = new LinkedList<>();
 
-        for (AnswerEntity answerEntity : answerEntityList) {
-            AnswerDetailsResponse answerDetailsResponse = new AnswerDetailsResponse().id(answerEntity.getUuid()).answerContent(answerEntity.getAns())
-                    .questionContent(answerEntity.getQuestion().getContent());
+        for (Object[] answerRow : answerRows) {
+            AnswerDetailsResponse answerDetailsResponse = new AnswerDetailsResponse().id((String) answerRow[0]).answerContent((String) answerRow[1])
+                    .questionContent((String) answerRow[2]);
             answerDetailsResponseList.add(answerDetailsResponse);
         }
-        return new ResponseEntity<List<AnswerDetailsResponse>>(answerDetailsResponseList, HttpStatus.OK);
+        return cached.store(answerDetailsResponseList);
+    }
+
+    /**
+     * Streaming variant of getAllAnswersForQuestion, selected with stream=true.
+     * Each answer is written to the response as soon as it is read from the cursor.
+     *
+     * @param questionId
+     * @param authorization
+     * @param webRequest
+     * @param response
+     * @throws AuthorizationFailedException
+     * @throws InvalidQuestionException
+     * @throws IOException
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "answer/all/{questionId}", params = "stream=true", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public void streamAllAnswersForQuestion(@PathVariable(value = "questionId") final String questionId,
+                                            @RequestHeader(value = "authorization") final String authorization,
+                                            final WebRequest webRequest, final HttpServletResponse response)
+            throws AuthorizationFailedException, InvalidQuestionException, IOException {
+
+        //The stream is opened by the first row, after the token, the question and the ETag have been checked
+        try (JsonArrayStream stream = new JsonArrayStream(objectMapper, response)) {
+            if (answerService.streamAllAnswersForQuestion(questionId, authorization, webRequest::checkNotModified, row ->
+                    stream.write(new AnswerDetailsResponse().id((String) row[0]).answerContent((String) row[1]).questionContent((String) row[2])))) {
+                stream.finish();
+            }
+        }
+    }
+
+    /**
+     * Server-Sent Events stream of the answers posted to a question from now on.
+     * Answers are pushed as they are committed, so watching clients no longer need to poll answer/all/{questionId}.
+     * A reconnecting client sends the Last-Event-ID header and receives the answers it missed.
+     * No produces condition is declared, so that failures still reach the client as an ErrorResponse.
+     *
+     * @param questionId
+     * @param authorization
+     * @param lastEventId id of the last event received before reconnecting
+     * @return event stream
+     * @throws AuthorizationFailedException
+     * @throws InvalidQuestionException
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/{questionId}/answers/stream")
+    public SseEmitter streamNewAnswers(@PathVariable(value = "questionId") final String questionId,
+                                       @RequestHeader(value = "authorization") final String authorization,
+                                       @RequestHeader(value = "Last-Event-ID", required = false) final String lastEventId)
+            throws AuthorizationFailedException, InvalidQuestionException {
+        return answerEventStreams.open(questionId, authorization, lastEventId);
     }
 }
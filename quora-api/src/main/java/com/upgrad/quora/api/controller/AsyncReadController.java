@@ -0,0 +1,127 @@
+package com.upgrad.quora.api.controller;
+
+import com.upgrad.quora.api.model.AnswerDetailsResponse;
+import com.upgrad.quora.api.model.QuestionDetailsResponse;
+import com.upgrad.quora.api.model.UserDetailsResponse;
+import com.upgrad.quora.api.stream.PacedRowSink;
+import com.upgrad.quora.service.business.AnswerBusinessService;
+import com.upgrad.quora.service.business.CommonService;
+import com.upgrad.quora.service.business.QuestionBusinessService;
+import com.upgrad.quora.service.common.RequestDeadline;
+import com.upgrad.quora.service.entity.UserEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+@RestController
+@Profile("async")
+@RequestMapping("/async")
+/**
+ * Non-blocking variants of the read endpoints, active with the "async" profile next to the regular controllers.
+ * The blocking service calls run on the bounded readExecutor and the Tomcat thread is released until they complete,
+ * so the number of requests in flight is no longer limited by the servlet thread pool.
+ * The listings return a Flux fed from a forward-only cursor at the pace the client takes the rows,
+ * so neither the service nor Spring MVC collects them into a list.
+ */
+public class AsyncReadController {
+
+    @Autowired
+    private QuestionBusinessService questionBusinessService;
+
+    @Autowired
+    private AnswerBusinessService answerBusinessService;
+
+    @Autowired
+    private CommonService commonService;
+
+    @Autowired
+    private AsyncTaskExecutor readExecutor;
+
+    //A client that takes no row for this long is given up, and its read worker and connection are released
+    @Value("${quora.async.read.stall-timeout-ms:10000}")
+    private long stallTimeoutMs;
+
+    /**
+     * Async variant of QuestionController.getAllQuestions, the questions are streamed as one JSON object per line
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/all", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Mono<ResponseEntity<Flux<QuestionDetailsResponse>>> getAllQuestions(@RequestHeader("authorization") final String authorization) {
+        final PacedRowSink<QuestionDetailsResponse> rows = new PacedRowSink<>(row -> new QuestionDetailsResponse().id((String) row[0]).content((String) row[1]), stallTimeoutMs);
+        return streamOnReadExecutor(rows, validated -> questionBusinessService.streamAllQuestions(authorization, validated, rows));
+    }
+
+    /**
+     * Async variant of AnswerController.getAllAnswersForQuestion, the answers are streamed as one JSON object per line
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/answer/all/{questionId}", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Mono<ResponseEntity<Flux<AnswerDetailsResponse>>> getAllAnswersForQuestion(@RequestHeader("authorization") final String authorization, @PathVariable("questionId") final String questionUuid) {
+        final PacedRowSink<AnswerDetailsResponse> rows = new PacedRowSink<>(row -> new AnswerDetailsResponse().id((String) row[0]).answerContent((String) row[1]).questionContent((String) row[2]), stallTimeoutMs);
+        return streamOnReadExecutor(rows, validated -> answerBusinessService.streamAllAnswersForQuestion(questionUuid, authorization, validated, rows));
+    }
+
+    /**
+     * Async variant of CommonController.getUser
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/userprofile/{userId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public Mono<ResponseEntity<UserDetailsResponse>> getUser(@PathVariable("userId") final String userUuid, @RequestHeader("authorization") final String authorization) {
+        final Long deadline = RequestDeadline.get();
+        return Mono.fromCallable(() -> {
+            //The deadline of the request goes along with the call, so that its queries are bounded as on the request thread
+            RequestDeadline.set(deadline);
+            try {
+                UserEntity userEntity = commonService.getUser(userUuid, authorization);
+                UserDetailsResponse userDetailsResponse = new UserDetailsResponse().firstName(userEntity.getFirstName()).lastName(userEntity.getLastName()).userName(userEntity.getUsername()).emailAddress(userEntity.getEmail()).country(userEntity.getCountry()).aboutMe(userEntity.getAboutMe()).contactNumber(userEntity.getContactNumber()).dob(userEntity.getDob());
+                return new ResponseEntity<UserDetailsResponse>(userDetailsResponse, HttpStatus.OK);
+            } finally {
+                RequestDeadline.clear();
+            }
+        }).subscribeOn(Schedulers.fromExecutor(readExecutor));
+    }
+
+    /**
+     * Scrolling service call, validated is offered the version tag once the request has been validated and
+     * must return false for the rows to be read
+     */
+    @FunctionalInterface
+    private interface StreamingRead {
+        boolean read(Predicate<String> validated) throws Exception;
+    }
+
+    //The Mono completes with the response as soon as the service has validated the request, so that a failed
+    //validation still gets its own status from RestExceptionHandler. The rows follow through the Flux while
+    //the query is still running, a failure after that point can only end the stream.
+    private <T> Mono<ResponseEntity<Flux<T>>> streamOnReadExecutor(final PacedRowSink<T> rows, final StreamingRead read) {
+        final Long deadline = RequestDeadline.get();
+        return Mono.create(response -> readExecutor.execute(() -> {
+            final AtomicBoolean started = new AtomicBoolean();
+            RequestDeadline.set(deadline);
+            try {
+                read.read(tag -> {
+                    started.set(true);
+                    response.success(new ResponseEntity<Flux<T>>(rows.flux(), HttpStatus.OK));
+                    return false;
+                });
+                rows.complete();
+            } catch (Exception e) {
+                if (started.get()) {
+                    rows.error(e);
+                } else {
+                    response.error(e);
+                }
+            } finally {
+                RequestDeadline.clear();
+            }
+        }));
+    }
+}
@@ -0,0 +1,86 @@
+package com.upgrad.quora.api.controller;
+
+import com.upgrad.quora.api.model.*;
+import com.upgrad.quora.service.business.BatchBusinessService;
+import com.upgrad.quora.service.business.BatchItemResult;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.BatchSizeExceededException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "/")
+/**
+ * API of Batch Services
+ */
+public class BatchController {
+
+    @Autowired
+    BatchBusinessService batchBusinessService;
+
+    /**
+     * Creates all questions of the request for the signed in user
+     *
+     * @param authorization        for validation
+     * @param batchQuestionRequest questions to create
+     * @return one result per question, 201 if all were created and 207 otherwise
+     * @throws AuthorizationFailedException if the user is not signed in
+     * @throws BatchSizeExceededException   if the batch is too large
+     */
+    @RequestMapping(method = RequestMethod.POST, path = "/batch/questions", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<BatchResponse> createQuestions(@RequestHeader("authorization") final String authorization, @RequestBody final BatchQuestionRequest batchQuestionRequest) throws AuthorizationFailedException, BatchSizeExceededException {
+
+        List<BatchQuestionItem> items = batchQuestionRequest.getQuestions() == null ? Collections.<BatchQuestionItem>emptyList() : batchQuestionRequest.getQuestions();
+        List<String> contents = new ArrayList<>(items.size());
+        for (BatchQuestionItem item : items) {
+            contents.add(item.getContent());
+        }
+        return batchResponse(batchBusinessService.createQuestions(authorization, contents), "QUESTION CREATED");
+    }
+
+    /**
+     * Creates all answers of the request for the signed in user
+     *
+     * @param authorization      for validation
+     * @param batchAnswerRequest answers to create, each naming its question
+     * @return one result per answer, 201 if all were created and 207 otherwise
+     * @throws AuthorizationFailedException if the user is not signed in
+     * @throws BatchSizeExceededException   if the batch is too large
+     */
+    @RequestMapping(method = RequestMethod.POST, path = "/batch/answers", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<BatchResponse> createAnswers(@RequestHeader("authorization") final String authorization, @RequestBody final BatchAnswerRequest batchAnswerRequest) throws AuthorizationFailedException, BatchSizeExceededException {
+
+        List<BatchAnswerItem> items = batchAnswerRequest.getAnswers() == null ? Collections.<BatchAnswerItem>emptyList() : batchAnswerRequest.getAnswers();
+        List<String> questionUuids = new ArrayList<>(items.size());
+        List<String> answers = new ArrayList<>(items.size());
+        for (BatchAnswerItem item : items) {
+            questionUuids.add(item.getQuestionId());
+            answers.add(item.getAnswer());
+        }
+        return batchResponse(batchBusinessService.createAnswers(authorization, questionUuids, answers), "ANSWER CREATED");
+    }
+
+    private ResponseEntity<BatchResponse> batchResponse(final List<BatchItemResult> results, final String createdStatus) {
+        BatchResponse batchResponse = new BatchResponse().results(new ArrayList<>(results.size()));
+        int created = 0;
+        for (BatchItemResult result : results) {
+            BatchItemResponse itemResponse = new BatchItemResponse().index(result.getIndex());
+            if (result.isCreated()) {
+                itemResponse.id(result.getUuid()).status(createdStatus);
+                created++;
+            } else {
+                itemResponse.status("REJECTED").code(result.getCode()).message(result.getErrorMessage());
+            }
+            batchResponse.addResultsItem(itemResponse);
+        }
+        batchResponse.created(created).failed(results.size() - created);
+        return new ResponseEntity<BatchResponse>(batchResponse, created == results.size() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+    }
+}
@@ -2,14 +2,22 @@ package com.upgrad.quora.api.controller;
 
 import com.upgrad.quora.api.model.UserDetailsResponse;
 import com.upgrad.quora.service.business.CommonService;
+import com.upgrad.quora.service.business.UserField;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.BatchSizeExceededException;
+import com.upgrad.quora.service.exception.UnknownFieldException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 
 @RestController
@@ -33,11 +41,62 @@ public class CommonController {
      */
 
     @RequestMapping(method = RequestMethod.GET, path = "/userprofile/{userId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<UserDetailsResponse> getUser(@PathVariable("userId") final String userUuid, @RequestHeader("authorization") final String authorizationToken)
+    public ResponseEntity<UserDetailsResponse> getUser(@PathVariable("userId") final String userUuid, @RequestHeader("authorization") final String authorizationToken, final WebRequest webRequest)
             throws UserNotFoundException, AuthorizationFailedException {
-        final UserEntity userEntity = commonService.getUser(userUuid, authorizationToken);
+        final UserEntity userEntity = commonService.getUser(userUuid, authorizationToken, webRequest::checkNotModified);
+        //Null means the If-None-Match tag is current, the 304 status has already been set
+        if (userEntity == null) {
+            return null;
+        }
         UserDetailsResponse userDetailsResponse = new UserDetailsResponse().firstName(userEntity.getFirstName()).lastName(userEntity.getLastName()).userName(userEntity.getUsername()).emailAddress(userEntity.getEmail()).country(userEntity.getCountry()).aboutMe(userEntity.getAboutMe()).contactNumber(userEntity.getContactNumber()).dob(userEntity.getContactNumber());
         return new ResponseEntity<UserDetailsResponse>(userDetailsResponse, HttpStatus.OK);
     }
 
+    /**
+     * Sparse variant of getUser, selected with fields=, only the requested profile properties are read and returned
+     *
+     * @param userUuid
+     * @param fields             comma separated properties of UserDetailsResponse
+     * @param authorizationToken
+     * @return profile holding only the requested properties
+     * @throws UserNotFoundException        if the authorization details of user are not found
+     * @throws AuthorizationFailedException if user is not authorised to get details of user
+     * @throws UnknownFieldException        if a field is not a profile property
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/userprofile/{userId}", params = "fields", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<Map<String, Object>> getUserFields(@PathVariable("userId") final String userUuid, @RequestParam("fields") final List<String> fields,
+                                                             @RequestHeader("authorization") final String authorizationToken, final WebRequest webRequest)
+            throws UserNotFoundException, AuthorizationFailedException, UnknownFieldException {
+        final List<UserField> columns = SparseFields.userColumns(fields);
+        //The fieldset is part of the ETag, so a tag of one fieldset never answers for another
+        final String variant = SparseFields.userVariant(columns);
+        final Object[] values = commonService.getUserFields(userUuid, authorizationToken, columns, tag -> webRequest.checkNotModified(tag + "-" + variant));
+        //Null means the If-None-Match tag is current, the 304 status has already been set
+        if (values == null) {
+            return null;
+        }
+        return new ResponseEntity<Map<String, Object>>(SparseFields.userJson(fields, values), HttpStatus.OK);
+    }
+
+    /**
+     * Method create API getUsersByIds endpoint, which returns several profiles with one lookup
+     *
+     * @param userUuids          comma separated user uuids
+     * @param authorizationToken
+     * @return profiles in the order of the first occurrence of their uuid, unknown uuids are left out
+     * @throws AuthorizationFailedException if user is not authorised to get details of users
+     * @throws BatchSizeExceededException   if too many uuids are requested
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/userprofile", params = "ids", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<List<UserDetailsResponse>> getUsers(@RequestParam("ids") final List<String> userUuids, @RequestHeader("authorization") final String authorizationToken)
+            throws AuthorizationFailedException, BatchSizeExceededException {
+        final List<Object[]> profiles = commonService.getUsers(userUuids, authorizationToken);
+        List<UserDetailsResponse> userDetailsResponses = new ArrayList<>(profiles.size());
+        for (Object[] profile : profiles) {
+            userDetailsResponses.add(new UserDetailsResponse().id((String) profile[0]).firstName((String) profile[1]).lastName((String) profile[2]).userName((String) profile[3])
+                    .emailAddress((String) profile[4]).country((String) profile[5]).aboutMe((String) profile[6]).dob((String) profile[7]).contactNumber((String) profile[8]));
+        }
+        return new ResponseEntity<List<UserDetailsResponse>>(userDetailsResponses, HttpStatus.OK);
+    }
+
 }
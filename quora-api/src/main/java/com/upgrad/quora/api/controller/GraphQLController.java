@@ -0,0 +1,38 @@
+package com.upgrad.quora.api.controller;
+
+import com.upgrad.quora.api.graphql.GraphQLExecutor;
+import com.upgrad.quora.api.model.GraphQLRequest;
+import com.upgrad.quora.api.model.GraphQLResponse;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping(path = "/")
+/**
+ * API of GraphQL Services
+ */
+public class GraphQLController {
+
+    @Autowired
+    GraphQLExecutor graphQLExecutor;
+
+    /**
+     * Runs a GraphQL query over questions, answers and user profiles
+     *
+     * @param authorization  for validation
+     * @param graphQLRequest query and its variables
+     * @return data shaped like the selection of the query
+     * @throws AuthorizationFailedException if the user is not signed in
+     */
+    @RequestMapping(method = RequestMethod.POST, path = "/graphql", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<GraphQLResponse> query(@RequestHeader("authorization") final String authorization, @RequestBody final GraphQLRequest graphQLRequest) throws AuthorizationFailedException {
+
+        GraphQLResponse graphQLResponse = new GraphQLResponse()
+                .data(graphQLExecutor.execute(graphQLRequest.getQuery(), graphQLRequest.getVariables(), authorization));
+        return new ResponseEntity<GraphQLResponse>(graphQLResponse, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,56 @@
+package com.upgrad.quora.api.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes the rows of a streaming read endpoint as one JSON array.
+ * The response stream is only opened by the first element or by finish(), so a request refused by the service
+ * or answered with 304 leaves the response untouched. The generator is closed in every case, an array that was
+ * not finished is left open so that a failed stream cannot be mistaken for a complete one.
+ */
+final class JsonArrayStream implements Closeable {
+
+    private final ObjectMapper objectMapper;
+
+    private final HttpServletResponse response;
+
+    private JsonGenerator json;
+
+    JsonArrayStream(final ObjectMapper objectMapper, final HttpServletResponse response) {
+        this.objectMapper = objectMapper;
+        this.response = response;
+    }
+
+    void write(final Object element) throws IOException {
+        start();
+        json.writeObject(element);
+    }
+
+    void finish() throws IOException {
+        start();
+        json.writeEndArray();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.close();
+        }
+    }
+
+    private void start() throws IOException {
+        if (json != null) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        json = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        json.writeStartArray();
+    }
+}
@@ -0,0 +1,38 @@
+package com.upgrad.quora.api.controller;
+
+import com.upgrad.quora.api.metrics.PrometheusExporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/")
+/**
+ * Metrics endpoint for Prometheus. It is not authenticated, like the scrape targets of Prometheus usually are,
+ * so it should only be reachable from the internal network, or switched off with quora.metrics.enabled.
+ */
+public class MetricsController {
+
+    static final String PROMETHEUS_TEXT_FORMAT = "text/plain;version=0.0.4;charset=utf-8";
+
+    @Autowired
+    private PrometheusExporter prometheusExporter;
+
+    @Value("${quora.metrics.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * @return the metrics in the Prometheus text exposition format
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/actuator/prometheus", produces = PROMETHEUS_TEXT_FORMAT)
+    public ResponseEntity<String> scrape() {
+        if (!enabled) {
+            return new ResponseEntity<String>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<String>(prometheusExporter.scrape(), HttpStatus.OK);
+    }
+}
@@ -1,6 +1,7 @@
 package com.upgrad.quora.api.controller;
 
 
+import com.upgrad.quora.api.cache.SerializedResponseCache;
 import com.upgrad.quora.api.model.QuestionDeleteResponse;
 import com.upgrad.quora.api.model.QuestionDetailsResponse;
 import com.upgrad.quora.api.model.QuestionEditRequest;
@@ -10,19 +11,27 @@ import com.upgrad.quora.api.model.QuestionResponse;
 import com.upgrad.quora.service.business.QuestionBusinessService;
 import com.upgrad.quora.service.entity.QuestionEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.BatchSizeExceededException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
+import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 
 @RestController
@@ -36,6 +45,15 @@ public class QuestionController {
     @Autowired
     private QuestionBusinessService questionBusinessService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SerializedResponseCache responseCache;
+
+    @Value("${quora.question.similarity.warn-on-create:false}")
+    private boolean warnOnSimilarQuestion;
+
     /**
      * Create Question  method for posting new Questions
      *
@@ -54,7 +72,16 @@ public class QuestionController {
         questionEntity.setUuid(UUID.randomUUID().toString());
         QuestionEntity createdQuestion = questionBusinessService.createQuestionForUser(questionEntity, authorization);
         QuestionResponse questionResponse = new QuestionResponse().id(createdQuestion.getUuid()).status("QUESTION CREATED");
-        return new ResponseEntity<QuestionResponse>(questionResponse, HttpStatus.CREATED);
+        HttpHeaders headers = new HttpHeaders();
+        //Warn the client about likely duplicates of the question it has just posted
+        if (warnOnSimilarQuestion) {
+            List<String> similarUuids = questionBusinessService.getSimilarQuestionUuids(createdQuestion.getContent());
+            similarUuids.remove(createdQuestion.getUuid());
+            if (!similarUuids.isEmpty()) {
+                headers.add("similar-questions", String.join(",", similarUuids));
+            }
+        }
+        return new ResponseEntity<QuestionResponse>(questionResponse, headers, HttpStatus.CREATED);
 
     }
 
@@ -81,18 +108,90 @@ public class QuestionController {
      * Method to retrieve all the questions By any user
      *
      * @param authorization
-     * @return List of all the Questions
+     * @return List of all the Questions, served from the SerializedResponseCache while the questions are unchanged
      * @throws AuthorizationFailedException
      */
 
     @RequestMapping(method = RequestMethod.GET, path = "/question/all", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<List<QuestionDetailsResponse>> getAllQuestions(@RequestHeader("authorization") final String authorization) throws AuthorizationFailedException {
+    public ResponseEntity<byte[]> getAllQuestions(@RequestHeader("authorization") final String authorization, final WebRequest webRequest) throws AuthorizationFailedException {
 
-        List<QuestionEntity> questionEntities = questionBusinessService.getAllQuestions(authorization);
+        SerializedResponseCache.Lookup cached = responseCache.lookup("questions", webRequest);
+        List<Object[]> questionRows = questionBusinessService.getAllQuestions(authorization, cached);
+        //Null means either the If-None-Match tag is current and the 304 status has already been set, or the body is cached
+        if (questionRows == null) {
+            return cached.cachedResponse();
+        }
         //New List is created to store and return the list of all the Questions
         List<QuestionDetailsResponse> questionDetailsResponseList = new LinkedList<>();
 
 
+        for (Object[] questionRow : questionRows) {
+            QuestionDetailsResponse questionDetailsResponse = new QuestionDetailsResponse().id((String) questionRow[0]).content((String) questionRow[1]);
+            questionDetailsResponseList.add(questionDetailsResponse);
+        }
+
+        return cached.store(questionDetailsResponseList);
+
+    }
+
+    /**
+     * Get Questions By Ids method, returns several questions with one lookup
+     *
+     * @param questionUuids comma separated question uuids
+     * @param authorization
+     * @return questions in the order of the first occurrence of their uuid, unknown uuids are left out
+     * @throws AuthorizationFailedException
+     * @throws BatchSizeExceededException if too many uuids are requested
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question", params = "ids", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<List<QuestionDetailsResponse>> getQuestionsByIds(@RequestParam("ids") final List<String> questionUuids, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, BatchSizeExceededException {
+
+        List<Object[]> questions = questionBusinessService.getQuestionsByUuids(questionUuids, authorization);
+        List<QuestionDetailsResponse> questionDetailsResponseList = new ArrayList<>(questions.size());
+        for (Object[] question : questions) {
+            questionDetailsResponseList.add(new QuestionDetailsResponse().id((String) question[0]).content((String) question[1]));
+        }
+        return new ResponseEntity<List<QuestionDetailsResponse>>(questionDetailsResponseList, HttpStatus.OK);
+    }
+
+    /**
+     * Streaming variant of getAllQuestions, selected with stream=true.
+     * Rows are read with a forward-only cursor and each question is written to the response as soon as it is read,
+     * so memory use does not grow with the number of questions.
+     *
+     * @param authorization
+     * @param webRequest
+     * @param response
+     * @throws AuthorizationFailedException
+     * @throws IOException
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/all", params = "stream=true", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public void streamAllQuestions(@RequestHeader("authorization") final String authorization, final WebRequest webRequest, final HttpServletResponse response) throws AuthorizationFailedException, IOException {
+
+        //The stream is opened by the first row, after the token and the ETag have been checked
+        try (JsonArrayStream stream = new JsonArrayStream(objectMapper, response)) {
+            if (questionBusinessService.streamAllQuestions(authorization, webRequest::checkNotModified, row ->
+                    stream.write(new QuestionDetailsResponse().id((String) row[0]).content((String) row[1])))) {
+                stream.finish();
+            }
+        }
+    }
+
+    /**
+     * This method is used to find existing questions that are likely duplicates of the given content
+     *
+     * @param content       question text to compare
+     * @param authorization
+     * @return List of similar questions, most similar first
+     * @throws AuthorizationFailedException
+     */
+
+    @RequestMapping(method = RequestMethod.GET, path = "/question/similar", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<List<QuestionDetailsResponse>> getSimilarQuestions(@RequestParam("content") final String content, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException {
+
+        List<QuestionEntity> questionEntities = questionBusinessService.getSimilarQuestions(content, authorization);
+        List<QuestionDetailsResponse> questionDetailsResponseList = new LinkedList<>();
+
         for (QuestionEntity questionEntity : questionEntities) {
             QuestionDetailsResponse questionDetailsResponse = new QuestionDetailsResponse().id(questionEntity.getUuid()).content(questionEntity.getContent());
             questionDetailsResponseList.add(questionDetailsResponse);
@@ -113,9 +212,13 @@ public class QuestionController {
      */
 
     @RequestMapping(method = RequestMethod.GET, path = "question/all/{userId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<List<QuestionDetailsResponse>> getAllQuestionsByUser(@PathVariable(value = "userId") final String uuid, @RequestHeader(value = "authorization") final String authorization) throws UserNotFoundException, AuthorizationFailedException {
+    public ResponseEntity<List<QuestionDetailsResponse>> getAllQuestionsByUser(@PathVariable(value = "userId") final String uuid, @RequestHeader(value = "authorization") final String authorization, final WebRequest webRequest) throws UserNotFoundException, AuthorizationFailedException {
 
-        List<QuestionEntity> questionEntities = questionBusinessService.getAllQuestionByUser(uuid, authorization);
+        List<QuestionEntity> questionEntities = questionBusinessService.getAllQuestionByUser(uuid, authorization, webRequest::checkNotModified);
+        //Null means the If-None-Match tag is current, the 304 status has already been set
+        if (questionEntities == null) {
+            return null;
+        }
         //New List is created to store and return the list of all the Questions
         List<QuestionDetailsResponse> questionDetailsResponseList = new LinkedList<>();
 
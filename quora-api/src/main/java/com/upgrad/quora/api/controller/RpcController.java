@@ -0,0 +1,214 @@
+package com.upgrad.quora.api.controller;
+
+import com.upgrad.quora.api.model.AnswerDetailsResponse;
+import com.upgrad.quora.api.model.AnswerResponse;
+import com.upgrad.quora.api.model.QuestionDetailsResponse;
+import com.upgrad.quora.api.model.QuestionResponse;
+import com.upgrad.quora.api.model.UserDetailsResponse;
+import com.upgrad.quora.api.protobuf.ProtoReader;
+import com.upgrad.quora.api.protobuf.ProtoWriter;
+import com.upgrad.quora.api.protobuf.QuoraProtos;
+import com.upgrad.quora.service.business.AnswerBusinessService;
+import com.upgrad.quora.service.business.CommonService;
+import com.upgrad.quora.service.business.QuestionBusinessService;
+import com.upgrad.quora.service.entity.AnswerEntity;
+import com.upgrad.quora.service.entity.QuestionEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.BatchSizeExceededException;
+import com.upgrad.quora.service.exception.InvalidQuestionException;
+import com.upgrad.quora.service.exception.UserNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping(path = "/rpc/quora.QuoraService")
+/**
+ * Binary API of the question, answer and user services, see proto/quora.proto for the messages.
+ * Every call is a POST of a protocol buffers request message to /rpc/quora.QuoraService/{method}, authenticated
+ * with the same authorization header as the JSON API. The List methods stream one framed message per row while
+ * the rows are read, the other methods answer with a single message.
+ * No produces condition is declared, so that failures still reach the client as the JSON ErrorResponse of RestExceptionHandler.
+ */
+public class RpcController {
+
+    @Autowired
+    private QuestionBusinessService questionBusinessService;
+
+    @Autowired
+    private AnswerBusinessService answerService;
+
+    @Autowired
+    private CommonService commonService;
+
+    /**
+     * CreateQuestion(CreateQuestionRequest) returns (QuestionResponse)
+     *
+     * @param authorization
+     * @param request       encoded CreateQuestionRequest
+     * @return encoded QuestionResponse
+     * @throws AuthorizationFailedException
+     */
+    @RequestMapping(method = RequestMethod.POST, path = "/CreateQuestion", consumes = QuoraProtos.MEDIA_TYPE)
+    public ResponseEntity<byte[]> createQuestion(@RequestHeader("authorization") final String authorization, @RequestBody(required = false) final byte[] request) throws AuthorizationFailedException {
+
+        QuestionEntity questionEntity = new QuestionEntity();
+        questionEntity.setContent(parse(request).getString(1));
+        questionEntity.setDate(LocalDateTime.now());
+        questionEntity.setUuid(UUID.randomUUID().toString());
+        QuestionEntity createdQuestion = questionBusinessService.createQuestionForUser(questionEntity, authorization);
+        QuestionResponse questionResponse = new QuestionResponse().id(createdQuestion.getUuid()).status("QUESTION CREATED");
+        return protoResponse(QuoraProtos.questionResponse(questionResponse), HttpStatus.CREATED);
+    }
+
+    /**
+     * GetQuestions(GetQuestionsRequest) returns (QuestionList)
+     *
+     * @param authorization
+     * @param request       encoded GetQuestionsRequest
+     * @return encoded QuestionList, in the order of the first occurrence of the ids, unknown ids are left out
+     * @throws AuthorizationFailedException
+     * @throws BatchSizeExceededException if too many ids are requested
+     */
+    @RequestMapping(method = RequestMethod.POST, path = "/GetQuestions", consumes = QuoraProtos.MEDIA_TYPE)
+    public ResponseEntity<byte[]> getQuestions(@RequestHeader("authorization") final String authorization, @RequestBody(required = false) final byte[] request) throws AuthorizationFailedException, BatchSizeExceededException {
+
+        List<Object[]> questions = questionBusinessService.getQuestionsByUuids(parse(request).getStrings(1), authorization);
+        List<QuestionDetailsResponse> questionDetailsResponseList = new ArrayList<>(questions.size());
+        for (Object[] question : questions) {
+            questionDetailsResponseList.add(new QuestionDetailsResponse().id((String) question[0]).content((String) question[1]));
+        }
+        return protoResponse(QuoraProtos.questionList(questionDetailsResponseList), HttpStatus.OK);
+    }
+
+    /**
+     * ListQuestions(ListQuestionsRequest) returns (stream QuestionDetails)
+     *
+     * @param authorization
+     * @param request       encoded ListQuestionsRequest, which has no fields
+     * @param response      receives one frame per question
+     * @throws AuthorizationFailedException
+     * @throws IOException
+     */
+    @RequestMapping(method = RequestMethod.POST, path = "/ListQuestions", consumes = QuoraProtos.MEDIA_TYPE)
+    public void listQuestions(@RequestHeader("authorization") final String authorization, @RequestBody(required = false) final byte[] request, final HttpServletResponse response) throws AuthorizationFailedException, IOException {
+
+        parse(request);
+        response.setContentType(QuoraProtos.MEDIA_TYPE);
+        //Nothing reaches the client before the token has been validated, frames are only written once rows are read
+        final ServletOutputStream stream = response.getOutputStream();
+        questionBusinessService.streamAllQuestions(authorization, tag -> false, row ->
+                QuoraProtos.questionDetails(new QuestionDetailsResponse().id((String) row[0]).content((String) row[1])).writeFrameTo(stream));
+        stream.flush();
+    }
+
+    /**
+     * CreateAnswer(CreateAnswerRequest) returns (AnswerResponse)
+     *
+     * @param authorization
+     * @param request       encoded CreateAnswerRequest
+     * @return encoded AnswerResponse
+     * @throws AuthorizationFailedException
+     * @throws InvalidQuestionException
+     */
+    @RequestMapping(method = RequestMethod.POST, path = "/CreateAnswer", consumes = QuoraProtos.MEDIA_TYPE)
+    public ResponseEntity<byte[]> createAnswer(@RequestHeader("authorization") final String authorization, @RequestBody(required = false) final byte[] request) throws AuthorizationFailedException, InvalidQuestionException {
+
+        ProtoReader createAnswerRequest = parse(request);
+        AnswerEntity answerEntity = new AnswerEntity();
+        answerEntity.setAns(createAnswerRequest.getString(2));
+        answerEntity.setUuid(UUID.randomUUID().toString());
+        if (answerService.isGroupCommitEnabled()) {
+            answerService.createAnswersGrouped(createAnswerRequest.getString(1), answerEntity, authorization);
+        } else {
+            answerService.createAnswers(createAnswerRequest.getString(1), answerEntity, authorization);
+        }
+        AnswerResponse answerRsp = new AnswerResponse().id(answerEntity.getUuid()).status("ANSWER CREATED");
+        return protoResponse(QuoraProtos.answerResponse(answerRsp), HttpStatus.CREATED);
+    }
+
+    /**
+     * ListAnswers(ListAnswersRequest) returns (stream AnswerDetails)
+     *
+     * @param authorization
+     * @param request       encoded ListAnswersRequest
+     * @param response      receives one frame per answer
+     * @throws AuthorizationFailedException
+     * @throws InvalidQuestionException
+     * @throws IOException
+     */
+    @RequestMapping(method = RequestMethod.POST, path = "/ListAnswers", consumes = QuoraProtos.MEDIA_TYPE)
+    public void listAnswers(@RequestHeader("authorization") final String authorization, @RequestBody(required = false) final byte[] request, final HttpServletResponse response)
+            throws AuthorizationFailedException, InvalidQuestionException, IOException {
+
+        String questionUuid = parse(request).getString(1);
+        response.setContentType(QuoraProtos.MEDIA_TYPE);
+        //Nothing reaches the client before the token and question have been validated
+        final ServletOutputStream stream = response.getOutputStream();
+        answerService.streamAllAnswersForQuestion(questionUuid, authorization, tag -> false, row ->
+                QuoraProtos.answerDetails(new AnswerDetailsResponse().id((String) row[0]).answerContent((String) row[1]).questionContent((String) row[2])).writeFrameTo(stream));
+        stream.flush();
+    }
+
+    /**
+     * GetUser(GetUserRequest) returns (UserDetails)
+     *
+     * @param authorization
+     * @param request       encoded GetUserRequest
+     * @return encoded UserDetails
+     * @throws UserNotFoundException
+     * @throws AuthorizationFailedException
+     */
+    @RequestMapping(method = RequestMethod.POST, path = "/GetUser", consumes = QuoraProtos.MEDIA_TYPE)
+    public ResponseEntity<byte[]> getUser(@RequestHeader("authorization") final String authorization, @RequestBody(required = false) final byte[] request) throws UserNotFoundException, AuthorizationFailedException {
+
+        final UserEntity userEntity = commonService.getUser(parse(request).getString(1), authorization);
+        UserDetailsResponse userDetailsResponse = new UserDetailsResponse().id(userEntity.getUuid()).firstName(userEntity.getFirstName()).lastName(userEntity.getLastName())
+                .userName(userEntity.getUsername()).emailAddress(userEntity.getEmail()).country(userEntity.getCountry()).aboutMe(userEntity.getAboutMe())
+                .dob(userEntity.getDob()).contactNumber(userEntity.getContactNumber());
+        return protoResponse(QuoraProtos.userDetails(userDetailsResponse), HttpStatus.OK);
+    }
+
+    /**
+     * GetUsers(GetUsersRequest) returns (UserList)
+     *
+     * @param authorization
+     * @param request       encoded GetUsersRequest
+     * @return encoded UserList, in the order of the first occurrence of the ids, unknown ids are left out
+     * @throws AuthorizationFailedException
+     * @throws BatchSizeExceededException if too many ids are requested
+     */
+    @RequestMapping(method = RequestMethod.POST, path = "/GetUsers", consumes = QuoraProtos.MEDIA_TYPE)
+    public ResponseEntity<byte[]> getUsers(@RequestHeader("authorization") final String authorization, @RequestBody(required = false) final byte[] request) throws AuthorizationFailedException, BatchSizeExceededException {
+
+        final List<Object[]> profiles = commonService.getUsers(parse(request).getStrings(1), authorization);
+        List<UserDetailsResponse> userDetailsResponses = new ArrayList<>(profiles.size());
+        for (Object[] profile : profiles) {
+            userDetailsResponses.add(new UserDetailsResponse().id((String) profile[0]).firstName((String) profile[1]).lastName((String) profile[2]).userName((String) profile[3])
+                    .emailAddress((String) profile[4]).country((String) profile[5]).aboutMe((String) profile[6]).dob((String) profile[7]).contactNumber((String) profile[8]));
+        }
+        return protoResponse(QuoraProtos.userList(userDetailsResponses), HttpStatus.OK);
+    }
+
+    //An empty body is the encoding of a message holding only default values
+    private static ProtoReader parse(final byte[] request) {
+        return ProtoReader.parse(request == null ? new byte[0] : request);
+    }
+
+    private static ResponseEntity<byte[]> protoResponse(final ProtoWriter message, final HttpStatus status) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, QuoraProtos.MEDIA_TYPE);
+        return new ResponseEntity<byte[]>(message.toByteArray(), headers, status);
+    }
+}
@@ -0,0 +1,188 @@
+package com.upgrad.quora.api.controller;
+
+import com.upgrad.quora.service.business.AnswerField;
+import com.upgrad.quora.service.business.UserField;
+import com.upgrad.quora.service.exception.UnknownFieldException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses the fields= and include= parameters of the read endpoints into the columns the services select,
+ * and turns the selected rows back into JSON objects holding only the requested properties.
+ * Property names are the same as in AnswerDetailsResponse and UserDetailsResponse.
+ */
+final class SparseFields {
+
+    private static final Map<String, AnswerField> ANSWER_FIELDS = new LinkedHashMap<>();
+
+    private static final Map<String, UserField> USER_FIELDS = new LinkedHashMap<>();
+
+    static {
+        ANSWER_FIELDS.put("id", AnswerField.ID);
+        ANSWER_FIELDS.put("answerContent", AnswerField.ANSWER_CONTENT);
+        ANSWER_FIELDS.put("questionContent", AnswerField.QUESTION_CONTENT);
+
+        USER_FIELDS.put("first_name", UserField.FIRST_NAME);
+        USER_FIELDS.put("last_name", UserField.LAST_NAME);
+        USER_FIELDS.put("user_name", UserField.USER_NAME);
+        USER_FIELDS.put("email_address", UserField.EMAIL_ADDRESS);
+        USER_FIELDS.put("country", UserField.COUNTRY);
+        USER_FIELDS.put("aboutMe", UserField.ABOUT_ME);
+        USER_FIELDS.put("dob", UserField.DOB);
+        USER_FIELDS.put("contact_number", UserField.CONTACT_NUMBER);
+    }
+
+    private static final List<String> DEFAULT_ANSWER_FIELDS = Arrays.asList("id", "answerContent");
+
+    private static final List<String> ANSWER_INCLUDES = Arrays.asList("question", "author");
+
+    private SparseFields() {
+    }
+
+    /**
+     * Projection of the answer listing. Requested fields are flat properties of every answer,
+     * include=question adds a "question" object with id and content and include=author an "author" object with id and user_name.
+     */
+    static final class AnswerProjection {
+
+        private final List<String> fieldNames;
+
+        private final boolean question;
+
+        private final boolean author;
+
+        private final List<AnswerField> columns = new ArrayList<>();
+
+        private AnswerProjection(final List<String> fieldNames, final boolean question, final boolean author) {
+            this.fieldNames = fieldNames;
+            this.question = question;
+            this.author = author;
+            for (String name : fieldNames) {
+                columns.add(ANSWER_FIELDS.get(name));
+            }
+            if (question) {
+                columns.add(AnswerField.QUESTION_ID);
+                columns.add(AnswerField.QUESTION_CONTENT);
+            }
+            if (author) {
+                columns.add(AnswerField.AUTHOR_ID);
+                columns.add(AnswerField.AUTHOR_NAME);
+            }
+        }
+
+        List<AnswerField> getColumns() {
+            return columns;
+        }
+
+        /**
+         * @return identifies the projection in cache keys and ETags
+         */
+        String getVariant() {
+            return String.join(",", fieldNames) + ";" + (question ? "question" : "") + (author ? "author" : "");
+        }
+
+        Map<String, Object> toJson(final Object[] row) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            int column = 0;
+            for (String name : fieldNames) {
+                json.put(name, row[column++]);
+            }
+            if (question) {
+                Map<String, Object> questionJson = new LinkedHashMap<>();
+                questionJson.put("id", row[column++]);
+                questionJson.put("content", row[column++]);
+                json.put("question", questionJson);
+            }
+            if (author) {
+                Map<String, Object> authorJson = new LinkedHashMap<>();
+                authorJson.put("id", row[column++]);
+                authorJson.put("user_name", row[column++]);
+                json.put("author", authorJson);
+            }
+            return json;
+        }
+    }
+
+    /**
+     * @param fields  requested answer properties, null for the default id and answerContent
+     * @param include requested related objects, may be null
+     * @return projection of the answer listing
+     * @throws UnknownFieldException if a field or include is not known
+     */
+    static AnswerProjection answerProjection(final List<String> fields, final List<String> include) throws UnknownFieldException {
+        List<String> fieldNames = new ArrayList<>(distinct(fields == null ? DEFAULT_ANSWER_FIELDS : fields, ANSWER_FIELDS.keySet(), true));
+        Set<String> includes = distinct(include == null ? Collections.<String>emptyList() : include, ANSWER_INCLUDES, false);
+        return new AnswerProjection(fieldNames, includes.contains("question"), includes.contains("author"));
+    }
+
+    /**
+     * @param fields requested profile properties
+     * @return profile columns in the order of the distinct fields
+     * @throws UnknownFieldException if a field is not known
+     */
+    static List<UserField> userColumns(final List<String> fields) throws UnknownFieldException {
+        List<UserField> columns = new ArrayList<>();
+        for (String name : distinct(fields, USER_FIELDS.keySet(), true)) {
+            columns.add(USER_FIELDS.get(name));
+        }
+        return columns;
+    }
+
+    /**
+     * @param columns profile columns, as returned by userColumns
+     * @return identifies the fieldset in ETags
+     */
+    static String userVariant(final List<UserField> columns) {
+        List<String> names = new ArrayList<>(columns.size());
+        for (UserField column : columns) {
+            names.add(column.name());
+        }
+        return String.join(",", names);
+    }
+
+    /**
+     * @param fields requested profile properties, as given to userColumns
+     * @param values values of the userColumns
+     * @return profile JSON with only the requested properties
+     */
+    static Map<String, Object> userJson(final List<String> fields, final Object[] values) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        int column = 0;
+        for (String name : new LinkedHashSet<>(trimmed(fields))) {
+            json.put(name, values[column++]);
+        }
+        return json;
+    }
+
+    private static Set<String> distinct(final List<String> names, final Iterable<String> known, final boolean required) throws UnknownFieldException {
+        Set<String> knownNames = new LinkedHashSet<>();
+        known.forEach(knownNames::add);
+        Set<String> distinct = new LinkedHashSet<>(trimmed(names));
+        for (String name : distinct) {
+            if (!knownNames.contains(name)) {
+                throw new UnknownFieldException("FLD-001", "Unknown field '" + name + "', expected one of " + knownNames);
+            }
+        }
+        if (required && distinct.isEmpty()) {
+            throw new UnknownFieldException("FLD-001", "At least one field is required, expected one of " + knownNames);
+        }
+        return distinct;
+    }
+
+    private static List<String> trimmed(final List<String> names) {
+        List<String> trimmed = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (name != null && !name.trim().isEmpty()) {
+                trimmed.add(name.trim());
+            }
+        }
+        return trimmed;
+    }
+}
@@ -0,0 +1,40 @@
+package com.upgrad.quora.api.controller;
+
+import com.upgrad.quora.api.tracing.TraceCollector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/")
+/**
+ * Sampled request traces kept in memory, see TraceCollector. Like the metrics endpoint it is not authenticated,
+ * so it should only be reachable from the internal network.
+ */
+public class TraceController {
+
+    @Autowired
+    private TraceCollector traceCollector;
+
+    @Value("${quora.tracing.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * @return the most recent sampled traces, newest first
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/actuator/traces", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<List<Map<String, Object>>> getTraces() {
+        if (!enabled || !traceCollector.isExportingToMemory()) {
+            return new ResponseEntity<List<Map<String, Object>>>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<List<Map<String, Object>>>(traceCollector.getRecent(), HttpStatus.OK);
+    }
+}
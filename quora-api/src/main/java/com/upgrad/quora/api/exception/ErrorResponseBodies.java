@@ -0,0 +1,101 @@
+package com.upgrad.quora.api.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.quora.api.metrics.RequestMetrics;
+import com.upgrad.quora.api.model.ErrorResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Serialized ErrorResponse bodies by error code and message. The codes and messages of the business exceptions are
+ * constants, so once warmed up an error is answered from a cached byte array, without building and serializing an
+ * ErrorResponse. Messages carrying request data, beyond the first MAX_MESSAGES_PER_CODE of a code, are serialized every time.
+ * Every error written through here is counted by its code in RequestMetrics.
+ */
+@Component
+public class ErrorResponseBodies {
+
+    private static final int MAX_CODES = 256;
+
+    private static final int MAX_MESSAGES_PER_CODE = 32;
+
+    private static final HttpHeaders JSON_HEADERS;
+
+    static {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON_UTF8);
+        JSON_HEADERS = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, byte[]>> bodies = new ConcurrentHashMap<>();
+
+    /**
+     * @return the JSON of ErrorResponse with the given code and message
+     */
+    public byte[] get(final String code, final String message) {
+        if (code != null) {
+            requestMetrics.recordErrorCode(code);
+        }
+        if (code == null || message == null) {
+            return serialize(code, message);
+        }
+        ConcurrentMap<String, byte[]> messages = bodies.get(code);
+        if (messages == null) {
+            if (bodies.size() >= MAX_CODES) {
+                return serialize(code, message);
+            }
+            messages = bodies.computeIfAbsent(code, key -> new ConcurrentHashMap<>());
+        }
+        byte[] body = messages.get(message);
+        if (body == null) {
+            body = serialize(code, message);
+            if (messages.size() < MAX_MESSAGES_PER_CODE) {
+                messages.putIfAbsent(message, body);
+            }
+        }
+        return body;
+    }
+
+    /**
+     * @return a response with the cached body, for the exception handlers
+     */
+    public ResponseEntity<byte[]> responseEntity(final String code, final String message, final HttpStatus status) {
+        return new ResponseEntity<byte[]>(get(code, message), JSON_HEADERS, status);
+    }
+
+    /**
+     * Writes the cached body straight to the servlet response, for the filters in front of the controllers
+     */
+    public void write(final HttpServletResponse response, final HttpStatus status, final String code, final String message) throws IOException {
+        byte[] body = get(code, message);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private byte[] serialize(final String code, final String message) {
+        try {
+            return objectMapper.writeValueAsBytes(new ErrorResponse().code(code).message(message));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,26 +1,50 @@
 package com.upgrad.quora.api.exception;
 
-import com.upgrad.quora.api.model.ErrorResponse;
+import com.upgrad.quora.api.graphql.GraphQLException;
+import com.upgrad.quora.api.model.GraphQLError;
+import com.upgrad.quora.api.model.GraphQLResponse;
+import com.upgrad.quora.api.protobuf.InvalidProtoException;
+import com.upgrad.quora.service.common.DeadlineExceededException;
+import com.upgrad.quora.service.common.GenericErrorCode;
 import com.upgrad.quora.service.exception.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.jpa.JpaSystemException;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
+import java.sql.SQLException;
+
 @ControllerAdvice
+/**
+ * Maps the exceptions of the service layer to error responses. The business exceptions are thrown for every
+ * rejected request, many of them from bots with bad or expired tokens, so they capture no stack trace and their
+ * bodies are written from the serialized bodies kept by ErrorResponseBodies.
+ */
 public class RestExceptionHandler {
 
+    //Message of the TransactionException thrown by Hibernate when the transaction timeout has expired
+    private static final String HIBERNATE_TIMEOUT_MESSAGE = "transaction timeout expired";
+
+    //SQLSTATE of a statement cancelled by its query timeout on PostgreSQL, which Hibernate reports as a generic JDBC error
+    private static final String QUERY_CANCELED = "57014";
+
+    @Autowired
+    private ErrorResponseBodies errorResponseBodies;
+
     /**
      * @param exe     SignUpRestrictedException
      * @param request web request
      * @return ErrorResponse
      */
     @ExceptionHandler(SignUpRestrictedException.class)
-    public ResponseEntity<ErrorResponse> signupException(SignUpRestrictedException exe, WebRequest request) {
-        return new ResponseEntity<ErrorResponse>(
-                new ErrorResponse().code(exe.getCode()).message(exe.getErrorMessage()), HttpStatus.CONFLICT
-        );
+    public ResponseEntity<byte[]> signupException(SignUpRestrictedException exe, WebRequest request) {
+        return errorResponseBodies.responseEntity(exe.getCode(), exe.getErrorMessage(), HttpStatus.CONFLICT);
     }
 
     /**
@@ -31,10 +55,8 @@ public class RestExceptionHandler {
      * @return
      */
     @ExceptionHandler(AuthenticationFailedException.class)
-    public ResponseEntity<ErrorResponse> signinException(AuthenticationFailedException exe, WebRequest request) {
-        return new ResponseEntity<ErrorResponse>(
-                new ErrorResponse().code(exe.getCode()).message(exe.getErrorMessage()), HttpStatus.UNAUTHORIZED
-        );
+    public ResponseEntity<byte[]> signinException(AuthenticationFailedException exe, WebRequest request) {
+        return errorResponseBodies.responseEntity(exe.getCode(), exe.getErrorMessage(), HttpStatus.UNAUTHORIZED);
     }
 
     /**
@@ -44,10 +66,8 @@ public class RestExceptionHandler {
      * @return
      */
     @ExceptionHandler(SignOutRestrictedException .class)
-    public ResponseEntity<ErrorResponse> signoutException(SignOutRestrictedException exe, WebRequest request) {
-        return new ResponseEntity<ErrorResponse>(
-                new ErrorResponse().code(exe.getCode()).message(exe.getErrorMessage()), HttpStatus.UNAUTHORIZED
-        );
+    public ResponseEntity<byte[]> signoutException(SignOutRestrictedException exe, WebRequest request) {
+        return errorResponseBodies.responseEntity(exe.getCode(), exe.getErrorMessage(), HttpStatus.UNAUTHORIZED);
     }
 
     /**
@@ -58,10 +78,8 @@ public class RestExceptionHandler {
      * @return ErrorResponse
      */
     @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<ErrorResponse> userNotFoundException(UserNotFoundException exe, WebRequest request) {
-        return new ResponseEntity<ErrorResponse>(
-                new ErrorResponse().code(exe.getCode()).message(exe.getErrorMessage()), HttpStatus.NOT_FOUND
-        );
+    public ResponseEntity<byte[]> userNotFoundException(UserNotFoundException exe, WebRequest request) {
+        return errorResponseBodies.responseEntity(exe.getCode(), exe.getErrorMessage(), HttpStatus.NOT_FOUND);
     }
 
     /**
@@ -72,23 +90,100 @@ public class RestExceptionHandler {
      * @return ErrorResponse
      */
     @ExceptionHandler(AuthorizationFailedException.class)
-    public ResponseEntity<ErrorResponse> authorizationFailedException(AuthorizationFailedException exe, WebRequest request) {
-        return new ResponseEntity<ErrorResponse>(
-                new ErrorResponse().code(exe.getCode()).message(exe.getErrorMessage()), HttpStatus.FORBIDDEN
-        );
+    public ResponseEntity<byte[]> authorizationFailedException(AuthorizationFailedException exe, WebRequest request) {
+        return errorResponseBodies.responseEntity(exe.getCode(), exe.getErrorMessage(), HttpStatus.FORBIDDEN);
     }
 
     @ExceptionHandler(InvalidQuestionException.class)
-    public ResponseEntity<ErrorResponse> InvalidQuestionException(InvalidQuestionException exe, WebRequest request) {
-        return new ResponseEntity<ErrorResponse>(
-                new ErrorResponse().code(exe.getCode()).message(exe.getErrorMessage()), HttpStatus.NOT_FOUND
-        );
+    public ResponseEntity<byte[]> InvalidQuestionException(InvalidQuestionException exe, WebRequest request) {
+        return errorResponseBodies.responseEntity(exe.getCode(), exe.getErrorMessage(), HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(AnswerNotFoundException.class)
-    public ResponseEntity<ErrorResponse> AnswerNotFoundException(AnswerNotFoundException exe, WebRequest request) {
-        return new ResponseEntity<ErrorResponse>(
-                new ErrorResponse().code(exe.getCode()).message(exe.getErrorMessage()), HttpStatus.NOT_FOUND
-        );
+    public ResponseEntity<byte[]> AnswerNotFoundException(AnswerNotFoundException exe, WebRequest request) {
+        return errorResponseBodies.responseEntity(exe.getCode(), exe.getErrorMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(BatchSizeExceededException.class)
+    public ResponseEntity<byte[]> BatchSizeExceededException(BatchSizeExceededException exe, WebRequest request) {
+        return errorResponseBodies.responseEntity(exe.getCode(), exe.getErrorMessage(), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @ExceptionHandler(UnknownFieldException.class)
+    public ResponseEntity<byte[]> UnknownFieldException(UnknownFieldException exe, WebRequest request) {
+        return errorResponseBodies.responseEntity(exe.getCode(), exe.getErrorMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * This method handles requests that could not be queued on a bounded executor
+     *
+     * @param exe     TaskRejectedException
+     * @param request web request
+     * @return ErrorResponse
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<byte[]> taskRejectedException(TaskRejectedException exe, WebRequest request) {
+        return errorResponseBodies.responseEntity(GenericErrorCode.GEN_002.getCode(), GenericErrorCode.GEN_002.getDefaultMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * This method handles GraphQL queries that are invalid or exceed the query limits, in the GraphQL error format
+     *
+     * @param exe     GraphQLException
+     * @param request web request
+     * @return GraphQLResponse
+     */
+    @ExceptionHandler(GraphQLException.class)
+    public ResponseEntity<GraphQLResponse> graphQLException(GraphQLException exe, WebRequest request) {
+        GraphQLResponse graphQLResponse = new GraphQLResponse();
+        for (String message : exe.getMessages()) {
+            graphQLResponse.addErrorsItem(new GraphQLError().message(message));
+        }
+        return new ResponseEntity<GraphQLResponse>(graphQLResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * This method handles request bodies of the binary API that are not well-formed protocol buffers messages
+     *
+     * @param exe     InvalidProtoException
+     * @param request web request
+     * @return ErrorResponse
+     */
+    @ExceptionHandler(InvalidProtoException.class)
+    public ResponseEntity<byte[]> invalidProtoException(InvalidProtoException exe, WebRequest request) {
+        return errorResponseBodies.responseEntity("PROTO-001", exe.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * This method handles requests whose deadline passed, either before a transaction was started or while a
+     * query was running, in which case the database has cancelled the query
+     *
+     * @param exe     DeadlineExceededException, a query or transaction timeout
+     * @param request web request
+     * @return ErrorResponse
+     */
+    @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class, javax.persistence.QueryTimeoutException.class, TransactionTimedOutException.class})
+    public ResponseEntity<byte[]> deadlineExceededException(Exception exe, WebRequest request) {
+        return errorResponseBodies.responseEntity(GenericErrorCode.GEN_004.getCode(), GenericErrorCode.GEN_004.getDefaultMessage(), HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    /**
+     * Timeouts that reach here as a JpaSystemException: a query the database cancelled at its query timeout, and
+     * a statement Hibernate refused to run because less than a whole second of the transaction timeout was left.
+     * Other JpaSystemExceptions are left to the default handling.
+     *
+     * @param exe     JpaSystemException
+     * @param request web request
+     * @return ErrorResponse with GEN-004 if the query or transaction timed out
+     */
+    @ExceptionHandler(JpaSystemException.class)
+    public ResponseEntity<byte[]> jpaSystemException(JpaSystemException exe, WebRequest request) {
+        for (Throwable cause = exe.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof org.hibernate.TransactionException && HIBERNATE_TIMEOUT_MESSAGE.equals(cause.getMessage())
+                    || cause instanceof SQLException && QUERY_CANCELED.equals(((SQLException) cause).getSQLState())) {
+                return deadlineExceededException(exe, request);
+            }
+        }
+        throw exe;
     }
 }
@@ -0,0 +1,26 @@
+package com.upgrad.quora.api.graphql;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when a GraphQL request cannot be parsed, does not match the schema or exceeds the query limits.
+ * The messages are returned to the client in the errors list of the response.
+ */
+public class GraphQLException extends RuntimeException {
+
+    private final List<String> messages;
+
+    public GraphQLException(final String message) {
+        this(Collections.singletonList(message));
+    }
+
+    public GraphQLException(final List<String> messages) {
+        super(messages.get(0));
+        this.messages = messages;
+    }
+
+    public List<String> getMessages() {
+        return messages;
+    }
+}
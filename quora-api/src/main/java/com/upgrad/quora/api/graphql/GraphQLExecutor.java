@@ -0,0 +1,270 @@
+package com.upgrad.quora.api.graphql;
+
+import com.upgrad.quora.service.business.GraphQueryService;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import graphql.ExceptionWhileDataFetching;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.GraphQLError;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentation;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import graphql.schema.idl.TypeRuntimeWiring;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderOptions;
+import org.dataloader.DataLoaderRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+
+/**
+ * Executes GraphQL queries against the schema in graphql/quora.graphqls with graphql-java, which parses and validates
+ * the query, fragments and variables included, and answers the introspection queries of clients and tooling.
+ * <p>
+ * The depth and complexity limits are checked before anything is loaded. A field costs 1 plus the cost of its
+ * selection times the most rows the field can return: the number of ids of questions and users, the first
+ * argument of a list of answers or questions, 1 otherwise. The lists are cut to first rows per object by the
+ * queries themselves, so the cost bounds the rows a query loads.
+ * <p>
+ * Related objects are fetched through per-request DataLoaders, graphql-java dispatches the keys collected over all
+ * objects of a level at once, so each relation costs one batched query per level instead of one per object.
+ */
+@Component
+public class GraphQLExecutor {
+
+    private static final String QUESTIONS = "questions";
+
+    private static final String USERS = "users";
+
+    //Registered once per first argument of the request, see loadList
+    private static final String ANSWERS_BY_QUESTION = "answersByQuestion:";
+
+    private static final String QUESTIONS_BY_USER = "questionsByUser:";
+
+    @Autowired
+    private GraphQueryService graphQueryService;
+
+    @Value("${quora.graphql.max-depth:6}")
+    private int maxDepth;
+
+    @Value("${quora.graphql.max-complexity:1000}")
+    private int maxComplexity;
+
+    @Value("${quora.graphql.max-ids:100}")
+    private int maxIds;
+
+    @Value("${quora.graphql.max-first:100}")
+    private int maxFirst;
+
+    @Value("${quora.graphql.batch-size:500}")
+    private int batchSize;
+
+    private GraphQL graphQL;
+
+    @PostConstruct
+    public void start() throws IOException {
+        TypeDefinitionRegistry types;
+        try (Reader schema = new InputStreamReader(new ClassPathResource("graphql/quora.graphqls").getInputStream(), StandardCharsets.UTF_8)) {
+            types = new SchemaParser().parse(schema);
+        }
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type
+                        .dataFetcher("question", env -> load(env, QUESTIONS, env.<String>getArgument("id")))
+                        .dataFetcher("questions", env -> loadMany(env, QUESTIONS))
+                        .dataFetcher("user", env -> load(env, USERS, env.<String>getArgument("id")))
+                        .dataFetcher("users", env -> loadMany(env, USERS))
+                        .dataFetcher("answers", env -> loadList(env, ANSWERS_BY_QUESTION, env.<String>getArgument("questionId"),
+                                graphQueryService::getAnswersByQuestionUuids, 3)))
+                .type("Question", type -> columns(type, "id", "content", "date")
+                        .dataFetcher("author", env -> load(env, USERS, column(env, 3)))
+                        .dataFetcher("answers", env -> loadList(env, ANSWERS_BY_QUESTION, column(env, 0),
+                                graphQueryService::getAnswersByQuestionUuids, 3)))
+                .type("Answer", type -> columns(type, "id", "content", "date")
+                        .dataFetcher("question", env -> load(env, QUESTIONS, column(env, 3)))
+                        .dataFetcher("author", env -> load(env, USERS, column(env, 4))))
+                .type("User", type -> columns(type, "id", "firstName", "lastName", "userName", "emailAddress",
+                        "country", "aboutMe", "dob", "contactNumber")
+                        .dataFetcher("questions", env -> loadList(env, QUESTIONS_BY_USER, column(env, 0),
+                                graphQueryService::getQuestionsByUserUuids, 3)))
+                .build();
+        graphQL = GraphQL.newGraphQL(new SchemaGenerator().makeExecutableSchema(types, wiring))
+                .instrumentation(new ChainedInstrumentation(Arrays.<Instrumentation>asList(
+                        new MaxQueryDepthInstrumentation(maxDepth),
+                        new MaxQueryComplexityInstrumentation(maxComplexity, GraphQLExecutor::complexity),
+                        new DataLoaderDispatcherInstrumentation())))
+                .build();
+    }
+
+    /**
+     * @param query       query text
+     * @param variables   values of the query variables, may be null
+     * @param accessToken of the signed in user
+     * @return the data object of the response
+     * @throws GraphQLException             if the query is invalid or exceeds the limits
+     * @throws AuthorizationFailedException if the user is not signed in
+     */
+    public Map<String, Object> execute(final String query, final Map<String, Object> variables, final String accessToken)
+            throws AuthorizationFailedException {
+
+        graphQueryService.authorize(accessToken);
+
+        DataLoaderRegistry loaders = new DataLoaderRegistry();
+        loaders.register(QUESTIONS, DataLoader.newDataLoader((List<String> keys) ->
+                CompletableFuture.completedFuture(byKey(keys, graphQueryService.getQuestionsByUuids(keys))), loaderOptions()));
+        loaders.register(USERS, DataLoader.newDataLoader((List<String> keys) ->
+                CompletableFuture.completedFuture(byKey(keys, graphQueryService.getUsersByUuids(keys))), loaderOptions()));
+
+        ExecutionResult result = graphQL.execute(ExecutionInput.newExecutionInput()
+                .query(query)
+                .variables(variables == null ? Collections.<String, Object>emptyMap() : variables)
+                .dataLoaderRegistry(loaders)
+                .build());
+
+        //A failed load fails the whole request with the status of its exception, partial data is never returned
+        List<String> messages = new ArrayList<>();
+        for (GraphQLError error : result.getErrors()) {
+            if (error instanceof ExceptionWhileDataFetching) {
+                Throwable exception = ((ExceptionWhileDataFetching) error).getException();
+                if (exception instanceof CompletionException && exception.getCause() != null) {
+                    exception = exception.getCause();
+                }
+                if (exception instanceof RuntimeException) {
+                    throw (RuntimeException) exception;
+                }
+                throw new IllegalStateException(exception);
+            }
+            messages.add(error.getMessage());
+        }
+        if (!messages.isEmpty()) {
+            throw new GraphQLException(messages);
+        }
+        return result.getData();
+    }
+
+    private CompletableFuture<Object[]> load(final DataFetchingEnvironment env, final String loader, final String key) {
+        if (key == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return env.<String, Object[]>getDataLoader(loader).load(key);
+    }
+
+    //Ids without an object are left out of the list
+    private CompletableFuture<List<Object[]>> loadMany(final DataFetchingEnvironment env, final String loader) {
+        List<String> ids = env.getArgument("ids");
+        if (ids.size() > maxIds) {
+            throw new GraphQLException("Argument 'ids' of '" + env.getField().getName() + "' exceeds the maximum of " + maxIds + " ids");
+        }
+        return env.<String, Object[]>getDataLoader(loader).loadMany(ids).thenApply(rows -> {
+            List<Object[]> found = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                if (row != null) {
+                    found.add(row);
+                }
+            }
+            return found;
+        });
+    }
+
+    /**
+     * @param rows      lookup of the first rows of each key
+     * @param keyColumn column of the rows holding their key
+     */
+    private CompletableFuture<List<Object[]>> loadList(final DataFetchingEnvironment env, final String loader, final String key,
+                                                       final BiFunction<List<String>, Integer, List<Object[]>> rows, final int keyColumn) {
+        final int first = env.<Integer>getArgument("first");
+        if (first < 1 || first > maxFirst) {
+            throw new GraphQLException("Argument 'first' of '" + env.getField().getName() + "' must be between 1 and " + maxFirst);
+        }
+        DataLoader<String, List<Object[]>> dataLoader = env.getDataLoaderRegistry().computeIfAbsent(loader + first,
+                name -> DataLoader.newDataLoader((List<String> keys) ->
+                        CompletableFuture.completedFuture(groupBy(keys, rows.apply(keys, first), keyColumn)), loaderOptions()));
+        return dataLoader.load(key);
+    }
+
+    private DataLoaderOptions loaderOptions() {
+        return DataLoaderOptions.newOptions().setMaxBatchSize(batchSize);
+    }
+
+    //A field costs 1 plus the cost of its selection for each row it can return
+    private static int complexity(final FieldComplexityEnvironment environment, final int childComplexity) {
+        Object ids = environment.getArguments().get("ids");
+        Object first = environment.getArguments().get("first");
+        long rows = 1;
+        if (ids instanceof Collection) {
+            rows = ((Collection<?>) ids).size();
+        } else if (first instanceof Integer) {
+            rows = Math.max(1, (Integer) first);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, 1 + rows * childComplexity);
+    }
+
+    //Wires the scalar fields of a type to the columns of its rows, in column order
+    private static TypeRuntimeWiring.Builder columns(final TypeRuntimeWiring.Builder type, final String... fields) {
+        for (int i = 0; i < fields.length; i++) {
+            final int column = i;
+            type.dataFetcher(fields[i], env -> scalarValue(((Object[]) env.getSource())[column]));
+        }
+        return type;
+    }
+
+    private static String column(final DataFetchingEnvironment env, final int column) {
+        return (String) ((Object[]) env.getSource())[column];
+    }
+
+    private static Object scalarValue(final Object value) {
+        //Dates are returned in ISO-8601 form
+        return value instanceof TemporalAccessor ? value.toString() : value;
+    }
+
+    private static List<Object[]> byKey(final List<String> keys, final List<Object[]> rows) {
+        Map<String, Object[]> byKey = new HashMap<>();
+        for (Object[] row : rows) {
+            byKey.put((String) row[0], row);
+        }
+        List<Object[]> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(byKey.get(key));
+        }
+        return values;
+    }
+
+    private static List<List<Object[]>> groupBy(final List<String> keys, final List<Object[]> rows, final int keyColumn) {
+        Map<String, List<Object[]>> grouped = new HashMap<>();
+        for (Object[] row : rows) {
+            grouped.computeIfAbsent((String) row[keyColumn], key -> new ArrayList<>()).add(row);
+        }
+        List<List<Object[]>> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            List<Object[]> keyRows = grouped.get(key);
+            values.add(keyRows == null ? Collections.<Object[]>emptyList() : keyRows);
+        }
+        return values;
+    }
+}
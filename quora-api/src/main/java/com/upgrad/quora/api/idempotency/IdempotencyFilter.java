@@ -0,0 +1,179 @@
+package com.upgrad.quora.api.idempotency;
+
+import com.upgrad.quora.api.exception.ErrorResponseBodies;
+import com.upgrad.quora.service.business.IdempotencyService;
+import com.upgrad.quora.service.business.IdempotentResponse;
+import com.upgrad.quora.service.exception.IdempotencyKeyException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Makes the create endpoints safe to retry. A request carrying an Idempotency-Key header runs once, its response is
+ * kept by IdempotencyService and replayed, with an Idempotent-Replayed header, to every retry under the same key.
+ * Keys are scoped to the authorization header, and a retry must carry the same method, path and parameters as the
+ * original, which is where the create endpoints take their input from.
+ * Responses with a 5xx status are not kept, so that a retry after a server failure runs again.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 7)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ErrorResponseBodies errorResponseBodies;
+
+    @Value("${quora.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quora.idempotency.paths:/question/create,/question/*/answer/create}")
+    private String[] paths;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        if (!enabled || !request.getMethod().equals("POST") || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : paths) {
+            if (pathMatcher.match(pattern.trim(), path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "IDEM-003", "The Idempotency-Key header must hold 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        final String key = sha256Hex(authorization == null ? "" : authorization) + ":" + idempotencyKey;
+
+        final IdempotencyService.Claim claim;
+        try {
+            claim = idempotencyService.begin(key, fingerprint(request));
+        } catch (IdempotencyKeyException e) {
+            HttpStatus status = e.getCode().equals("IDEM-001") ? HttpStatus.UNPROCESSABLE_ENTITY : HttpStatus.CONFLICT;
+            writeError(response, status, e.getCode(), e.getErrorMessage());
+            return;
+        }
+        if (claim.getResponse() != null) {
+            replay(response, claim.getResponse());
+            return;
+        }
+
+        //Headers set by the filters in front of this one belong to this request and are not part of the stored response
+        final Set<String> earlierHeaders = new HashSet<>(response.getHeaderNames());
+        final ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            if (responseWrapper.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                idempotencyService.complete(claim, capture(responseWrapper, earlierHeaders));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyService.abandon(claim);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private static IdempotentResponse capture(final ContentCachingResponseWrapper response, final Set<String> earlierHeaders) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        if (response.getContentType() != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, Collections.singletonList(response.getContentType()));
+        }
+        for (String name : response.getHeaderNames()) {
+            if (!earlierHeaders.contains(name) && !name.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE) && !name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)) {
+                headers.put(name, new ArrayList<>(response.getHeaders(name)));
+            }
+        }
+        return new IdempotentResponse(response.getStatus(), headers, response.getContentAsByteArray());
+    }
+
+    private static void replay(final HttpServletResponse response, final IdempotentResponse stored) throws IOException {
+        response.setStatus(stored.getStatus());
+        for (Map.Entry<String, List<String>> header : stored.getHeaders().entrySet()) {
+            for (String value : header.getValue()) {
+                if (header.getKey().equalsIgnoreCase(HttpHeaders.CONTENT_TYPE)) {
+                    response.setContentType(value);
+                } else {
+                    response.addHeader(header.getKey(), value);
+                }
+            }
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private void writeError(final HttpServletResponse response, final HttpStatus status, final String code, final String message) throws IOException {
+        errorResponseBodies.write(response, status, code, message);
+    }
+
+    //The create endpoints bind their input from the request parameters, the order of the parameters does not matter
+    private static String fingerprint(final HttpServletRequest request) {
+        StringBuilder canonical = new StringBuilder(request.getMethod()).append('\n').append(request.getRequestURI());
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : parameter.getValue()) {
+                canonical.append('\n').append(parameter.getKey()).append('=').append(value);
+            }
+        }
+        return sha256Hex(canonical.toString());
+    }
+
+    private static String sha256Hex(final String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.upgrad.quora.api.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that adapts to the measured latency, in the style of the gradient limiters.
+ * The average latency of the last few requests is compared with the average over a long window: while they agree
+ * the limit grows by a small queue allowance, when recent requests get slower the limit shrinks in proportion, so
+ * excess requests are turned away in front of the application instead of queueing inside it.
+ * Both averages are taken over the same mix of cheap and expensive requests, so a class serving both is compared
+ * with itself, where the lowest latency seen would be set by the cheapest response and hold the limit down.
+ * The long window follows lasting changes such as a growing database. Requests that fail with a server error cut
+ * the limit by a fixed backoff factor, as in AIMD.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    //Recent requests may be this much slower than the long term average before the limit shrinks
+    private static final double TOLERANCE = 1.5;
+
+    private static final double SMOOTHING = 0.2;
+
+    private static final double BACKOFF = 0.9;
+
+    //Samples covered by the recent and the long term average
+    private static final int SHORT_WINDOW = 10;
+
+    private static final int LONG_WINDOW = 600;
+
+    private final String name;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile double limit;
+
+    private double shortRtt;
+
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(final String name, final int initialLimit, final int minLimit, final int maxLimit) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * @return true if the request may proceed, it must then call release exactly once
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos latency of the request, negative if it must not be sampled
+     * @param dropped  true if the request failed because of the server, which backs the limit off
+     */
+    public void release(final long rttNanos, final boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        if (dropped) {
+            synchronized (this) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+            }
+        } else if (rttNanos >= 0) {
+            sample(rttNanos, current);
+        }
+    }
+
+    private synchronized void sample(final long rttNanos, final int inFlightAtCompletion) {
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) / SHORT_WINDOW;
+        longRtt += (rttNanos - longRtt) / LONG_WINDOW;
+        //Once a queue has drained, let the long term average come down from the latency it built up
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+        //An application that does not use its limit says nothing about how far the limit could go
+        if (inFlightAtCompletion < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the current limit
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return number of requests rejected so far
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,107 @@
+package com.upgrad.quora.api.limit;
+
+import com.upgrad.quora.api.exception.ErrorResponseBodies;
+import com.upgrad.quora.service.common.GenericErrorCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Adaptive concurrency limits in front of the controllers, one for signin and signup, whose password hashing is
+ * CPU bound, one for the other writes and one for reads. Requests above the current limit of their class are
+ * rejected at once with 503 and GEN-002, instead of queueing behind a slow database until every endpoint times out.
+ * Async requests release their permit when the request thread is released, without a latency sample, and so do
+ * the exports and streamed responses, which DeadlineFilter runs without a deadline. A 504 is the deadline of the
+ * request running out, its latency is sampled like any other instead of backing the limit off as a failure.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ErrorResponseBodies errorResponseBodies;
+
+    @Value("${quora.concurrency-limit.enabled:true}")
+    private boolean enabled;
+
+    private final AdaptiveConcurrencyLimit signin;
+
+    private final AdaptiveConcurrencyLimit writes;
+
+    private final AdaptiveConcurrencyLimit reads;
+
+    public ConcurrencyLimitFilter(@Value("${quora.concurrency-limit.signin.initial-limit:10}") final int signinInitial,
+                                  @Value("${quora.concurrency-limit.signin.min-limit:2}") final int signinMin,
+                                  @Value("${quora.concurrency-limit.signin.max-limit:50}") final int signinMax,
+                                  @Value("${quora.concurrency-limit.writes.initial-limit:20}") final int writesInitial,
+                                  @Value("${quora.concurrency-limit.writes.min-limit:4}") final int writesMin,
+                                  @Value("${quora.concurrency-limit.writes.max-limit:100}") final int writesMax,
+                                  @Value("${quora.concurrency-limit.reads.initial-limit:40}") final int readsInitial,
+                                  @Value("${quora.concurrency-limit.reads.min-limit:8}") final int readsMin,
+                                  @Value("${quora.concurrency-limit.reads.max-limit:400}") final int readsMax) {
+        this.signin = new AdaptiveConcurrencyLimit(RequestClass.SIGNIN.getName(), signinInitial, signinMin, signinMax);
+        this.writes = new AdaptiveConcurrencyLimit(RequestClass.WRITES.getName(), writesInitial, writesMin, writesMax);
+        this.reads = new AdaptiveConcurrencyLimit(RequestClass.READS.getName(), readsInitial, readsMin, readsMax);
+    }
+
+    /**
+     * @return the limits of the signin, write and read requests
+     */
+    public List<AdaptiveConcurrencyLimit> getLimits() {
+        return Arrays.asList(signin, writes, reads);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain)
+            throws ServletException, IOException {
+
+        final AdaptiveConcurrencyLimit limit = limitFor(request);
+        if (!limit.tryAcquire()) {
+            reject(response);
+            return;
+        }
+        final long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value() && response.getStatus() != HttpStatus.GATEWAY_TIMEOUT.value();
+        } finally {
+            boolean sampled = !request.isAsyncStarted() && request.getAttribute(DeadlineFilter.UNBOUNDED_ATTRIBUTE) == null;
+            limit.release(sampled ? System.nanoTime() - start : -1, dropped);
+        }
+    }
+
+    private AdaptiveConcurrencyLimit limitFor(final HttpServletRequest request) {
+        switch (RequestClass.of(request)) {
+            case SIGNIN:
+                return signin;
+            case WRITES:
+                return writes;
+            default:
+                return reads;
+        }
+    }
+
+    private void reject(final HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        errorResponseBodies.write(response, HttpStatus.SERVICE_UNAVAILABLE, GenericErrorCode.GEN_002.getCode(), GenericErrorCode.GEN_002.getDefaultMessage());
+    }
+}
@@ -0,0 +1,173 @@
+package com.upgrad.quora.api.limit;
+
+import com.upgrad.quora.service.common.RequestDeadline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives every request a deadline, see RequestDeadline. The budget is the default of the request class, or of the
+ * first matching path in quora.deadline.paths of application.yaml, unless the client asks for less, or for more up to max-ms, with the
+ * X-Request-Timeout-Ms header or, on the binary API, the gRPC grpc-timeout header.
+ * Once the budget is spent, running queries are cancelled and the request ends with 504 and GEN-004.
+ * A budget of 0 means no deadline, for the long running exports and for every response that is streamed while its
+ * query runs: the status and headers of those are sent with the first row, a cancelled query could only cut the
+ * stream short without telling the client. A path pattern may be followed by ?name=value to only match requests
+ * with that parameter, such as the stream=true listings.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 6)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    static final String GRPC_TIMEOUT_HEADER = "grpc-timeout";
+
+    //Set on the requests given no deadline, whose duration is that of the export or stream rather than a service time
+    static final String UNBOUNDED_ATTRIBUTE = DeadlineFilter.class.getName() + ".unbounded";
+
+    @Value("${quora.deadline.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quora.deadline.max-ms:60000}")
+    private long maxMs;
+
+    private final long[] defaultMs = new long[RequestClass.values().length];
+
+    //Budgets by path pattern and optional parameter condition, in the order they were configured
+    private final List<PathBudget> pathBudgets = new ArrayList<>();
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public DeadlineFilter(@Value("${quora.deadline.signin-ms:5000}") final long signinMs,
+                          @Value("${quora.deadline.writes-ms:5000}") final long writesMs,
+                          @Value("${quora.deadline.reads-ms:10000}") final long readsMs,
+                          @Value("${quora.deadline.paths:}") final String[] paths) {
+        defaultMs[RequestClass.SIGNIN.ordinal()] = signinMs;
+        defaultMs[RequestClass.WRITES.ordinal()] = writesMs;
+        defaultMs[RequestClass.READS.ordinal()] = readsMs;
+        for (String path : paths) {
+            int equals = path.lastIndexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected pattern=milliseconds in quora.deadline.paths, found " + path);
+            }
+            pathBudgets.add(new PathBudget(path.substring(0, equals).trim(), Long.parseLong(path.substring(equals + 1).trim())));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain)
+            throws ServletException, IOException {
+
+        long budgetMs = budgetMs(request);
+        if (budgetMs <= 0) {
+            request.setAttribute(UNBOUNDED_ATTRIBUTE, Boolean.TRUE);
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RequestDeadline.start(budgetMs);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    private long budgetMs(final HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        long budgetMs = defaultMs[RequestClass.of(request).ordinal()];
+        for (PathBudget pathBudget : pathBudgets) {
+            if (pathBudget.matches(request, path)) {
+                budgetMs = pathBudget.budgetMs;
+                break;
+            }
+        }
+        if (budgetMs <= 0) {
+            return budgetMs;
+        }
+        long requestedMs = requestedMs(request);
+        return requestedMs > 0 ? Math.min(requestedMs, maxMs) : budgetMs;
+    }
+
+    private final class PathBudget {
+
+        private final String pattern;
+
+        //Parameter the request must carry with the given value, null to match on the path only
+        private final String parameter;
+
+        private final String value;
+
+        private final long budgetMs;
+
+        private PathBudget(final String condition, final long budgetMs) {
+            int query = condition.indexOf('?');
+            int equals = condition.indexOf('=', query + 1);
+            if (query >= 0 && equals < 0) {
+                throw new IllegalArgumentException("Expected pattern?name=value in quora.deadline.paths, found " + condition);
+            }
+            this.pattern = query < 0 ? condition : condition.substring(0, query);
+            this.parameter = query < 0 ? null : condition.substring(query + 1, equals);
+            this.value = query < 0 ? null : condition.substring(equals + 1);
+            this.budgetMs = budgetMs;
+        }
+
+        private boolean matches(final HttpServletRequest request, final String path) {
+            return pathMatcher.match(pattern, path) && (parameter == null || value.equals(request.getParameter(parameter)));
+        }
+    }
+
+    //A header that cannot be read is ignored rather than failing the request
+    private static long requestedMs(final HttpServletRequest request) {
+        String timeout = request.getHeader(TIMEOUT_HEADER);
+        if (timeout != null) {
+            try {
+                return Long.parseLong(timeout.trim());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        String grpcTimeout = request.getHeader(GRPC_TIMEOUT_HEADER);
+        if (grpcTimeout != null && grpcTimeout.length() > 1) {
+            try {
+                long value = Long.parseLong(grpcTimeout.substring(0, grpcTimeout.length() - 1));
+                switch (grpcTimeout.charAt(grpcTimeout.length() - 1)) {
+                    case 'H':
+                        return TimeUnit.HOURS.toMillis(value);
+                    case 'M':
+                        return TimeUnit.MINUTES.toMillis(value);
+                    case 'S':
+                        return TimeUnit.SECONDS.toMillis(value);
+                    case 'm':
+                        return value;
+                    case 'u':
+                        return Math.max(1, TimeUnit.MICROSECONDS.toMillis(value));
+                    case 'n':
+                        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(value));
+                    default:
+                        return -1;
+                }
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+}
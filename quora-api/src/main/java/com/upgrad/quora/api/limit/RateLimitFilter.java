@@ -0,0 +1,197 @@
+package com.upgrad.quora.api.limit;
+
+import com.upgrad.quora.api.exception.ErrorResponseBodies;
+import com.upgrad.quora.service.common.GenericErrorCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limits per access token and per client address, separately for signin and signup, the other
+ * writes and reads, see RequestClass. The filter runs ahead of the concurrency limits and the controllers, so a
+ * client over its rate is turned away with 429 and GEN-003 before any DAO call.
+ * Every limited response carries the RateLimit-Limit, RateLimit-Remaining and RateLimit-Reset headers of the
+ * bucket closest to running empty, rejections also carry Retry-After.
+ * Clients in the trusted address ranges, such as internal services, are not limited.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_HEADER = "RateLimit-Limit";
+
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+
+    static final String RESET_HEADER = "RateLimit-Reset";
+
+    @Autowired
+    private ErrorResponseBodies errorResponseBodies;
+
+    @Value("${quora.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    //Buckets by RequestClass ordinal, null where the limit is switched off
+    private final TokenBucketTable[] perToken = new TokenBucketTable[RequestClass.values().length];
+
+    private final TokenBucketTable[] perAddress = new TokenBucketTable[RequestClass.values().length];
+
+    private final List<byte[][]> trustedNetworks = new ArrayList<>();
+
+    public RateLimitFilter(@Value("${quora.rate-limit.max-clients:100000}") final int maxClients,
+                           @Value("${quora.rate-limit.trusted-addresses:127.0.0.1,::1}") final String[] trustedAddresses,
+                           @Value("${quora.rate-limit.signin.per-token.rate:1}") final double signinTokenRate,
+                           @Value("${quora.rate-limit.signin.per-token.burst:5}") final int signinTokenBurst,
+                           @Value("${quora.rate-limit.signin.per-address.rate:5}") final double signinAddressRate,
+                           @Value("${quora.rate-limit.signin.per-address.burst:20}") final int signinAddressBurst,
+                           @Value("${quora.rate-limit.writes.per-token.rate:5}") final double writesTokenRate,
+                           @Value("${quora.rate-limit.writes.per-token.burst:20}") final int writesTokenBurst,
+                           @Value("${quora.rate-limit.writes.per-address.rate:20}") final double writesAddressRate,
+                           @Value("${quora.rate-limit.writes.per-address.burst:50}") final int writesAddressBurst,
+                           @Value("${quora.rate-limit.reads.per-token.rate:20}") final double readsTokenRate,
+                           @Value("${quora.rate-limit.reads.per-token.burst:50}") final int readsTokenBurst,
+                           @Value("${quora.rate-limit.reads.per-address.rate:50}") final double readsAddressRate,
+                           @Value("${quora.rate-limit.reads.per-address.burst:100}") final int readsAddressBurst) throws UnknownHostException {
+        perToken[RequestClass.SIGNIN.ordinal()] = table(signinTokenRate, signinTokenBurst, maxClients);
+        perAddress[RequestClass.SIGNIN.ordinal()] = table(signinAddressRate, signinAddressBurst, maxClients);
+        perToken[RequestClass.WRITES.ordinal()] = table(writesTokenRate, writesTokenBurst, maxClients);
+        perAddress[RequestClass.WRITES.ordinal()] = table(writesAddressRate, writesAddressBurst, maxClients);
+        perToken[RequestClass.READS.ordinal()] = table(readsTokenRate, readsTokenBurst, maxClients);
+        perAddress[RequestClass.READS.ordinal()] = table(readsAddressRate, readsAddressBurst, maxClients);
+        for (String trustedAddress : trustedAddresses) {
+            if (!trustedAddress.trim().isEmpty()) {
+                trustedNetworks.add(network(trustedAddress.trim()));
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !enabled || isTrusted(request.getRemoteAddr());
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain)
+            throws ServletException, IOException {
+
+        final RequestClass requestClass = RequestClass.of(request);
+        final long nanos = System.nanoTime();
+        TokenBucketTable reported = null;
+        long reportedRemaining = Long.MAX_VALUE;
+
+        TokenBucketTable addressTable = perAddress[requestClass.ordinal()];
+        if (addressTable != null) {
+            long remaining = addressTable.tryAcquire(TokenBucketTable.hash(requestClass.getName(), request.getRemoteAddr()), nanos);
+            if (remaining < 0) {
+                reject(response, addressTable, -1L - remaining);
+                return;
+            }
+            reported = addressTable;
+            reportedRemaining = remaining;
+        }
+
+        //The authorization header identifies the caller, an access token for most endpoints and the credentials for signin
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        TokenBucketTable tokenTable = perToken[requestClass.ordinal()];
+        if (tokenTable != null && authorization != null) {
+            long remaining = tokenTable.tryAcquire(TokenBucketTable.hash(requestClass.getName(), authorization), nanos);
+            if (remaining < 0) {
+                reject(response, tokenTable, -1L - remaining);
+                return;
+            }
+            if (remaining < reportedRemaining) {
+                reported = tokenTable;
+                reportedRemaining = remaining;
+            }
+        }
+
+        if (reported != null) {
+            response.setHeader(LIMIT_HEADER, Integer.toString(reported.getBurst()));
+            response.setHeader(REMAINING_HEADER, Long.toString(reportedRemaining));
+            response.setHeader(RESET_HEADER, Long.toString(toSeconds(reported.nanosUntilFull(reportedRemaining))));
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(final HttpServletResponse response, final TokenBucketTable table, final long nanosUntilToken) throws IOException {
+        response.setHeader(LIMIT_HEADER, Integer.toString(table.getBurst()));
+        response.setHeader(REMAINING_HEADER, "0");
+        response.setHeader(RESET_HEADER, Long.toString(toSeconds(table.nanosUntilFull(0))));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(toSeconds(nanosUntilToken)));
+        errorResponseBodies.write(response, HttpStatus.TOO_MANY_REQUESTS, GenericErrorCode.GEN_003.getCode(), GenericErrorCode.GEN_003.getDefaultMessage());
+    }
+
+    private boolean isTrusted(final String remoteAddress) {
+        if (trustedNetworks.isEmpty() || remoteAddress == null) {
+            return false;
+        }
+        byte[] address;
+        try {
+            //The servlet container reports a literal address, so this does not resolve anything
+            address = InetAddress.getByName(remoteAddress).getAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+        for (byte[][] network : trustedNetworks) {
+            if (matches(network[0], network[1], address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(final byte[] network, final byte[] mask, final byte[] address) {
+        if (network.length != address.length) {
+            return false;
+        }
+        for (int i = 0; i < network.length; i++) {
+            if ((address[i] & mask[i]) != network[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param cidr an address, optionally followed by /prefix-length
+     * @return the masked network address and the mask
+     */
+    private static byte[][] network(final String cidr) throws UnknownHostException {
+        int slash = cidr.indexOf('/');
+        byte[] address = InetAddress.getByName(slash < 0 ? cidr : cidr.substring(0, slash)).getAddress();
+        int prefixLength = slash < 0 ? address.length * 8 : Integer.parseInt(cidr.substring(slash + 1));
+        if (prefixLength < 0 || prefixLength > address.length * 8) {
+            throw new IllegalArgumentException("Invalid prefix length in trusted address " + cidr);
+        }
+        byte[] mask = new byte[address.length];
+        for (int i = 0; i < mask.length; i++) {
+            int bits = Math.max(0, Math.min(8, prefixLength - i * 8));
+            mask[i] = (byte) (0xff00 >>> bits);
+            address[i] &= mask[i];
+        }
+        return new byte[][]{address, mask};
+    }
+
+    private static TokenBucketTable table(final double ratePerSecond, final int burst, final int maxClients) {
+        return ratePerSecond > 0 ? new TokenBucketTable(ratePerSecond, burst, maxClients) : null;
+    }
+
+    private static long toSeconds(final long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,41 @@
+package com.upgrad.quora.api.limit;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Locale;
+
+/**
+ * Endpoint groups that are limited separately
+ */
+public enum RequestClass {
+
+    /**
+     * Signin and signup, whose password hashing is CPU bound
+     */
+    SIGNIN,
+
+    /**
+     * Every other request that changes data
+     */
+    WRITES,
+
+    READS;
+
+    public static RequestClass of(final HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals("/user/signin") || path.equals("/user/signup")) {
+            return SIGNIN;
+        }
+        String method = request.getMethod();
+        if (method.equals("GET") || method.equals("HEAD") || method.equals("OPTIONS")) {
+            return READS;
+        }
+        return WRITES;
+    }
+
+    /**
+     * @return name used in configuration keys and statistics
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
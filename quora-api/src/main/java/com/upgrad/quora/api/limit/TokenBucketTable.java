@@ -0,0 +1,196 @@
+package com.upgrad.quora.api.limit;
+
+/**
+ * Token buckets of one limit, keyed by a 64 bit hash of the client identity. The table is split in stripes, each
+ * guarded by its own monitor and holding open addressed arrays, so taking a token contends only with clients
+ * hashed to the same stripe and allocates nothing unless the stripe is rebuilt.
+ * Stripes start small and double, up to their share of maxClients, only while the buckets in them are active.
+ * A bucket that has refilled completely behaves exactly like a missing one, such idle buckets are evicted when a
+ * stripe runs full. A stripe at its maximum size and full of active buckets refuses new clients until one of the
+ * buckets has refilled, so that a flood of distinct identities cannot get around the limit.
+ */
+public final class TokenBucketTable {
+
+    private static final int STRIPE_BITS = 6;
+
+    private static final int STRIPES = 1 << STRIPE_BITS;
+
+    private static final int INITIAL_SLOTS = 16;
+
+    //0 marks an empty slot
+    private static final long EMPTY = 0L;
+
+    private final double tokensPerNano;
+
+    private final int burst;
+
+    private final int maxSlots;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * @param ratePerSecond tokens added to every bucket per second
+     * @param burst         capacity of every bucket
+     * @param maxClients    most active clients tracked, rounded up to a power of two per stripe
+     */
+    public TokenBucketTable(final double ratePerSecond, final int burst, final int maxClients) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.burst = burst;
+        //Slots are kept at most half full to keep probe sequences short
+        int perStripe = Math.max(1, (maxClients + STRIPES - 1) / STRIPES);
+        this.maxSlots = Integer.highestOneBit(perStripe * 2 - 1) << 1;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(Math.min(INITIAL_SLOTS, maxSlots));
+        }
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public double getRatePerSecond() {
+        return tokensPerNano * 1_000_000_000d;
+    }
+
+    /**
+     * Takes one token from the bucket of the key
+     *
+     * @param key   client identity, see {@link #hash(String, String)}
+     * @param nanos current System.nanoTime()
+     * @return the tokens left in the bucket if a token was taken, otherwise -1 minus the nanoseconds until the next token
+     */
+    public long tryAcquire(final long key, final long nanos) {
+        final long slotKey = key == EMPTY ? 1L : key;
+        final Stripe stripe = stripes[(int) (slotKey >>> (64 - STRIPE_BITS))];
+        synchronized (stripe) {
+            int slot = stripe.find(slotKey);
+            if (stripe.keys[slot] == EMPTY) {
+                if (stripe.size >= stripe.keys.length / 2) {
+                    long nanosUntilRoom = stripe.makeRoom(nanos);
+                    if (nanosUntilRoom > 0) {
+                        return -1L - nanosUntilRoom;
+                    }
+                    slot = stripe.find(slotKey);
+                }
+                stripe.keys[slot] = slotKey;
+                stripe.tokens[slot] = burst;
+                stripe.updated[slot] = nanos;
+                stripe.size++;
+            }
+            double tokens = Math.min(burst, stripe.tokens[slot] + (nanos - stripe.updated[slot]) * tokensPerNano);
+            stripe.updated[slot] = nanos;
+            if (tokens < 1d) {
+                stripe.tokens[slot] = tokens;
+                return -1L - (long) Math.ceil((1d - tokens) / tokensPerNano);
+            }
+            stripe.tokens[slot] = tokens - 1d;
+            return (long) (tokens - 1d);
+        }
+    }
+
+    /**
+     * @return nanoseconds until a bucket with the given number of tokens left is full again
+     */
+    public long nanosUntilFull(final long remaining) {
+        return (long) Math.ceil(Math.max(0, burst - remaining) / tokensPerNano);
+    }
+
+    /**
+     * FNV-1a over the characters of both strings followed by a murmur finalizer, without building a combined string
+     *
+     * @return 64 bit key of the identity within the namespace
+     */
+    public static long hash(final String namespace, final String identity) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < namespace.length(); i++) {
+            hash = (hash ^ namespace.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ 0xff) * 0x100000001b3L;
+        for (int i = 0; i < identity.length(); i++) {
+            hash = (hash ^ identity.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private final class Stripe {
+
+        private long[] keys;
+
+        private double[] tokens;
+
+        private long[] updated;
+
+        private int size;
+
+        private Stripe(final int slots) {
+            keys = new long[slots];
+            tokens = new double[slots];
+            updated = new long[slots];
+        }
+
+        //Linear probing from the low bits, the high bits already chose the stripe
+        private int find(final long key) {
+            int mask = keys.length - 1;
+            int slot = (int) key & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Evicts the idle buckets of a full stripe into arrays of the same size, or of twice the size while the
+         * active buckets would fill more than a quarter of it
+         *
+         * @return 0 if there is room for a new bucket, otherwise the nanoseconds until the first active bucket is full
+         */
+        private long makeRoom(final long nanos) {
+            int live = 0;
+            long nanosUntilIdle = Long.MAX_VALUE;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) {
+                    double missing = burst - (tokens[i] + (nanos - updated[i]) * tokensPerNano);
+                    if (missing > 0) {
+                        live++;
+                        nanosUntilIdle = Math.min(nanosUntilIdle, (long) Math.ceil(missing / tokensPerNano));
+                    }
+                }
+            }
+            int slots = keys.length;
+            if (live >= slots / 4 && slots < maxSlots) {
+                slots *= 2;
+            } else if (live >= slots / 2) {
+                return Math.max(1, nanosUntilIdle);
+            }
+            rehash(slots, nanos);
+            return 0;
+        }
+
+        private void rehash(final int slots, final long nanos) {
+            long[] oldKeys = keys;
+            double[] oldTokens = tokens;
+            long[] oldUpdated = updated;
+            keys = new long[slots];
+            tokens = new double[slots];
+            updated = new long[slots];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == EMPTY || oldTokens[i] + (nanos - oldUpdated[i]) * tokensPerNano >= burst) {
+                    continue;
+                }
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                tokens[slot] = oldTokens[i];
+                updated[slot] = oldUpdated[i];
+                size++;
+            }
+        }
+    }
+}
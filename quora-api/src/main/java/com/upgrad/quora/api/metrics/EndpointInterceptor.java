@@ -0,0 +1,33 @@
+package com.upgrad.quora.api.metrics;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Names the endpoint of a request after the controller method handling it, such as QuestionController.getAllQuestions
+ */
+@Component
+public class EndpointInterceptor extends HandlerInterceptorAdapter {
+
+    private final ConcurrentMap<Method, String> names = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler) {
+        if (handler instanceof HandlerMethod) {
+            final HandlerMethod handlerMethod = (HandlerMethod) handler;
+            String name = names.get(handlerMethod.getMethod());
+            if (name == null) {
+                name = names.computeIfAbsent(handlerMethod.getMethod(), method -> handlerMethod.getBeanType().getSimpleName() + "." + method.getName());
+            }
+            request.setAttribute(RequestMetrics.ENDPOINT_ATTRIBUTE, name);
+        }
+        return true;
+    }
+}
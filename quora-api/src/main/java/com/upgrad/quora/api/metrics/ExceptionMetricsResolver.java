@@ -0,0 +1,31 @@
+package com.upgrad.quora.api.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the exceptions thrown by the controllers by type, ahead of RestExceptionHandler which still maps them
+ */
+@Component
+public class ExceptionMetricsResolver implements HandlerExceptionResolver, Ordered {
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Override
+    public ModelAndView resolveException(final HttpServletRequest request, final HttpServletResponse response, final Object handler, final Exception ex) {
+        requestMetrics.recordException(ex);
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,130 @@
+package com.upgrad.quora.api.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram in the layout of HdrHistogram: values below 128 have a bucket each, above that every power of
+ * two is split in 64 buckets, so any value is kept with a relative error below 1/64 in a fixed array.
+ * Recording is a single atomic increment. Percentiles are taken over a window of one to two window lengths,
+ * made of the current and the previous window, while the count and sum cover the whole run.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    //About 73 minutes, longer latencies are recorded as this value
+    private static final long MAX_VALUE_NANOS = (1L << 42) - 1;
+
+    private static final int BUCKETS = indexOf(MAX_VALUE_NANOS) + 1;
+
+    private final long windowMillis;
+
+    private final AtomicLongArray[] windows = {new AtomicLongArray(BUCKETS), new AtomicLongArray(BUCKETS)};
+
+    private volatile int current;
+
+    private volatile long windowEnd;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram(final long windowMillis) {
+        this.windowMillis = windowMillis;
+        this.windowEnd = System.currentTimeMillis() + windowMillis;
+    }
+
+    public void record(final long nanos) {
+        rotateIfDue(System.currentTimeMillis());
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE_NANOS));
+        windows[current].incrementAndGet(indexOf(value));
+        count.increment();
+        sumNanos.add(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSumSeconds() {
+        return sumNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * @param quantiles quantiles to compute, in ascending order, between 0 and 1
+     * @return the latency in seconds at each quantile over the current and previous window, 0 if nothing was recorded
+     */
+    public double[] getQuantileSeconds(final double... quantiles) {
+        rotateIfDue(System.currentTimeMillis());
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (AtomicLongArray window : windows) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucketCount = window.get(i);
+                counts[i] += bucketCount;
+                total += bucketCount;
+            }
+        }
+        double[] values = new double[quantiles.length];
+        if (total == 0) {
+            return values;
+        }
+        int next = 0;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && next < quantiles.length; i++) {
+            seen += counts[i];
+            while (next < quantiles.length && seen >= Math.max(1, (long) Math.ceil(quantiles[next] * total))) {
+                values[next++] = valueOf(i) / (double) TimeUnit.SECONDS.toNanos(1);
+            }
+        }
+        return values;
+    }
+
+    //The window about to become current is cleared first, recordings racing with the rotation land in a kept window
+    private void rotateIfDue(final long now) {
+        if (now < windowEnd) {
+            return;
+        }
+        synchronized (this) {
+            if (now < windowEnd) {
+                return;
+            }
+            int next = 1 - current;
+            AtomicLongArray window = windows[next];
+            for (int i = 0; i < BUCKETS; i++) {
+                window.set(i, 0);
+            }
+            current = next;
+            //After a long idle time both windows hold stale values
+            if (now >= windowEnd + windowMillis) {
+                AtomicLongArray previous = windows[1 - next];
+                for (int i = 0; i < BUCKETS; i++) {
+                    previous.set(i, 0);
+                }
+            }
+            windowEnd = now + windowMillis;
+        }
+    }
+
+    static int indexOf(final long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    //Middle of the range of values kept in the bucket
+    static long valueOf(final int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index - shift * SUB_BUCKETS;
+        return (subBucket << shift) + ((1L << shift) >>> 1);
+    }
+}
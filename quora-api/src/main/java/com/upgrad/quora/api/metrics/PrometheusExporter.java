@@ -0,0 +1,192 @@
+package com.upgrad.quora.api.metrics;
+
+import com.upgrad.quora.api.limit.AdaptiveConcurrencyLimit;
+import com.upgrad.quora.api.limit.ConcurrencyLimitFilter;
+import com.upgrad.quora.service.common.SingleFlight;
+import com.upgrad.quora.service.common.SingleFlights;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Renders the metrics of the application in the Prometheus text exposition format: request latencies and counts
+ * by endpoint, errors by code and exception type, the connection pool, the Hibernate statistics when
+ * hibernate.generate_statistics is on, the concurrency limits and the single-flight counters.
+ * Everything is read when scraped, the request path only maintains the counters of RequestMetrics.
+ */
+@Component
+public class PrometheusExporter {
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @Autowired
+    private SingleFlights singleFlights;
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+        writeRequests(out);
+        writeErrors(out);
+        writeConnectionPool(out);
+        writeHibernate(out);
+        writeLimits(out);
+        return out.toString();
+    }
+
+    private void writeRequests(final StringBuilder out) {
+        Map<String, RequestMetrics.Endpoint> endpoints = requestMetrics.getEndpoints();
+        header(out, "quora_http_server_requests_seconds", "summary", "Request latency by endpoint, quantiles over the last one to two windows");
+        for (Map.Entry<String, RequestMetrics.Endpoint> endpoint : endpoints.entrySet()) {
+            LatencyHistogram latency = endpoint.getValue().getLatency();
+            double[] values = latency.getQuantileSeconds(QUANTILES);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                sample(out, "quora_http_server_requests_seconds", values[i], "endpoint", endpoint.getKey(), "quantile", Double.toString(QUANTILES[i]));
+            }
+            sample(out, "quora_http_server_requests_seconds_count", latency.getCount(), "endpoint", endpoint.getKey());
+            sample(out, "quora_http_server_requests_seconds_sum", latency.getSumSeconds(), "endpoint", endpoint.getKey());
+        }
+        header(out, "quora_http_server_responses_total", "counter", "Responses by endpoint and status");
+        for (Map.Entry<String, RequestMetrics.Endpoint> endpoint : endpoints.entrySet()) {
+            for (Map.Entry<Integer, Long> status : endpoint.getValue().getStatusCounts().entrySet()) {
+                sample(out, "quora_http_server_responses_total", status.getValue(), "endpoint", endpoint.getKey(), "status", status.getKey().toString());
+            }
+        }
+    }
+
+    private void writeErrors(final StringBuilder out) {
+        header(out, "quora_error_responses_total", "counter", "Error responses by error code");
+        for (Map.Entry<String, Long> errorCode : requestMetrics.getErrorCodes().entrySet()) {
+            sample(out, "quora_error_responses_total", errorCode.getValue(), "code", errorCode.getKey());
+        }
+        header(out, "quora_exceptions_total", "counter", "Exceptions thrown by the controllers by type");
+        for (Map.Entry<String, Long> exception : requestMetrics.getExceptions().entrySet()) {
+            sample(out, "quora_exceptions_total", exception.getValue(), "exception", exception.getKey());
+        }
+    }
+
+    private void writeConnectionPool(final StringBuilder out) {
+        if (!(dataSource instanceof HikariDataSource)) {
+            return;
+        }
+        HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        header(out, "quora_datasource_connections", "gauge", "Connections of the pool by state");
+        if (pool != null) {
+            sample(out, "quora_datasource_connections", pool.getActiveConnections(), "state", "active");
+            sample(out, "quora_datasource_connections", pool.getIdleConnections(), "state", "idle");
+        }
+        header(out, "quora_datasource_connections_max", "gauge", "Maximum size of the pool");
+        sample(out, "quora_datasource_connections_max", hikariDataSource.getMaximumPoolSize());
+        header(out, "quora_datasource_pending_threads", "gauge", "Threads waiting for a connection");
+        sample(out, "quora_datasource_pending_threads", pool != null ? pool.getThreadsAwaitingConnection() : 0);
+    }
+
+    private void writeHibernate(final StringBuilder out) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        counter(out, "quora_hibernate_queries_total", "HQL and criteria queries executed", statistics.getQueryExecutionCount());
+        header(out, "quora_hibernate_query_max_seconds", "gauge", "Slowest query execution");
+        sample(out, "quora_hibernate_query_max_seconds", statistics.getQueryExecutionMaxTime() / 1000d);
+        counter(out, "quora_hibernate_statements_total", "JDBC statements prepared", statistics.getPrepareStatementCount());
+        counter(out, "quora_hibernate_entity_loads_total", "Entities loaded", statistics.getEntityLoadCount());
+        counter(out, "quora_hibernate_entity_fetches_total", "Entities fetched by separate selects", statistics.getEntityFetchCount());
+        counter(out, "quora_hibernate_entity_inserts_total", "Entities inserted", statistics.getEntityInsertCount());
+        counter(out, "quora_hibernate_collection_loads_total", "Collections loaded", statistics.getCollectionLoadCount());
+        counter(out, "quora_hibernate_flushes_total", "Session flushes", statistics.getFlushCount());
+        counter(out, "quora_hibernate_transactions_total", "Transactions completed", statistics.getTransactionCount());
+        header(out, "quora_hibernate_second_level_cache_requests_total", "counter", "Second level cache lookups by result");
+        sample(out, "quora_hibernate_second_level_cache_requests_total", statistics.getSecondLevelCacheHitCount(), "result", "hit");
+        sample(out, "quora_hibernate_second_level_cache_requests_total", statistics.getSecondLevelCacheMissCount(), "result", "miss");
+    }
+
+    private void writeLimits(final StringBuilder out) {
+        header(out, "quora_concurrency_limit", "gauge", "Current adaptive concurrency limit by request class");
+        for (AdaptiveConcurrencyLimit limit : concurrencyLimitFilter.getLimits()) {
+            sample(out, "quora_concurrency_limit", limit.getLimit(), "class", limit.getName());
+        }
+        header(out, "quora_concurrency_in_flight", "gauge", "Requests holding a concurrency permit by request class");
+        for (AdaptiveConcurrencyLimit limit : concurrencyLimitFilter.getLimits()) {
+            sample(out, "quora_concurrency_in_flight", limit.getInFlight(), "class", limit.getName());
+        }
+        header(out, "quora_concurrency_rejected_total", "counter", "Requests rejected over the concurrency limit by request class");
+        for (AdaptiveConcurrencyLimit limit : concurrencyLimitFilter.getLimits()) {
+            sample(out, "quora_concurrency_rejected_total", limit.getRejected(), "class", limit.getName());
+        }
+        Map<String, SingleFlight<?>> flights = singleFlights.getAll();
+        header(out, "quora_single_flight_calls_total", "counter", "Calls of a single-flight read path");
+        for (Map.Entry<String, SingleFlight<?>> flight : flights.entrySet()) {
+            sample(out, "quora_single_flight_calls_total", flight.getValue().getCalls(), "name", flight.getKey());
+        }
+        header(out, "quora_single_flight_collapsed_total", "counter", "Calls served by the execution of a concurrent identical call");
+        for (Map.Entry<String, SingleFlight<?>> flight : flights.entrySet()) {
+            sample(out, "quora_single_flight_collapsed_total", flight.getValue().getCollapsed(), "name", flight.getKey());
+        }
+    }
+
+    private static void counter(final StringBuilder out, final String name, final String help, final long value) {
+        header(out, name, "counter", help);
+        sample(out, name, value);
+    }
+
+    private static void header(final StringBuilder out, final String name, final String type, final String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    //Label names and values alternate in labels
+    private static void sample(final StringBuilder out, final String name, final double value, final String... labels) {
+        out.append(name);
+        if (labels.length > 0) {
+            out.append('{');
+            for (int i = 0; i < labels.length; i += 2) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(labels[i]).append("=\"");
+                escape(out, labels[i + 1]);
+                out.append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static void escape(final StringBuilder out, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.upgrad.quora.api.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request latencies and counts by endpoint, the controller method that served the request, and error counts by
+ * error code and by exception type. Recording looks up existing entries and increments counters, nothing is
+ * allocated once an endpoint or error has been seen.
+ */
+@Component
+public class RequestMetrics {
+
+    /**
+     * Request attribute holding the endpoint name, set by EndpointInterceptor
+     */
+    public static final String ENDPOINT_ATTRIBUTE = RequestMetrics.class.getName() + ".endpoint";
+
+    /**
+     * Endpoint of the requests that did not reach a controller, such as rejections by the filters and unknown paths
+     */
+    public static final String UNMATCHED_ENDPOINT = "UNMATCHED";
+
+    private static final int MAX_STATUS = 600;
+
+    private final long windowMillis;
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, LongAdder> errorCodes = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Class<?>, LongAdder> exceptions = new ConcurrentHashMap<>();
+
+    public RequestMetrics(@Value("${quora.metrics.window-ms:60000}") final long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Latency and responses by status of one endpoint
+     */
+    public static final class Endpoint {
+
+        private final LatencyHistogram latency;
+
+        private final AtomicLongArray statuses = new AtomicLongArray(MAX_STATUS);
+
+        private Endpoint(final long windowMillis) {
+            this.latency = new LatencyHistogram(windowMillis);
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return number of responses by status code
+         */
+        public Map<Integer, Long> getStatusCounts() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            for (int status = 0; status < MAX_STATUS; status++) {
+                long count = statuses.get(status);
+                if (count > 0) {
+                    counts.put(status, count);
+                }
+            }
+            return counts;
+        }
+    }
+
+    public void recordRequest(final String endpoint, final int status, final long nanos) {
+        Endpoint metrics = endpoints.get(endpoint);
+        if (metrics == null) {
+            metrics = endpoints.computeIfAbsent(endpoint, name -> new Endpoint(windowMillis));
+        }
+        metrics.latency.record(nanos);
+        if (status >= 0 && status < MAX_STATUS) {
+            metrics.statuses.incrementAndGet(status);
+        }
+    }
+
+    public void recordErrorCode(final String code) {
+        increment(errorCodes, code);
+    }
+
+    public void recordException(final Throwable exception) {
+        increment(exceptions, exception.getClass());
+    }
+
+    /**
+     * @return metrics by endpoint name
+     */
+    public Map<String, Endpoint> getEndpoints() {
+        return Collections.unmodifiableMap(new TreeMap<>(endpoints));
+    }
+
+    /**
+     * @return number of error responses by error code
+     */
+    public Map<String, Long> getErrorCodes() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> errorCode : errorCodes.entrySet()) {
+            counts.put(errorCode.getKey(), errorCode.getValue().sum());
+        }
+        return counts;
+    }
+
+    /**
+     * @return number of exceptions handled by the controllers, by simple class name
+     */
+    public Map<String, Long> getExceptions() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<Class<?>, LongAdder> exception : exceptions.entrySet()) {
+            counts.merge(exception.getKey().getSimpleName(), exception.getValue().sum(), Long::sum);
+        }
+        return counts;
+    }
+
+    private static <K> void increment(final ConcurrentMap<K, LongAdder> counters, final K key) {
+        LongAdder counter = counters.get(key);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+}
@@ -0,0 +1,78 @@
+package com.upgrad.quora.api.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Times every request from the outermost filter, so that rejections by the limits and the serialization of the
+ * response are included. Async requests are timed until the async processing completes.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Value("${quora.metrics.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain)
+            throws ServletException, IOException {
+
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(final AsyncEvent event) {
+                        record(request, response.getStatus(), start);
+                    }
+
+                    @Override
+                    public void onTimeout(final AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(final AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(final AsyncEvent event) {
+                    }
+                });
+            } else {
+                //An exception leaving the filter chain is turned into a 500 by the container
+                record(request, failed ? HttpStatus.INTERNAL_SERVER_ERROR.value() : response.getStatus(), start);
+            }
+        }
+    }
+
+    private void record(final HttpServletRequest request, final int status, final long start) {
+        Object endpoint = request.getAttribute(RequestMetrics.ENDPOINT_ATTRIBUTE);
+        requestMetrics.recordRequest(endpoint != null ? (String) endpoint : RequestMetrics.UNMATCHED_ENDPOINT, status, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,11 @@
+package com.upgrad.quora.api.protobuf;
+
+/**
+ * Thrown when a request body is not a well-formed protocol buffers message
+ */
+public class InvalidProtoException extends RuntimeException {
+
+    public InvalidProtoException(final String message) {
+        super(message);
+    }
+}
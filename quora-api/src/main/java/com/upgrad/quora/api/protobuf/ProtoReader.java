@@ -0,0 +1,134 @@
+package com.upgrad.quora.api.protobuf;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads one message in the protocol buffers wire format. Length-delimited fields are kept as bytes and read as
+ * strings or nested messages on access, varints as longs, fixed-width fields are skipped. Unknown fields are ignored,
+ * so older clients and servers can exchange messages that gained new fields.
+ */
+public final class ProtoReader {
+
+    private final Map<Integer, List<Object>> fields = new HashMap<>();
+
+    private ProtoReader() {
+    }
+
+    /**
+     * @param message encoded message, empty for a message holding only default values
+     * @return reader over the fields of the message
+     * @throws InvalidProtoException if the bytes are not a well-formed message
+     */
+    public static ProtoReader parse(final byte[] message) {
+        ProtoReader reader = new ProtoReader();
+        int[] position = {0};
+        while (position[0] < message.length) {
+            long key = varint(message, position);
+            int field = (int) (key >>> 3);
+            if (field <= 0) {
+                throw new InvalidProtoException("Invalid field number " + field);
+            }
+            Object value;
+            switch ((int) (key & 7)) {
+                case 0:
+                    value = varint(message, position);
+                    break;
+                case 1:
+                    skip(message, position, 8);
+                    continue;
+                case 2:
+                    int length = (int) varint(message, position);
+                    int start = position[0];
+                    skip(message, position, length);
+                    value = Arrays.copyOfRange(message, start, start + length);
+                    break;
+                case 5:
+                    skip(message, position, 4);
+                    continue;
+                default:
+                    throw new InvalidProtoException("Unsupported wire type " + (key & 7) + " of field " + field);
+            }
+            reader.fields.computeIfAbsent(field, f -> new ArrayList<>()).add(value);
+        }
+        return reader;
+    }
+
+    /**
+     * @return the last value of the field, as proto3 does for repeated scalar fields, or an empty string if absent
+     */
+    public String getString(final int field) {
+        List<Object> values = values(field);
+        return values.isEmpty() ? "" : string(field, values.get(values.size() - 1));
+    }
+
+    public List<String> getStrings(final int field) {
+        List<String> strings = new ArrayList<>();
+        for (Object value : values(field)) {
+            strings.add(string(field, value));
+        }
+        return strings;
+    }
+
+    public long getInt64(final int field) {
+        List<Object> values = values(field);
+        if (values.isEmpty()) {
+            return 0;
+        }
+        Object value = values.get(values.size() - 1);
+        if (!(value instanceof Long)) {
+            throw new InvalidProtoException("Field " + field + " is not a varint");
+        }
+        return (Long) value;
+    }
+
+    public List<ProtoReader> getMessages(final int field) {
+        List<ProtoReader> messages = new ArrayList<>();
+        for (Object value : values(field)) {
+            if (!(value instanceof byte[])) {
+                throw new InvalidProtoException("Field " + field + " is not a message");
+            }
+            messages.add(parse((byte[]) value));
+        }
+        return messages;
+    }
+
+    private List<Object> values(final int field) {
+        List<Object> values = fields.get(field);
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    private static String string(final int field, final Object value) {
+        if (!(value instanceof byte[])) {
+            throw new InvalidProtoException("Field " + field + " is not a string");
+        }
+        return new String((byte[]) value, StandardCharsets.UTF_8);
+    }
+
+    private static long varint(final byte[] message, final int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= message.length) {
+                throw new InvalidProtoException("Truncated varint");
+            }
+            byte b = message[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new InvalidProtoException("Malformed varint");
+    }
+
+    private static void skip(final byte[] message, final int[] position, final int length) {
+        if (length < 0 || length > message.length - position[0]) {
+            throw new InvalidProtoException("Truncated message");
+        }
+        position[0] += length;
+    }
+}
@@ -0,0 +1,75 @@
+package com.upgrad.quora.api.protobuf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes one message in the protocol buffers wire format. Only the field kinds used by quora.proto are supported:
+ * strings, nested messages and int64 varints. As in proto3, fields holding the default value are not written.
+ */
+public final class ProtoWriter {
+
+    private static final int WIRE_VARINT = 0;
+
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+
+    public ProtoWriter string(final int field, final String value) {
+        if (value != null && !value.isEmpty()) {
+            bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+        return this;
+    }
+
+    public ProtoWriter int64(final int field, final long value) {
+        if (value != 0) {
+            varint(field << 3 | WIRE_VARINT);
+            varint(value);
+        }
+        return this;
+    }
+
+    //Nested messages are always written, an empty message is not the same as an absent one
+    public ProtoWriter message(final int field, final ProtoWriter message) {
+        bytes(field, message.toByteArray());
+        return this;
+    }
+
+    public byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the message as one frame of a stream: a zero compression flag and the 4 byte big-endian length,
+     * followed by the message. This is the framing gRPC uses for the messages of a stream.
+     *
+     * @param stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeFrameTo(final OutputStream stream) throws IOException {
+        int length = out.size();
+        stream.write(0);
+        stream.write(length >>> 24);
+        stream.write(length >>> 16);
+        stream.write(length >>> 8);
+        stream.write(length);
+        out.writeTo(stream);
+    }
+
+    private void bytes(final int field, final byte[] value) {
+        varint(field << 3 | WIRE_LENGTH_DELIMITED);
+        varint(value.length);
+        out.write(value, 0, value.length);
+    }
+
+    private void varint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
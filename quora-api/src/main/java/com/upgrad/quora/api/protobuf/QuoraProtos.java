@@ -0,0 +1,61 @@
+package com.upgrad.quora.api.protobuf;
+
+import com.upgrad.quora.api.model.AnswerDetailsResponse;
+import com.upgrad.quora.api.model.AnswerResponse;
+import com.upgrad.quora.api.model.QuestionDetailsResponse;
+import com.upgrad.quora.api.model.QuestionResponse;
+import com.upgrad.quora.api.model.UserDetailsResponse;
+
+import java.util.List;
+
+/**
+ * Protocol buffers encoding of the API models, field numbers are the ones of the messages in proto/quora.proto
+ */
+public final class QuoraProtos {
+
+    public static final String MEDIA_TYPE = "application/x-protobuf";
+
+    private QuoraProtos() {
+    }
+
+    public static ProtoWriter questionResponse(final QuestionResponse questionResponse) {
+        return new ProtoWriter().string(1, questionResponse.getId()).string(2, questionResponse.getStatus());
+    }
+
+    public static ProtoWriter answerResponse(final AnswerResponse answerResponse) {
+        return new ProtoWriter().string(1, answerResponse.getId()).string(2, answerResponse.getStatus());
+    }
+
+    public static ProtoWriter questionDetails(final QuestionDetailsResponse questionDetailsResponse) {
+        return new ProtoWriter().string(1, questionDetailsResponse.getId()).string(2, questionDetailsResponse.getContent());
+    }
+
+    public static ProtoWriter questionList(final List<QuestionDetailsResponse> questions) {
+        ProtoWriter questionList = new ProtoWriter();
+        for (QuestionDetailsResponse question : questions) {
+            questionList.message(1, questionDetails(question));
+        }
+        return questionList;
+    }
+
+    public static ProtoWriter answerDetails(final AnswerDetailsResponse answerDetailsResponse) {
+        return new ProtoWriter().string(1, answerDetailsResponse.getId()).string(2, answerDetailsResponse.getAnswerContent())
+                .string(3, answerDetailsResponse.getQuestionContent());
+    }
+
+    public static ProtoWriter userDetails(final UserDetailsResponse userDetailsResponse) {
+        return new ProtoWriter().string(1, userDetailsResponse.getId()).string(2, userDetailsResponse.getFirstName())
+                .string(3, userDetailsResponse.getLastName()).string(4, userDetailsResponse.getUserName())
+                .string(5, userDetailsResponse.getEmailAddress()).string(6, userDetailsResponse.getCountry())
+                .string(7, userDetailsResponse.getAboutMe()).string(8, userDetailsResponse.getDob())
+                .string(9, userDetailsResponse.getContactNumber());
+    }
+
+    public static ProtoWriter userList(final List<UserDetailsResponse> users) {
+        ProtoWriter userList = new ProtoWriter();
+        for (UserDetailsResponse user : users) {
+            userList.message(1, userDetails(user));
+        }
+        return userList;
+    }
+}
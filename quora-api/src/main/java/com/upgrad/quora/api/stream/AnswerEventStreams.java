@@ -0,0 +1,208 @@
+package com.upgrad.quora.api.stream;
+
+import com.upgrad.quora.api.model.AnswerDetailsResponse;
+import com.upgrad.quora.service.business.AnswerBusinessService;
+import com.upgrad.quora.service.dao.AnswerEvent;
+import com.upgrad.quora.service.dao.AnswerEventHub;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.InvalidQuestionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the events of AnswerEventHub subscriptions to Server-Sent Events streams.
+ * Publishers only signal a subscription, a small pool of sender threads drains its buffer into the emitter,
+ * so a slow client never holds up the transaction that created the answer.
+ * Events are sent as "answer" events carrying an AnswerDetailsResponse. A "reset" event is sent first when the
+ * Last-Event-ID is too old to replay what was missed, the client should then reload the answers once.
+ * An evicted subscriber receives the events that were buffered and the stream is completed, so the client reconnects.
+ * <p>
+ * Writes to the emitter block while the client's TCP window is full. A write still running after the write timeout
+ * evicts its subscriber and the sender is written off: a replacement joins the pool until the write returns, which
+ * the container's connection timeout bounds. Stalled clients therefore never hold up the delivery to the others.
+ */
+@Component
+public class AnswerEventStreams {
+
+    @Autowired
+    private AnswerBusinessService answerService;
+
+    @Value("${quora.answer.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${quora.answer.stream.reconnect-ms:3000}")
+    private long reconnectMs;
+
+    @Value("${quora.answer.stream.write-timeout-ms:5000}")
+    private long writeTimeoutMs;
+
+    private final ThreadPoolExecutor senders;
+
+    private final ScheduledExecutorService watchdog;
+
+    private final AtomicLong stalledEvictions = new AtomicLong();
+
+    public AnswerEventStreams(@Value("${quora.answer.stream.sender-threads:2}") final int senderThreads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sse-");
+        threadFactory.setDaemon(true);
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+        CustomizableThreadFactory watchdogFactory = new CustomizableThreadFactory("sse-watchdog-");
+        watchdogFactory.setDaemon(true);
+        ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, watchdogFactory);
+        watchdog.setRemoveOnCancelPolicy(true);
+        this.watchdog = watchdog;
+    }
+
+    /**
+     * @param questionUuid  question to watch
+     * @param authorization for validation
+     * @param lastEventId   Last-Event-ID sent by a reconnecting client, may be null
+     * @return emitter streaming the new answers of the question
+     * @throws AuthorizationFailedException if the user is not signed in
+     * @throws InvalidQuestionException     if the question does not exist
+     */
+    public SseEmitter open(final String questionUuid, final String authorization, final String lastEventId) throws AuthorizationFailedException, InvalidQuestionException {
+        final SseEmitter emitter = new SseEmitter(timeoutMs);
+        final Delivery delivery = new Delivery(emitter);
+        final AnswerEventHub.Subscription subscription = answerService.subscribeToAnswers(questionUuid, authorization, lastEventId, delivery::schedule);
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        delivery.start(subscription);
+        return emitter;
+    }
+
+    /**
+     * @return number of subscribers evicted because a write to their stream exceeded the write timeout
+     */
+    public long getStalledEvictions() {
+        return stalledEvictions.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    //Keeps the number of senders free to drain at the configured size while others are stuck in a write
+    private synchronized void resizeSenders(final int delta) {
+        int size = senders.getCorePoolSize() + delta;
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private final class Delivery {
+
+        private final SseEmitter emitter;
+
+        //Signals not yet handled, a drain is running while this is above zero
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private volatile AnswerEventHub.Subscription subscription;
+
+        private boolean started;
+
+        //Number of the write in progress, 0 between writes, negated by the watchdog once the write has timed out
+        private final AtomicLong writing = new AtomicLong();
+
+        private long writes;
+
+        private volatile boolean stalled;
+
+        private Delivery(final SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void start(final AnswerEventHub.Subscription subscription) {
+            this.subscription = subscription;
+            schedule();
+        }
+
+        private void schedule() {
+            //Signals arriving before start are covered by the first drain
+            if (subscription != null && pending.getAndIncrement() == 0) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                send();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void send() {
+            AnswerEventHub.Subscription subscription = this.subscription;
+            try {
+                if (!stalled && !started) {
+                    started = true;
+                    SseEmitter.SseEventBuilder hello = SseEmitter.event().reconnectTime(reconnectMs).comment("answers");
+                    write(subscription.isReplayIncomplete() ? hello.name("reset").data("") : hello);
+                }
+                for (AnswerEvent event : subscription.drain()) {
+                    if (stalled) {
+                        break;
+                    }
+                    AnswerDetailsResponse answer = new AnswerDetailsResponse().id(event.getAnswerUuid()).answerContent(event.getAnswer());
+                    write(SseEmitter.event().id(event.getId()).name("answer").data(answer, MediaType.APPLICATION_JSON));
+                }
+                if (stalled || subscription.isEvicted()) {
+                    //A stalled client reconnects with its Last-Event-ID and gets the rest from the replay
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                //The client has gone away or the emitter has already completed
+                subscription.cancel();
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void write(final SseEmitter.SseEventBuilder event) throws IOException {
+            final long write = ++writes;
+            writing.set(write);
+            ScheduledFuture<?> timeout = watchdog.schedule(() -> writeTimedOut(write), writeTimeoutMs, TimeUnit.MILLISECONDS);
+            try {
+                emitter.send(event);
+            } finally {
+                timeout.cancel(false);
+                if (!writing.compareAndSet(write, 0)) {
+                    //The watchdog replaced this sender while it was blocked, give the slot back
+                    writing.set(0);
+                    resizeSenders(-1);
+                }
+            }
+        }
+
+        //Runs on the watchdog thread while the sender may still be blocked in the write, so the emitter is not touched here
+        private void writeTimedOut(final long write) {
+            if (writing.compareAndSet(write, -write)) {
+                stalled = true;
+                subscription.cancel();
+                stalledEvictions.incrementAndGet();
+                resizeSenders(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.upgrad.quora.api.stream;
+
+import com.upgrad.quora.service.dao.RowHandler;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bridges a scrolled query to a Flux with a single subscriber. The thread running the query hands each row over
+ * only once the subscriber has requested it, so the rows in memory stay bounded by the demand of the subscriber,
+ * Spring MVC requests the next element once the previous one has been written to the client.
+ * A subscriber that does not request a row within the stall timeout, or cancels, aborts the query with an IOException.
+ *
+ * @param <T> element type of the Flux
+ */
+public final class PacedRowSink<T> implements RowHandler {
+
+    private final Function<Object[], T> mapper;
+
+    private final long stallTimeoutMs;
+
+    private final Semaphore requested = new Semaphore(0);
+
+    private final Flux<T> flux;
+
+    private volatile FluxSink<T> sink;
+
+    private volatile boolean unbounded;
+
+    private volatile boolean cancelled;
+
+    //Set when the query ended before the subscriber arrived, an empty result never waits for demand
+    private volatile boolean done;
+
+    private volatile Throwable failure;
+
+    public PacedRowSink(final Function<Object[], T> mapper, final long stallTimeoutMs) {
+        this.mapper = mapper;
+        this.stallTimeoutMs = stallTimeoutMs;
+        this.flux = Flux.create(this::subscribed);
+    }
+
+    /**
+     * @return Flux of the rows handed to this sink, it may only be subscribed to once
+     */
+    public Flux<T> flux() {
+        return flux;
+    }
+
+    private void subscribed(final FluxSink<T> sink) {
+        sink.onRequest(n -> {
+            if (n == Long.MAX_VALUE) {
+                unbounded = true;
+                requested.release();
+            } else {
+                requested.release((int) Math.min(n, Integer.MAX_VALUE));
+            }
+        });
+        sink.onDispose(() -> {
+            cancelled = true;
+            requested.release();
+        });
+        this.sink = sink;
+        if (done) {
+            terminate(sink);
+        }
+    }
+
+    @Override
+    public void handle(final Object[] row) throws IOException {
+        if (!unbounded) {
+            try {
+                if (!requested.tryAcquire(stallTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new IOException("No row requested for " + stallTimeoutMs + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for demand");
+            }
+        }
+        if (cancelled) {
+            throw new IOException("Subscriber cancelled");
+        }
+        sink.next(mapper.apply(row));
+    }
+
+    public void complete() {
+        done = true;
+        FluxSink<T> sink = this.sink;
+        if (sink != null) {
+            terminate(sink);
+        }
+    }
+
+    /**
+     * @param error failure of the query, passed on unless the subscriber is already gone
+     */
+    public void error(final Throwable error) {
+        failure = error;
+        complete();
+    }
+
+    //May run twice when the subscriber arrives while the query ends, the sink ignores the second signal
+    private void terminate(final FluxSink<T> sink) {
+        Throwable failure = this.failure;
+        if (failure == null) {
+            sink.complete();
+        } else if (!cancelled) {
+            sink.error(failure);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.upgrad.quora.api.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.quora.service.common.Span;
+import com.upgrad.quora.service.common.Tracing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Receives the span tree of every finished request. Requests slower than quora.tracing.slow-request-ms are logged
+ * at WARN with their whole tree, whether sampled or not. A share of the requests, quora.tracing.sample-rate,
+ * is exported, either kept in memory for GET /actuator/traces or appended to a file as one JSON document per line.
+ * The file is written by a background thread, traces are dropped rather than delaying requests when it falls behind.
+ */
+@Component
+public class TraceCollector {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TraceCollector.class);
+
+    private static final int FILE_QUEUE_CAPACITY = 10000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${quora.tracing.sample-rate:0.01}")
+    private double sampleRate;
+
+    @Value("${quora.tracing.slow-request-ms:1000}")
+    private long slowRequestMs;
+
+    @Value("${quora.tracing.exporter:memory}")
+    private String exporter;
+
+    @Value("${quora.tracing.memory-capacity:200}")
+    private int memoryCapacity;
+
+    @Value("${quora.tracing.file:quora-traces.jsonl}")
+    private String file;
+
+    @Value("${quora.tracing.max-spans:1000}")
+    private int maxSpans;
+
+    //Most recent sampled traces, newest last
+    private final Deque<Map<String, Object>> recent = new ArrayDeque<>();
+
+    private BlockingQueue<String> fileQueue;
+
+    private Thread fileWriter;
+
+    private final AtomicLong droppedTraces = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        Tracing.setMaxSpans(maxSpans);
+        if (!exporter.equals("memory") && !exporter.equals("file") && !exporter.equals("none")) {
+            throw new IllegalArgumentException("quora.tracing.exporter must be memory, file or none, found " + exporter);
+        }
+        if (exporter.equals("file")) {
+            fileQueue = new ArrayBlockingQueue<>(FILE_QUEUE_CAPACITY);
+            fileWriter = new Thread(this::writeFile, "trace-writer");
+            fileWriter.setDaemon(true);
+            fileWriter.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (fileWriter != null) {
+            fileWriter.interrupt();
+        }
+    }
+
+    /**
+     * @param root     ended root span of the request
+     * @param endpoint handler of the request, null if none matched
+     * @param status   status of the response
+     */
+    public void complete(final Span root, final String endpoint, final int status) {
+        if (slowRequestMs > 0 && root.getDurationNanos() >= TimeUnit.MILLISECONDS.toNanos(slowRequestMs)) {
+            LOG.warn("Slow request, status {}, trace {}\n{}", status, root.getTraceId(), render(root));
+        }
+        if (exporter.equals("none") || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceId", root.getTraceId());
+        trace.put("timestamp", Instant.now().toString());
+        trace.put("endpoint", endpoint);
+        trace.put("status", status);
+        trace.put("durationMs", millis(root.getDurationNanos()));
+        trace.put("sqlStatements", root.getTotalSqlStatements());
+        trace.put("droppedSpans", root.getDroppedSpans());
+        trace.put("root", toMap(root, root.getStartNanos()));
+        if (fileQueue != null) {
+            try {
+                if (!fileQueue.offer(objectMapper.writeValueAsString(trace))) {
+                    droppedTraces.incrementAndGet();
+                }
+            } catch (JsonProcessingException e) {
+                LOG.warn("Trace {} could not be serialized", root.getTraceId(), e);
+            }
+        } else {
+            synchronized (recent) {
+                if (recent.size() >= memoryCapacity) {
+                    recent.removeFirst();
+                }
+                recent.addLast(trace);
+            }
+        }
+    }
+
+    /**
+     * @return the traces kept in memory, newest first
+     */
+    public List<Map<String, Object>> getRecent() {
+        List<Map<String, Object>> traces;
+        synchronized (recent) {
+            traces = new ArrayList<>(recent);
+        }
+        Collections.reverse(traces);
+        return traces;
+    }
+
+    public boolean isExportingToMemory() {
+        return exporter.equals("memory");
+    }
+
+    private static Map<String, Object> toMap(final Span span, final long traceStartNanos) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("kind", span.getKind());
+        map.put("name", span.getName());
+        map.put("startMs", millis(span.getStartNanos() - traceStartNanos));
+        map.put("durationMs", millis(span.getDurationNanos()));
+        map.put("sqlStatements", span.getSqlStatements());
+        if (span.getError() != null) {
+            map.put("error", span.getError());
+        }
+        List<Span> children = span.getChildren();
+        if (!children.isEmpty()) {
+            List<Map<String, Object>> childMaps = new ArrayList<>(children.size());
+            for (Span child : children) {
+                childMaps.add(toMap(child, traceStartNanos));
+            }
+            map.put("children", childMaps);
+        }
+        return map;
+    }
+
+    /**
+     * @return one line per span, indented by depth, with its start offset, duration and SQL statements
+     */
+    private static String render(final Span root) {
+        StringBuilder tree = new StringBuilder();
+        render(root, root.getStartNanos(), 0, tree);
+        if (root.getDroppedSpans() > 0) {
+            tree.append(root.getDroppedSpans()).append(" more spans not recorded\n");
+        }
+        return tree.toString();
+    }
+
+    private static void render(final Span span, final long traceStartNanos, final int depth, final StringBuilder tree) {
+        for (int i = 0; i < depth; i++) {
+            tree.append("  ");
+        }
+        tree.append(String.format(Locale.ROOT, "+%.1f ms %s %s %.1f ms", millis(span.getStartNanos() - traceStartNanos),
+                span.getKind(), span.getName(), millis(span.getDurationNanos())));
+        int sqlStatements = span.getTotalSqlStatements();
+        if (sqlStatements > 0) {
+            tree.append(", ").append(sqlStatements).append(" SQL");
+        }
+        if (span.getError() != null) {
+            tree.append(", ").append(span.getError());
+        }
+        if (!span.isEnded()) {
+            tree.append(", still running");
+        }
+        tree.append('\n');
+        for (Span child : span.getChildren()) {
+            render(child, traceStartNanos, depth + 1, tree);
+        }
+    }
+
+    private static double millis(final long nanos) {
+        return Math.round(nanos / 1e4) / 100.0;
+    }
+
+    private void writeFile() {
+        try (Writer out = Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            while (true) {
+                String trace = fileQueue.poll(1, TimeUnit.SECONDS);
+                if (trace == null) {
+                    out.flush();
+                    long dropped = droppedTraces.getAndSet(0);
+                    if (dropped > 0) {
+                        LOG.warn("{} traces dropped, the trace file could not keep up", dropped);
+                    }
+                    continue;
+                }
+                out.write(trace);
+                out.write('\n');
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOG.error("Writing traces to {} failed, no more traces are exported", file, e);
+        }
+    }
+}
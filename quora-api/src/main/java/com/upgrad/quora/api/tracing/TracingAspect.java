@@ -0,0 +1,52 @@
+package com.upgrad.quora.api.tracing;
+
+import com.upgrad.quora.service.common.Span;
+import com.upgrad.quora.service.common.Tracing;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds a span for every call of a controller, business service and DAO method to the trace of the request.
+ * Calls made without a trace, by the scheduled jobs or the group committer for example, run unchanged.
+ * The beans are only proxied while quora.tracing.enabled is on.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "quora.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingAspect {
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object traceController(final ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("controller", joinPoint);
+    }
+
+    @Around("within(com.upgrad.quora.service.business..*) && @within(org.springframework.stereotype.Service)")
+    public Object traceService(final ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("service", joinPoint);
+    }
+
+    @Around("within(com.upgrad.quora.service.dao..*) && @within(org.springframework.stereotype.Repository)")
+    public Object traceDao(final ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("dao", joinPoint);
+    }
+
+    private static Object trace(final String kind, final ProceedingJoinPoint joinPoint) throws Throwable {
+        if (Tracing.current() == null) {
+            return joinPoint.proceed();
+        }
+        Signature signature = joinPoint.getSignature();
+        Span span = Tracing.start(kind, signature.getDeclaringType().getSimpleName() + "." + signature.getName());
+        try {
+            Object result = joinPoint.proceed();
+            Tracing.finish(span, null);
+            return result;
+        } catch (Throwable e) {
+            Tracing.finish(span, e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.upgrad.quora.api.tracing;
+
+import com.upgrad.quora.api.metrics.RequestMetrics;
+import com.upgrad.quora.service.common.Span;
+import com.upgrad.quora.service.common.Tracing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Starts the trace of every request, see Tracing, right inside RequestMetricsFilter so that the limits are part of it,
+ * and hands the finished span tree to the TraceCollector. The trace id is returned in the X-Trace-Id header,
+ * to find the trace of a response in the slow request log or the exported traces.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TracingFilter extends OncePerRequestFilter {
+
+    static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    @Autowired
+    private TraceCollector traceCollector;
+
+    @Value("${quora.tracing.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain)
+            throws ServletException, IOException {
+
+        final Span root = Tracing.startTrace(request.getMethod() + " " + request.getRequestURI());
+        response.setHeader(TRACE_ID_HEADER, root.getTraceId());
+        Throwable failure = null;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | IOException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (failure == null && request.isAsyncStarted()) {
+                //The span tree is complete once the async processing is, this thread goes back to the pool without it
+                Tracing.clear();
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(final AsyncEvent event) {
+                        Tracing.finish(root, null);
+                        complete(request, root, response.getStatus());
+                    }
+
+                    @Override
+                    public void onTimeout(final AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(final AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(final AsyncEvent event) {
+                    }
+                });
+            } else {
+                Tracing.finish(root, failure);
+                complete(request, root, failure != null ? HttpStatus.INTERNAL_SERVER_ERROR.value() : response.getStatus());
+            }
+        }
+    }
+
+    private void complete(final HttpServletRequest request, final Span root, final int status) {
+        traceCollector.complete(root, (String) request.getAttribute(RequestMetrics.ENDPOINT_ATTRIBUTE), status);
+    }
+}
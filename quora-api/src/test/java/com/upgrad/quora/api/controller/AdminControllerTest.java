@@ -1,16 +1,24 @@
 package com.upgrad.quora.api.controller;
 
 
+import com.jayway.jsonpath.JsonPath;
+import com.upgrad.quora.service.business.QuestionBusinessService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -22,6 +30,9 @@ public class AdminControllerTest {
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private QuestionBusinessService questionBusinessService;
+
 
     //This test case passes when you try to delete the user but the JWT token entered does not exist in the database.
     @Test
@@ -48,5 +59,85 @@ public class AdminControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
     }
 
+    //This test case passes when the questions of a deleted user are no longer found as similar questions.
+    @Test
+    public void deletedUserQuestionsLeaveSimilarityIndex() throws Exception {
+        final String content = "how_do_deleted_questions_leave_the_similarity_index";
+        String userUuid = JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=similarity_owner"
+                + "&emailAddress=similarity_owner@test&password=password&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString(), "$.id");
+        String accessToken = mvc.perform(MockMvcRequestBuilders.post("/user/signin")
+                .header("authorization", "Basic " + Base64.getEncoder().encodeToString("similarity_owner@test:password".getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().isOk()).andReturn().getResponse().getHeader("access-token");
+        String questionUuid = JsonPath.read(mvc.perform(MockMvcRequestBuilders.post("/question/create?content=" + content)
+                .contentType(MediaType.APPLICATION_JSON_UTF8).header("authorization", accessToken))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString(), "$.id");
+        assertTrue(questionBusinessService.getSimilarQuestionUuids(content).contains(questionUuid));
+
+        mvc.perform(MockMvcRequestBuilders.delete("/admin/user/" + userUuid).header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk());
+
+        assertFalse(questionBusinessService.getSimilarQuestionUuids(content).contains(questionUuid));
+    }
+
+    //This test case passes when you try to export the questions but the role of the user corresponding to the JWT token entered is nonadmin.
+    @Test
+    public void exportWithnonadminAsRole() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/admin/export/questions").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
+    }
+
+    //This test case passes when an admin exports the users as newline-delimited JSON.
+    @Test
+    public void exportUsers() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/admin/export/users").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson"));
+    }
+
+    //This test case passes when an export resumed after the cursor of the last user returns no rows.
+    @Test
+    public void exportUsersAfterLastCursor() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/admin/export/users?after=" + Integer.MAX_VALUE).header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson"))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    //This test case passes when you try to read the read coalescing counters and the role of the user is 'nonadmin'.
+    @Test
+    public void singleFlightStatsWithnonadminAsRole() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/admin/stats/single-flight").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
+    }
+
+    //This test case passes when an admin reads the read coalescing counters.
+    @Test
+    public void singleFlightStats() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/admin/stats/single-flight").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$").isArray());
+    }
+
+    //This test case passes when you try to read the concurrency limits and the role of the user is 'nonadmin'.
+    @Test
+    public void concurrencyLimitStatsWithnonadminAsRole() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/admin/stats/concurrency-limits").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
+    }
+
+    //This test case passes when an admin reads the current limits of the signin, write and read requests.
+    @Test
+    public void concurrencyLimitStats() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/admin/stats/concurrency-limits").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("signin"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].name").value("writes"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].name").value("reads"));
+    }
+
 
 }
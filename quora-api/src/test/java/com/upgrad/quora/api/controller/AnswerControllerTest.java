@@ -136,5 +136,76 @@ public class AnswerControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
     }
 
+    //This test case passes when you stream all the answers posted for a specific question which does not exist in the database.
+    @Test
+    public void streamAllAnswersToNonExistingQuestion() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/non_existing_question_uuid?stream=true").header("authorization", "database_accesstoken"))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
+    }
+
+    //This test case passes when you stream all the answers posted for an existing question and the user corresponding to the JWT token entered is signed in.
+    @Test
+    public void streamAllAnswersToQuestion() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid?stream=true").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$").isArray());
+    }
+
+    //This test case passes when the answers of a question are fetched with a sparse fieldset and the embedded author.
+    @Test
+    public void getAllAnswersWithFieldsAndInclude() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid?fields=id&include=author").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").exists())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].author.user_name").exists())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].answerContent").doesNotExist());
+    }
+
+    //This test case passes when the ETag of one projection of the answers gets 304 for that projection and the full body of another projection.
+    @Test
+    public void getAllAnswersWithFieldsNotModifiedPerProjection() throws Exception {
+        String etag = mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid?fields=id").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid?fields=id").header("authorization", "database_accesstoken1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid?fields=id&include=author").header("authorization", "database_accesstoken1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].author.user_name").exists());
+    }
+
+    //This test case passes when you try to get the answers with a field that does not exist.
+    @Test
+    public void getAllAnswersWithUnknownField() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid?fields=id,password").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("FLD-001"));
+    }
+
+
+    //This test case passes when you try to stream the new answers of a question but the JWT token entered does not exist in the database.
+    @Test
+    public void streamNewAnswersWithNonExistingAccessToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid/answers/stream").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when you try to stream the new answers of a question which does not exist.
+    @Test
+    public void streamNewAnswersForNonExistingQuestion() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/non_existing_question_uuid/answers/stream").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
+    }
+
+    //This test case passes when the stream of new answers is opened for an existing question.
+    @Test
+    public void streamNewAnswers() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid/answers/stream").header("authorization", "database_accesstoken1"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted());
+    }
+
 
 }
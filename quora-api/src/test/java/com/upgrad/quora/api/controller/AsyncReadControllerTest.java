@@ -0,0 +1,61 @@
+package com.upgrad.quora.api.controller;
+
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("async")
+
+public class AsyncReadControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+
+    //This test case passes when all questions are fetched through the async endpoint.
+    @Test
+    public void getAllQuestions() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/async/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+
+    //This test case passes when you try to get all the answers through the async endpoint but the JWT token entered does not exist in the database.
+    @Test
+    public void getAllAnswersWithNonExistingAccessToken() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/async/answer/all/database_question_uuid").header("authorization", "non_existing_access_token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when you try to get a user profile through the async endpoint but the user uuid does not exist in the database.
+    @Test
+    public void getUserWithNonExistingUuid() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/async/userprofile/non_existing_user_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.upgrad.quora.api.controller;
+
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+
+public class BatchControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+
+    //This test case passes when you try to create a batch of questions but the JWT token entered does not exist in the database.
+    @Test
+    public void createQuestionsWithNonExistingAccessToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/batch/questions").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token")
+                .content("{\"questions\":[{\"content\":\"my_question\"}]}"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when you try to create a batch of answers but the user corresponding to the JWT token entered is signed out of the application.
+    @Test
+    public void createAnswersWithSignedOutUser() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/batch/answers").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3")
+                .content("{\"answers\":[{\"question_id\":\"database_question_uuid\",\"answer\":\"my_answer\"}]}"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
+    }
+
+    //This test case passes when a batch of answers is created and only the answer to a non existing question is rejected.
+    @Test
+    public void createAnswersWithPartialFailure() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/batch/answers").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1")
+                .content("{\"answers\":[{\"question_id\":\"database_question_uuid\",\"answer\":\"my_answer\"},{\"question_id\":\"non_existing_question_uuid\",\"answer\":\"my_answer\"}]}"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(MockMvcResultMatchers.jsonPath("created").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[0].status").value("ANSWER CREATED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[1].code").value("QUES-001"));
+    }
+
+    //This test case passes when a batch of questions with an empty content only rejects the empty question.
+    @Test
+    public void createQuestionsWithEmptyContent() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/batch/questions").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1")
+                .content("{\"questions\":[{\"content\":\"my_question\"},{\"content\":\"\"}]}"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(MockMvcResultMatchers.jsonPath("failed").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[1].code").value("BATCH-002"));
+    }
+}
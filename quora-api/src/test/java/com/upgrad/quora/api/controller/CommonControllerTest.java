@@ -43,4 +43,54 @@ public class CommonControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
     }
+
+    //This test case passes when you fetch the details of a user again with the ETag of the previous response and the profile has not changed in between.
+    @Test
+    public void detailsNotModified() throws Exception {
+        String etag = mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "database_accesstoken").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    //This test case passes when you try to get several user profiles at once but the JWT token entered does not exist in the database.
+    @Test
+    public void usersByIdsWithNonExistingAccessToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile?ids=database_uuid1,database_uuid").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when several user profiles are fetched at once in the requested order.
+    @Test
+    public void usersByIds() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile?ids=database_uuid1,non_existing_user_uuid").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value("database_uuid1"));
+    }
+
+    //This test case passes when only the requested profile properties are returned.
+    @Test
+    public void detailsWithFields() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1?fields=first_name,country").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("first_name").exists())
+                .andExpect(MockMvcResultMatchers.jsonPath("email_address").doesNotExist());
+    }
+
+    //This test case passes when the ETag of one fieldset gets 304 for that fieldset and the full body of another fieldset.
+    @Test
+    public void detailsWithFieldsNotModifiedPerFieldset() throws Exception {
+        String etag = mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1?fields=first_name,country").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1?fields=first_name,country").header("authorization", "database_accesstoken").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1?fields=country,first_name").header("authorization", "database_accesstoken").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("country").exists());
+    }
+
+
 }
@@ -0,0 +1,132 @@
+package com.upgrad.quora.api.controller;
+
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+
+public class GraphQLControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+
+    //This test case passes when you try to run a query but the JWT token entered does not exist in the database.
+    @Test
+    public void queryWithNonExistingAccessToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/graphql").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token")
+                .content("{\"query\":\"{ question(id: \\\"database_question_uuid\\\") { id } }\"}"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when you try to run a query but the user corresponding to the JWT token entered is signed out of the application.
+    @Test
+    public void queryWithSignedOutUser() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/graphql").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3")
+                .content("{\"query\":\"{ question(id: \\\"database_question_uuid\\\") { id } }\"}"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
+    }
+
+    //This test case passes when a question is queried together with its author.
+    @Test
+    public void queryQuestionWithAuthor() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/graphql").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1")
+                .content("{\"query\":\"query Q($id: String!) { question(id: $id) { id content author { id } } }\",\"variables\":{\"id\":\"database_question_uuid\"}}"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("data.question.id").value("database_question_uuid"))
+                .andExpect(MockMvcResultMatchers.jsonPath("data.question.author.id").exists());
+    }
+
+    //This test case passes when the answers of a question are cut to the first argument, selected through a fragment.
+    @Test
+    public void queryAnswersWithFirstAndFragment() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/graphql").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1")
+                .content("{\"query\":\"{ question(id: \\\"database_question_uuid\\\") { answers(first: 1) { ...answerFields } } } fragment answerFields on Answer { id content author { id } }\"}"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("data.question.answers.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("data.question.answers[0].author.id").exists());
+    }
+
+    //This test case passes when the schema can be read by an introspection query.
+    @Test
+    public void queryIntrospection() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/graphql").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1")
+                .content("{\"query\":\"{ __type(name: \\\"Answer\\\") { name fields { name } } }\"}"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("data.__type.name").value("Answer"))
+                .andExpect(MockMvcResultMatchers.jsonPath("data.__type.fields[0].name").value("id"));
+    }
+
+    //This test case passes when you try to list more answers than the maximum first argument.
+    @Test
+    public void queryAnswersAboveMaximumFirst() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/graphql").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1")
+                .content("{\"query\":\"{ answers(questionId: \\\"database_question_uuid\\\", first: 500) { id } }\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0].message").value("Argument 'first' of 'answers' must be between 1 and 100"));
+    }
+
+    //This test case passes when you try to run a query whose lists could return more rows than the complexity limit allows.
+    @Test
+    public void queryExceedingMaximumComplexity() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/graphql").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1")
+                .content("{\"query\":\"{ question(id: \\\"database_question_uuid\\\") { answers(first: 100) { author { questions(first: 100) { id } } } } }\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0].message").value("maximum query complexity exceeded 10202 > 1000"));
+    }
+
+    //This test case passes when a query outlasting its deadline gets 504 with GEN-004 instead of partial data, the response is only written once the query is complete.
+    @Test
+    public void queryOverDeadline() throws Exception {
+        try (Connection lock = dataSource.getConnection()) {
+            lock.setAutoCommit(false);
+            try (Statement statement = lock.createStatement()) {
+                statement.execute("LOCK TABLE QUESTION IN ACCESS EXCLUSIVE MODE");
+            }
+            mvc.perform(MockMvcRequestBuilders.post("/graphql").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1").header("X-Request-Timeout-Ms", "1500")
+                    .content("{\"query\":\"{ question(id: \\\"database_question_uuid\\\") { id } }\"}"))
+                    .andExpect(status().isGatewayTimeout())
+                    .andExpect(MockMvcResultMatchers.jsonPath("code").value("GEN-004"));
+        }
+    }
+
+    //This test case passes when you try to query a field which is not part of the schema.
+    @Test
+    public void queryUnknownField() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/graphql").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1")
+                .content("{\"query\":\"{ question(id: \\\"database_question_uuid\\\") { password } }\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0].message").value("Validation error of type FieldUndefined: Field 'password' in type 'Question' is undefined @ 'question/password'"));
+    }
+
+    //This test case passes when you try to run a query nested deeper than the configured maximum depth.
+    @Test
+    public void queryExceedingMaximumDepth() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/graphql").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1")
+                .content("{\"query\":\"{ question(id: \\\"database_question_uuid\\\") { answers { question { answers { question { answers { id } } } } } } }\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0].message").value("maximum query depth exceeded 7 > 6"));
+    }
+}
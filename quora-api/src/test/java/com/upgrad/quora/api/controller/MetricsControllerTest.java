@@ -0,0 +1,46 @@
+package com.upgrad.quora.api.controller;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MetricsControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    //This test case passes when the latency and responses of an endpoint show up in the Prometheus metrics after it was called.
+    @Test
+    public void scrapeAfterRequest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("quora_http_server_requests_seconds{endpoint=\"QuestionController.getAllQuestions\",quantile=\"0.99\"}")))
+                .andExpect(content().string(containsString("quora_http_server_responses_total{endpoint=\"QuestionController.getAllQuestions\",status=\"200\"}")));
+    }
+
+    //This test case passes when a rejected request is counted by its error code and exception type.
+    @Test
+    public void scrapeAfterRejectedRequest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden());
+        mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("quora_error_responses_total{code=\"ATHR-001\"}")))
+                .andExpect(content().string(containsString("quora_exceptions_total{exception=\"AuthorizationFailedException\"}")))
+                .andExpect(content().string(containsString("quora_datasource_connections_max")));
+    }
+}
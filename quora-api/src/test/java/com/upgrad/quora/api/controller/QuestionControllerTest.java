@@ -7,11 +7,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -23,6 +32,12 @@ public class QuestionControllerTest {
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
 
     //This test case passes when you try to create the question but the JWT token entered does not exist in the database.
     @Test
@@ -164,5 +179,231 @@ public class QuestionControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
     }
 
+    //This test case passes when you send the ETag of the list of all questions for a user which does not exist in the database.
+    @Test
+    public void getAllQuestionsForNonExistingUserWithETag() throws Exception {
+        String etag = mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(MockMvcRequestBuilders.get("/question/all/non_existing_user_uuid").header("authorization", "database_accesstoken1").header("If-None-Match", etag))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
+    }
+
+    //This test case passes when the ETag of the questions of a user gets 304 for that user and is not taken for the list of all questions.
+    @Test
+    public void getAllQuestionsByUserWithETag() throws Exception {
+        String etag = mvc.perform(MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    //This test case passes when you look up questions similar to an existing question and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in.
+    @Test
+    public void getSimilarQuestions() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/similar?content=database_question_content").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk());
+    }
 
+    //This test case passes when you look up similar questions but the JWT token entered does not exist in the database.
+    @Test
+    public void getSimilarQuestionsWithNonExistingAccessToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/similar?content=database_question_content").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when you fetch all the questions again with the ETag of the previous response and nothing has changed in between.
+    @Test
+    public void getAllQuestionsNotModified() throws Exception {
+        String etag = mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    //This test case passes when a question change made by another instance, which only shows up in the RESOURCE_VERSION table, makes the previous ETag stale.
+    @Test
+    public void getAllQuestionsChangedOnAnotherInstance() throws Exception {
+        String etag = mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        jdbcTemplate.update("INSERT INTO RESOURCE_VERSION (resource, version) VALUES ('questions:0', nextval('RESOURCE_VERSION_SEQ'))"
+                + " ON CONFLICT (resource) DO UPDATE SET version = EXCLUDED.version");
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    //This test case passes when you send a stale ETag and get the full list of questions back.
+    @Test
+    public void getAllQuestionsWithStaleETag() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1").header("If-None-Match", "\"stale_etag\""))
+                .andExpect(status().isOk());
+    }
+
+    //This test case passes when you stream all the questions and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in.
+    @Test
+    public void streamAllQuestions() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/all?stream=true").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$").isArray());
+    }
+
+    //This test case passes when you stream all the questions again with the ETag of the previous response and get 304 with an empty body.
+    @Test
+    public void streamAllQuestionsNotModified() throws Exception {
+        String etag = mvc.perform(MockMvcRequestBuilders.get("/question/all?stream=true").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(MockMvcRequestBuilders.get("/question/all?stream=true").header("authorization", "database_accesstoken1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    //This test case passes when requests whose queries outlast their deadline get 504 with GEN-004 and give their connection back to the pool.
+    @Test
+    public void getAllQuestionsOverDeadline() throws Exception {
+        try (Connection lock = lockTable("RESOURCE_VERSION")) {
+            //More requests than pooled connections, a connection kept by a cancelled request would fail the last ones
+            for (int i = 0; i < 12; i++) {
+                mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1").header("X-Request-Timeout-Ms", "1500"))
+                        .andExpect(status().isGatewayTimeout())
+                        .andExpect(MockMvcResultMatchers.jsonPath("code").value("GEN-004"));
+            }
+        }
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk());
+    }
+
+    //This test case passes when a request with less than a second left also gets 504 with GEN-004, Hibernate refuses its statements before they are sent.
+    @Test
+    public void getAllQuestionsWithSubSecondDeadline() throws Exception {
+        try (Connection lock = lockTable("RESOURCE_VERSION")) {
+            mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1").header("X-Request-Timeout-Ms", "500"))
+                    .andExpect(status().isGatewayTimeout())
+                    .andExpect(MockMvcResultMatchers.jsonPath("code").value("GEN-004"));
+        }
+    }
+
+    //This test case passes when a streamed listing is not cut short by the deadline, its status is sent before the rows are read.
+    @Test
+    public void streamAllQuestionsHasNoDeadline() throws Exception {
+        final Connection lock = lockTable("RESOURCE_VERSION");
+        Thread release = new Thread(() -> {
+            try {
+                Thread.sleep(1500);
+                lock.close();
+            } catch (InterruptedException | SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        release.start();
+        try {
+            mvc.perform(MockMvcRequestBuilders.get("/question/all?stream=true").header("authorization", "database_accesstoken1").header("X-Request-Timeout-Ms", "500"))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$").isArray());
+        } finally {
+            release.join();
+        }
+    }
+
+    //This test case passes when you stream all the questions but the JWT token entered does not exist in the database.
+    @Test
+    public void streamAllQuestionsWithNonExistingAccessToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/all?stream=true").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when several questions are fetched at once, duplicate ids are returned once and unknown ids are left out.
+    @Test
+    public void getQuestionsByIds() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question?ids=database_question_uuid,non_existing_question_uuid,database_question_uuid").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value("database_question_uuid"));
+    }
+
+    //This test case passes when a repeated request for all questions is answered with the same serialized body.
+    @Test
+    public void getAllQuestionsFromResponseCache() throws Exception {
+        String body = mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.content().string(body));
+    }
+
+    //This test case passes when a retry of a create request with the same Idempotency-Key is answered with the stored response.
+    @Test
+    public void createQuestionRetryWithIdempotencyKey() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .header("authorization", "non_existing_access_token").header("Idempotency-Key", "create-question-retry"))
+                .andExpect(status().isForbidden())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .header("authorization", "non_existing_access_token").header("Idempotency-Key", "create-question-retry"))
+                .andExpect(status().isForbidden())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when a retry of a successful create request gets the created question back instead of creating another one.
+    @Test
+    public void createQuestionSuccessRetryWithIdempotencyKey() throws Exception {
+        String created = mvc.perform(MockMvcRequestBuilders.post("/question/create?content=idempotent_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .header("authorization", "database_accesstoken1").header("Idempotency-Key", "create-question-success-retry"))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+        mvc.perform(MockMvcRequestBuilders.post("/question/create?content=idempotent_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .header("authorization", "database_accesstoken1").header("Idempotency-Key", "create-question-success-retry"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(MockMvcResultMatchers.content().json(created, true));
+        assertEquals(Integer.valueOf(1), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM QUESTION WHERE content = 'idempotent_question'", Integer.class));
+    }
+
+    //This test case passes when you reuse an Idempotency-Key for a create request with different content.
+    @Test
+    public void createQuestionWithReusedIdempotencyKey() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .header("authorization", "non_existing_access_token").header("Idempotency-Key", "create-question-reused"))
+                .andExpect(status().isForbidden());
+        mvc.perform(MockMvcRequestBuilders.post("/question/create?content=another_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .header("authorization", "non_existing_access_token").header("Idempotency-Key", "create-question-reused"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("IDEM-001"));
+    }
+
+    //This test case passes when an error response written from the serialized error bodies is JSON with the error code and message.
+    @Test
+    public void getAllQuestionsWithNonExistingAccessTokenReturnsJsonError() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "non_existing_access_token"))
+                    .andExpect(status().isForbidden())
+                    .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("message").value("User has not signed in"));
+        }
+    }
+
+    //Holds an exclusive lock on the table until the returned connection is closed, which rolls the lock back
+    private Connection lockTable(final String table) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LOCK TABLE " + table + " IN ACCESS EXCLUSIVE MODE");
+        }
+        return connection;
+    }
 }
@@ -0,0 +1,81 @@
+package com.upgrad.quora.api.controller;
+
+
+import com.upgrad.quora.api.protobuf.ProtoReader;
+import com.upgrad.quora.api.protobuf.ProtoWriter;
+import com.upgrad.quora.api.protobuf.QuoraProtos;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+
+public class RpcControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+
+    //This test case passes when you try to create a question but the JWT token entered does not exist in the database.
+    @Test
+    public void createQuestionWithNonExistingAccessToken() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/rpc/quora.QuoraService/CreateQuestion").contentType(QuoraProtos.MEDIA_TYPE).header("authorization", "non_existing_access_token")
+                .content(new ProtoWriter().string(1, "my_question").toByteArray()))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when you try to get questions but the user corresponding to the JWT token entered is signed out of the application.
+    @Test
+    public void getQuestionsWithSignedOutUser() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/rpc/quora.QuoraService/GetQuestions").contentType(QuoraProtos.MEDIA_TYPE).header("authorization", "database_accesstoken3")
+                .content(new ProtoWriter().string(1, "database_question_uuid").toByteArray()))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
+    }
+
+    //This test case passes when the questions are returned as an encoded QuestionList.
+    @Test
+    public void getQuestions() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/rpc/quora.QuoraService/GetQuestions").contentType(QuoraProtos.MEDIA_TYPE).header("authorization", "database_accesstoken1")
+                .content(new ProtoWriter().string(1, "database_question_uuid").string(1, "non_existing_question_uuid").toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(QuoraProtos.MEDIA_TYPE))
+                .andReturn();
+        ProtoReader questionList = ProtoReader.parse(result.getResponse().getContentAsByteArray());
+        assertEquals(1, questionList.getMessages(1).size());
+        assertEquals("database_question_uuid", questionList.getMessages(1).get(0).getString(1));
+    }
+
+    //This test case passes when you try to list the answers of a question which does not exist.
+    @Test
+    public void listAnswersForNonExistingQuestion() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/rpc/quora.QuoraService/ListAnswers").contentType(QuoraProtos.MEDIA_TYPE).header("authorization", "database_accesstoken1")
+                .content(new ProtoWriter().string(1, "non_existing_question_uuid").toByteArray()))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
+    }
+
+    //This test case passes when a request body which is not a protocol buffers message is rejected.
+    @Test
+    public void getUsersWithMalformedRequest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/rpc/quora.QuoraService/GetUsers").contentType(QuoraProtos.MEDIA_TYPE).header("authorization", "database_accesstoken1")
+                .content(Arrays.copyOf(new ProtoWriter().string(1, "database_uuid1").toByteArray(), 5)))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("PROTO-001"));
+    }
+}
@@ -0,0 +1,39 @@
+package com.upgrad.quora.api.controller;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "quora.tracing.sample-rate=1")
+@AutoConfigureMockMvc
+public class TraceControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    //This test case passes when a request gets a trace id and its trace holds the controller, service and DAO spans.
+    @Test
+    public void traceOfRequest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Trace-Id"));
+        mvc.perform(MockMvcRequestBuilders.get("/actuator/traces"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].endpoint").value("CommonController.getUser"))
+                .andExpect(jsonPath("$[0].root.children[0].name").value("CommonController.getUser"))
+                .andExpect(jsonPath("$[0].root.children[0].children[0].name").value("CommonService.getUser"))
+                .andExpect(content().string(containsString("\"kind\":\"dao\"")));
+    }
+}
@@ -0,0 +1,63 @@
+package com.upgrad.quora.api.limit;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Random random = new Random(42);
+
+    //This test case passes when a class mixing cache hits with database-bound requests at a steady latency keeps growing its limit.
+    @Test
+    public void mixedLatenciesDoNotCollapseTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("reads", 40, 8, 400);
+        for (int i = 0; i < 5000; i++) {
+            //A third of the responses are 304s and cache hits, the others run queries of up to 80 ms
+            long rtt = random.nextInt(3) == 0 ? MILLI / 5 : (5 + random.nextInt(76)) * MILLI;
+            completeAtFullLoad(limit, rtt);
+        }
+        assertTrue("limit " + limit.getLimit(), limit.getLimit() >= 200);
+    }
+
+    //This test case passes when the limit shrinks once requests get much slower than they used to be.
+    @Test
+    public void risingLatencyShrinksTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("reads", 40, 8, 400);
+        for (int i = 0; i < 2000; i++) {
+            completeAtFullLoad(limit, (5 + random.nextInt(5)) * MILLI);
+        }
+        int steady = limit.getLimit();
+        for (int i = 0; i < 50; i++) {
+            completeAtFullLoad(limit, 100 * MILLI);
+        }
+        assertTrue("limit " + limit.getLimit() + " after " + steady, limit.getLimit() < steady / 2);
+    }
+
+    //This test case passes when a failure backs the limit off and a request released without a sample leaves it unchanged.
+    @Test
+    public void droppedRequestBacksOff() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("writes", 20, 4, 100);
+        assertTrue(limit.tryAcquire());
+        limit.release(-1, false);
+        assertEquals(20, limit.getLimit());
+        assertTrue(limit.tryAcquire());
+        limit.release(MILLI, true);
+        assertEquals(18, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    //Keeps the limit fully used, so that every completion is sampled
+    private static void completeAtFullLoad(final AdaptiveConcurrencyLimit limit, final long rttNanos) {
+        while (limit.tryAcquire()) {
+            //Fill up to the current limit
+        }
+        limit.release(rttNanos, false);
+    }
+}
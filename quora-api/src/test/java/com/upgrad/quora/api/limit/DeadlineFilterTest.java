@@ -0,0 +1,115 @@
+package com.upgrad.quora.api.limit;
+
+import com.upgrad.quora.service.common.RequestDeadline;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DeadlineFilterTest {
+
+    private final DeadlineFilter filter = new DeadlineFilter(5000, 5000, 10000,
+            new String[]{"/admin/export/**=0", "/question/all?stream=true=0", "/question/similar=2000"});
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "maxMs", 60000L);
+    }
+
+    @After
+    public void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    //This test case passes when a request without timeout headers gets the budget of its request class or path.
+    @Test
+    public void budgetOfRequestClassOrPath() throws Exception {
+        assertBudget(10000, request("GET", "/question/all"));
+        assertBudget(5000, request("POST", "/question/create"));
+        assertBudget(5000, request("POST", "/user/signin"));
+        assertBudget(2000, request("GET", "/question/similar"));
+    }
+
+    //This test case passes when X-Request-Timeout-Ms sets the budget, up to max-ms.
+    @Test
+    public void timeoutHeaderIsClampedToMaxMs() throws Exception {
+        ReflectionTestUtils.setField(filter, "maxMs", 30000L);
+        assertBudget(1500, request("GET", "/question/all", DeadlineFilter.TIMEOUT_HEADER, "1500"));
+        assertBudget(20000, request("GET", "/question/all", DeadlineFilter.TIMEOUT_HEADER, " 20000 "));
+        assertBudget(30000, request("GET", "/question/all", DeadlineFilter.TIMEOUT_HEADER, "3600000"));
+    }
+
+    //This test case passes when every unit of grpc-timeout is converted to milliseconds, rounding sub-millisecond budgets up.
+    @Test
+    public void grpcTimeoutUnits() throws Exception {
+        ReflectionTestUtils.setField(filter, "maxMs", TimeUnit.HOURS.toMillis(2));
+        assertBudget(TimeUnit.HOURS.toMillis(1), request("POST", "/rpc/quora.QuoraService/GetQuestion", DeadlineFilter.GRPC_TIMEOUT_HEADER, "1H"));
+        assertBudget(TimeUnit.MINUTES.toMillis(2), request("POST", "/rpc/quora.QuoraService/GetQuestion", DeadlineFilter.GRPC_TIMEOUT_HEADER, "2M"));
+        assertBudget(3000, request("POST", "/rpc/quora.QuoraService/GetQuestion", DeadlineFilter.GRPC_TIMEOUT_HEADER, "3S"));
+        assertBudget(1500, request("POST", "/rpc/quora.QuoraService/GetQuestion", DeadlineFilter.GRPC_TIMEOUT_HEADER, "1500m"));
+        assertBudget(2500, request("POST", "/rpc/quora.QuoraService/GetQuestion", DeadlineFilter.GRPC_TIMEOUT_HEADER, "2500000u"));
+        assertBudget(1, request("POST", "/rpc/quora.QuoraService/GetQuestion", DeadlineFilter.GRPC_TIMEOUT_HEADER, "500n"));
+        //X-Request-Timeout-Ms is read first
+        MockHttpServletRequest both = request("POST", "/rpc/quora.QuoraService/GetQuestion", DeadlineFilter.GRPC_TIMEOUT_HEADER, "3S");
+        both.addHeader(DeadlineFilter.TIMEOUT_HEADER, "700");
+        assertBudget(700, both);
+    }
+
+    //This test case passes when a timeout header that cannot be read leaves the default budget.
+    @Test
+    public void unreadableTimeoutHeaderIsIgnored() throws Exception {
+        assertBudget(10000, request("GET", "/question/all", DeadlineFilter.TIMEOUT_HEADER, "soon"));
+        assertBudget(10000, request("GET", "/question/all", DeadlineFilter.TIMEOUT_HEADER, "0"));
+        assertBudget(5000, request("POST", "/rpc/quora.QuoraService/GetQuestion", DeadlineFilter.GRPC_TIMEOUT_HEADER, "10x"));
+        assertBudget(5000, request("POST", "/rpc/quora.QuoraService/GetQuestion", DeadlineFilter.GRPC_TIMEOUT_HEADER, "S"));
+    }
+
+    //This test case passes when the paths with a budget of 0, such as streamed listings, get no deadline whatever the client asks for.
+    @Test
+    public void unboundedPathsIgnoreTimeoutHeaders() throws Exception {
+        MockHttpServletRequest stream = request("GET", "/question/all", DeadlineFilter.TIMEOUT_HEADER, "1500");
+        stream.setParameter("stream", "true");
+        assertUnbounded(stream);
+        assertUnbounded(request("GET", "/admin/export/users", DeadlineFilter.TIMEOUT_HEADER, "1500"));
+        MockHttpServletRequest notStreamed = request("GET", "/question/all");
+        notStreamed.setParameter("stream", "false");
+        assertBudget(10000, notStreamed);
+    }
+
+    private void assertBudget(final long expectedMs, final MockHttpServletRequest request) throws Exception {
+        final long[] budgetNanos = new long[1];
+        final long start = System.nanoTime();
+        filter.doFilter(request, new MockHttpServletResponse(), (servletRequest, servletResponse) -> budgetNanos[0] = RequestDeadline.get() - start);
+        //The deadline is set between start and the call of the chain
+        long expectedNanos = TimeUnit.MILLISECONDS.toNanos(expectedMs);
+        assertTrue("budget " + budgetNanos[0] + " ns", budgetNanos[0] >= expectedNanos && budgetNanos[0] < expectedNanos + TimeUnit.SECONDS.toNanos(1));
+        assertNull(request.getAttribute(DeadlineFilter.UNBOUNDED_ATTRIBUTE));
+        assertNull(RequestDeadline.get());
+    }
+
+    private void assertUnbounded(final MockHttpServletRequest request) throws Exception {
+        final Long[] deadline = new Long[]{0L};
+        filter.doFilter(request, new MockHttpServletResponse(), (servletRequest, servletResponse) -> deadline[0] = RequestDeadline.get());
+        assertNull(deadline[0]);
+        assertEquals(Boolean.TRUE, request.getAttribute(DeadlineFilter.UNBOUNDED_ATTRIBUTE));
+    }
+
+    private static MockHttpServletRequest request(final String method, final String path) {
+        return new MockHttpServletRequest(method, path);
+    }
+
+    private static MockHttpServletRequest request(final String method, final String path, final String header, final String value) {
+        MockHttpServletRequest request = request(method, path);
+        request.addHeader(header, value);
+        return request;
+    }
+}
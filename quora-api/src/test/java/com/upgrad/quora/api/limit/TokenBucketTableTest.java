@@ -0,0 +1,70 @@
+package com.upgrad.quora.api.limit;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTableTest {
+
+    private static final long START = TimeUnit.SECONDS.toNanos(1000);
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    //This test case passes when a bucket gives out its burst, then one token per 1/rate seconds.
+    @Test
+    public void bucketRefillsAtItsRate() {
+        TokenBucketTable table = new TokenBucketTable(10, 2, 1000);
+        assertEquals(1, table.tryAcquire(1L, START));
+        assertEquals(0, table.tryAcquire(1L, START));
+        long rejected = table.tryAcquire(1L, START);
+        assertTrue(rejected < 0);
+        assertEquals(100 * MILLI, -1L - rejected, MILLI);
+        assertTrue(table.tryAcquire(1L, START + 50 * MILLI) < 0);
+        assertEquals(0, table.tryAcquire(1L, START + 100 * MILLI));
+        assertEquals(1, table.tryAcquire(1L, START + 10000 * MILLI));
+    }
+
+    //This test case passes when a client of a full stripe is admitted once an active bucket has refilled and is evicted.
+    @Test
+    public void refilledBucketIsEvictedForNewClient() {
+        //One client per stripe, the keys below all fall in the first stripe
+        TokenBucketTable table = new TokenBucketTable(10, 2, 64);
+        assertEquals(1, table.tryAcquire(1L, START));
+        assertTrue(table.tryAcquire(2L, START + 50 * MILLI) < 0);
+        assertEquals(1, table.tryAcquire(2L, START + 200 * MILLI));
+        //The first client starts over with a full bucket
+        assertEquals(1, table.tryAcquire(1L, START + 400 * MILLI));
+    }
+
+    //This test case passes when new clients are refused while a stripe at its maximum size holds only active buckets.
+    @Test
+    public void fullStripeRefusesNewClients() {
+        TokenBucketTable table = new TokenBucketTable(1, 5, 64 * 8);
+        for (long key = 1; key <= 8; key++) {
+            assertEquals(4, table.tryAcquire(key, START));
+        }
+        for (long key = 9; key <= 100; key++) {
+            long rejected = table.tryAcquire(key, START + MILLI);
+            assertTrue(rejected < 0);
+            //Until the first bucket has its token back
+            assertEquals(TimeUnit.SECONDS.toNanos(1) - MILLI, -1L - rejected, MILLI);
+        }
+        //Clients already tracked keep their buckets
+        assertEquals(3, table.tryAcquire(1L, START + MILLI));
+    }
+
+    //This test case passes when a stripe grows from its initial size to hold all active clients up to its share of maxClients.
+    @Test
+    public void stripeGrowsToMaxClients() {
+        TokenBucketTable table = new TokenBucketTable(1, 5, 64 * 100);
+        for (long key = 1; key <= 100; key++) {
+            assertEquals(4, table.tryAcquire(key, START));
+        }
+        for (long key = 1; key <= 100; key++) {
+            assertEquals(3, table.tryAcquire(key, START));
+        }
+    }
+}
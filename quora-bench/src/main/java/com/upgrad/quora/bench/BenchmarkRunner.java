@@ -0,0 +1,41 @@
+package com.upgrad.quora.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Runs the benchmarks selected by the usual JMH command line, for example
+ * <pre>
+ *   mvn -P bench package -DskipTests
+ *   java -jar quora-bench/target/benchmarks.jar                         # every benchmark
+ *   java -jar quora-bench/target/benchmarks.jar Dao -prof gc            # DAO queries with allocation rates
+ * </pre>
+ * Results are written as JSON to target/jmh-result.json unless -rf/-rff are given, so that the results of two
+ * builds can be compared by a script or a JMH visualizer.
+ */
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            builder.result(System.getProperty("quora.bench.result", DEFAULT_RESULT));
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,48 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.business.PasswordCryptographyProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password hashing done by signup (new salt) and signin (known salt). The key derivation is deliberately slow,
+ * so the average time per hash is what bounds the signin throughput of one core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptographyBenchmark {
+
+    private String password;
+
+    private String salt;
+
+    @Setup
+    public void setUp() {
+        password = "bench-password-123";
+        salt = PasswordCryptographyProvider.encrypt(password)[0];
+    }
+
+    @Benchmark
+    public String[] encryptWithNewSalt() {
+        return PasswordCryptographyProvider.encrypt(password);
+    }
+
+    @Benchmark
+    public String encryptWithSalt() {
+        return PasswordCryptographyProvider.encrypt(password, salt);
+    }
+}
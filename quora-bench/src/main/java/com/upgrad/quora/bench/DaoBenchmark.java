@@ -0,0 +1,173 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.ServiceConfiguration;
+import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.AnswerEntity;
+import com.upgrad.quora.service.entity.QuestionEntity;
+import com.upgrad.quora.service.entity.UserAuthTokenEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DAO queries of the read endpoints against an in-memory H2 database in PostgreSQL mode, with the schema created
+ * by Hibernate from the entities. Absolute numbers are not those of PostgreSQL, the benchmark is meant to track
+ * the cost added by the JPA layer: query translation, hydration of entities and the persistence context.
+ * Every invocation runs in its own read-only transaction, as the business services do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    @Param({"1000"})
+    public int questions;
+
+    @Param({"5"})
+    public int answersPerQuestion;
+
+    private ConfigurableApplicationContext context;
+
+    private TransactionTemplate readOnly;
+
+    private UserDao userDao;
+
+    private QuestionDao questionDao;
+
+    private AnswerDao answerDao;
+
+    private String accessToken;
+
+    private int questionId;
+
+    private List<String> questionUuids;
+
+    @Configuration
+    @EnableAutoConfiguration
+    @Import(ServiceConfiguration.class)
+    static class BenchConfiguration {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        //Command line arguments take precedence over the application.yaml of quora-api found on the classpath
+        context = new SpringApplicationBuilder(BenchConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.url=jdbc:h2:mem:quora-bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        userDao = context.getBean(UserDao.class);
+        questionDao = context.getBean(QuestionDao.class);
+        answerDao = context.getBean(AnswerDao.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        new TransactionTemplate(transactionManager).execute(status -> {
+            seed();
+            return null;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed() {
+        Random random = new Random(42L);
+        List<UserEntity> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            users.add(userDao.createUser(Fixtures.user(random, i)));
+        }
+        UserAuthTokenEntity userAuthTokenEntity = new UserAuthTokenEntity();
+        userAuthTokenEntity.setUser(users.get(0));
+        userAuthTokenEntity.setUuid(UUID.randomUUID().toString());
+        userAuthTokenEntity.setAccessToken("bench-" + UUID.randomUUID());
+        userAuthTokenEntity.setLoginAt(ZonedDateTime.now());
+        userAuthTokenEntity.setExpiresAt(ZonedDateTime.now().plusHours(8));
+        accessToken = userDao.createAuthToken(userAuthTokenEntity).getAccessToken();
+
+        questionUuids = new ArrayList<>();
+        for (int i = 0; i < questions; i++) {
+            QuestionEntity questionEntity = questionDao.createQuestionForUser(Fixtures.question(random, users.get(random.nextInt(users.size()))));
+            for (int j = 0; j < answersPerQuestion; j++) {
+                AnswerEntity answerEntity = Fixtures.answer(random, users.get(random.nextInt(users.size())), questionEntity);
+                answerDao.createAnswer(answerEntity);
+            }
+            if (i < 100) {
+                questionUuids.add(questionEntity.getUuid());
+            }
+            if (i == 0) {
+                questionId = questionEntity.getId();
+            }
+        }
+    }
+
+    @Benchmark
+    public List<QuestionEntity> getAllQuestions() {
+        return readOnly.execute(status -> questionDao.getAllQuestions());
+    }
+
+    @Benchmark
+    public List<Object[]> getAllQuestionSummaries() {
+        return readOnly.execute(status -> questionDao.getAllQuestionSummaries());
+    }
+
+    @Benchmark
+    public UserAuthTokenEntity getUserAuthToken() {
+        return readOnly.execute(status -> userDao.getUserAuthToken(accessToken));
+    }
+
+    @Benchmark
+    public List<AnswerEntity> getAllAnswersForQuestionById() {
+        return readOnly.execute(status -> answerDao.getAllAnswersForQuestionById(questionId));
+    }
+
+    @Benchmark
+    public List<Object[]> getAllAnswerSummariesForQuestionById() {
+        return readOnly.execute(status -> answerDao.getAllAnswerSummariesForQuestionById(questionId));
+    }
+
+    @Benchmark
+    public List<Object[]> getQuestionRowsByUuids() {
+        return readOnly.execute(status -> questionDao.getQuestionRowsByUuids(questionUuids));
+    }
+}
@@ -0,0 +1,87 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.entity.AnswerEntity;
+import com.upgrad.quora.service.entity.QuestionEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Entities shaped like the ones loaded by the DAOs, built from a fixed seed so that every run measures the same data
+ */
+final class Fixtures {
+
+    private static final String WORDS = "how what why does can the a an of to in for java spring database index query cache thread lock pool latency";
+
+    private Fixtures() {
+    }
+
+    static UserEntity user(final Random random, final int index) {
+        UserEntity userEntity = new UserEntity();
+        userEntity.setUuid(uuid(random));
+        userEntity.setFirstName("First" + index);
+        userEntity.setLastName("Last" + index);
+        userEntity.setUsername("user" + index);
+        userEntity.setEmail("user" + index + "@example.com");
+        userEntity.setPassword("password");
+        userEntity.setSalt("salt");
+        userEntity.setCountry("India");
+        userEntity.setAboutMe(text(random, 12));
+        userEntity.setDob("01-01-1990");
+        userEntity.setRole("nonadmin");
+        userEntity.setContactNumber("98" + (10000000 + index));
+        return userEntity;
+    }
+
+    static QuestionEntity question(final Random random, final UserEntity user) {
+        QuestionEntity questionEntity = new QuestionEntity();
+        questionEntity.setUuid(uuid(random));
+        questionEntity.setContent(text(random, 8 + random.nextInt(24)));
+        questionEntity.setDate(LocalDateTime.of(2018, 1, 1, 0, 0).plusMinutes(random.nextInt(500000)));
+        questionEntity.setUser(user);
+        return questionEntity;
+    }
+
+    static AnswerEntity answer(final Random random, final UserEntity user, final QuestionEntity question) {
+        AnswerEntity answerEntity = new AnswerEntity();
+        answerEntity.setUuid(uuid(random));
+        answerEntity.setAns(text(random, 20 + random.nextInt(80)));
+        answerEntity.setDate(question.getDate().plusMinutes(1 + random.nextInt(10000)));
+        answerEntity.setUser(user);
+        answerEntity.setQuestion(question);
+        return answerEntity;
+    }
+
+    static List<QuestionEntity> questions(final long seed, final int users, final int count) {
+        Random random = new Random(seed);
+        List<UserEntity> userEntities = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            userEntities.add(user(random, i));
+        }
+        List<QuestionEntity> questionEntities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            questionEntities.add(question(random, userEntities.get(random.nextInt(users))));
+        }
+        return questionEntities;
+    }
+
+    private static String uuid(final Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private static String text(final Random random, final int words) {
+        String[] vocabulary = WORDS.split(" ");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        return text.append('?').toString();
+    }
+}
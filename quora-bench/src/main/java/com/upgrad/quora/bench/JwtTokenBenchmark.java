@@ -0,0 +1,60 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.business.JwtTokenProvider;
+import com.upgrad.quora.service.business.PasswordCryptographyProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token generation of signin. The service creates a provider per signin, keyed by the encrypted password,
+ * so both the construction and the signing are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenBenchmark {
+
+    private String userUuid;
+
+    private String secret;
+
+    private JwtTokenProvider provider;
+
+    private ZonedDateTime issued;
+
+    private ZonedDateTime expires;
+
+    @Setup
+    public void setUp() {
+        userUuid = UUID.randomUUID().toString();
+        secret = PasswordCryptographyProvider.encrypt("bench-password-123")[1];
+        provider = new JwtTokenProvider(secret);
+        issued = ZonedDateTime.now();
+        expires = issued.plusHours(8);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return provider.generateToken(userUuid, issued, expires);
+    }
+
+    @Benchmark
+    public String newProviderAndGenerateToken() {
+        return new JwtTokenProvider(secret).generateToken(userUuid, issued, expires);
+    }
+}
@@ -0,0 +1,62 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.api.model.QuestionDetailsResponse;
+import com.upgrad.quora.api.model.UserDetailsResponse;
+import com.upgrad.quora.service.entity.QuestionEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response model mapping, written the same way as in QuestionController and CommonController
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"10", "1000"})
+    public int questions;
+
+    private List<QuestionEntity> questionEntities;
+
+    private UserEntity userEntity;
+
+    @Setup
+    public void setUp() {
+        questionEntities = Fixtures.questions(42L, 100, questions);
+        userEntity = questionEntities.get(0).getUser();
+    }
+
+    @Benchmark
+    public List<QuestionDetailsResponse> mapQuestions() {
+        List<QuestionDetailsResponse> questionDetailsResponseList = new ArrayList<>(questionEntities.size());
+        for (QuestionEntity questionEntity : questionEntities) {
+            questionDetailsResponseList.add(new QuestionDetailsResponse().id(questionEntity.getUuid()).content(questionEntity.getContent()));
+        }
+        return questionDetailsResponseList;
+    }
+
+    @Benchmark
+    public UserDetailsResponse mapUser() {
+        return new UserDetailsResponse().id(userEntity.getUuid()).firstName(userEntity.getFirstName()).lastName(userEntity.getLastName())
+                .userName(userEntity.getUsername()).emailAddress(userEntity.getEmail()).country(userEntity.getCountry()).aboutMe(userEntity.getAboutMe())
+                .dob(userEntity.getDob()).contactNumber(userEntity.getContactNumber());
+    }
+}
@@ -0,0 +1,97 @@
+package com.upgrad.quora.bench;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.quora.api.model.QuestionDetailsResponse;
+import com.upgrad.quora.api.model.UserDetailsResponse;
+import com.upgrad.quora.api.protobuf.QuoraProtos;
+import com.upgrad.quora.service.entity.QuestionEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of the generated response models: a whole list with Jackson as getAllQuestions does, the streaming
+ * generator of stream=true, and the protocol buffers encoding of the RPC API for comparison.
+ * The ObjectMapper is configured by Jackson2ObjectMapperBuilder, as the one of the application is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "1000"})
+    public int questions;
+
+    private ObjectMapper objectMapper;
+
+    private List<QuestionDetailsResponse> questionDetailsResponseList;
+
+    private UserDetailsResponse userDetailsResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<QuestionEntity> questionEntities = Fixtures.questions(42L, 100, questions);
+        questionDetailsResponseList = new ArrayList<>(questionEntities.size());
+        for (QuestionEntity questionEntity : questionEntities) {
+            questionDetailsResponseList.add(new QuestionDetailsResponse().id(questionEntity.getUuid()).content(questionEntity.getContent()));
+        }
+        UserEntity userEntity = questionEntities.get(0).getUser();
+        userDetailsResponse = new UserDetailsResponse().id(userEntity.getUuid()).firstName(userEntity.getFirstName()).lastName(userEntity.getLastName())
+                .userName(userEntity.getUsername()).emailAddress(userEntity.getEmail()).country(userEntity.getCountry()).aboutMe(userEntity.getAboutMe())
+                .dob(userEntity.getDob()).contactNumber(userEntity.getContactNumber());
+    }
+
+    @Benchmark
+    public byte[] jsonQuestionList() throws IOException {
+        return objectMapper.writeValueAsBytes(questionDetailsResponseList);
+    }
+
+    @Benchmark
+    public byte[] jsonQuestionStream() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(stream)) {
+            json.writeStartArray();
+            for (QuestionDetailsResponse questionDetailsResponse : questionDetailsResponseList) {
+                json.writeObject(questionDetailsResponse);
+            }
+            json.writeEndArray();
+        }
+        return stream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] protobufQuestionList() {
+        return QuoraProtos.questionList(questionDetailsResponseList).toByteArray();
+    }
+
+    @Benchmark
+    public byte[] jsonUser() throws IOException {
+        return objectMapper.writeValueAsBytes(userDetailsResponse);
+    }
+
+    @Benchmark
+    public byte[] protobufUser() {
+        return QuoraProtos.userDetails(userDetailsResponse).toByteArray();
+    }
+}
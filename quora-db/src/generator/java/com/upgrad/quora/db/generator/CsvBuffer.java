@@ -0,0 +1,75 @@
+package com.upgrad.quora.db.generator;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Rows of one COPY ... WITH (FORMAT csv) chunk. Empty unquoted fields are read as NULL by PostgreSQL,
+ * so null values are written as nothing and empty strings as "".
+ */
+final class CsvBuffer {
+
+    private final StringBuilder buffer = new StringBuilder(1 << 16);
+
+    private boolean rowStart = true;
+
+    private int rows;
+
+    CsvBuffer field(final String value) {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        if (value.isEmpty() || needsQuotes(value)) {
+            buffer.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    buffer.append('"');
+                }
+                buffer.append(c);
+            }
+            buffer.append('"');
+        } else {
+            buffer.append(value);
+        }
+        return this;
+    }
+
+    CsvBuffer field(final long value) {
+        separator();
+        buffer.append(value);
+        return this;
+    }
+
+    void endRow() {
+        buffer.append('\n');
+        rowStart = true;
+        rows++;
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    Reader reader() {
+        return new StringReader(buffer.toString());
+    }
+
+    private void separator() {
+        if (!rowStart) {
+            buffer.append(',');
+        }
+        rowStart = false;
+    }
+
+    private static boolean needsQuotes(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
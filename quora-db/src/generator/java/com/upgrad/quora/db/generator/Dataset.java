@@ -0,0 +1,281 @@
+package com.upgrad.quora.db.generator;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Content of a generated dataset. Every row is a function of the seed and of its position only: rows are produced
+ * in chunks of CHUNK_ROWS, each chunk with its own random stream, and ids are assigned from the position
+ * instead of the sequences. Loading the chunks in any order, on any number of threads, gives the same tables.
+ * <p>
+ * At scale factor 1 the dataset has 10,000 users, 50,000 questions and 250,000 answers. Authors of questions and
+ * answers, and the questions that are answered, follow Zipf distributions, so a few users and questions
+ * take most of the rows. Users sign in and out several times, the number of sessions being Zipfian as well,
+ * which leaves USER_AUTH with signed out, abandoned and active tokens.
+ */
+final class Dataset {
+
+    static final int CHUNK_ROWS = 20000;
+
+    //Password of every generated user, so that they can sign in against the API
+    static final String PASSWORD = "password";
+
+    //USER_AUTH ids are derived from the user and the session index
+    private static final int MAX_SESSIONS = 64;
+
+    private static final String[] FIRST_NAMES = {"Aarav", "Ananya", "Arjun", "Diya", "Ishaan", "Kavya", "Mohan", "Neha", "Priya", "Rahul",
+            "Riya", "Rohan", "Sara", "Vikram", "Zoya", "Alex", "Maria", "John", "Wei", "Yuki"};
+
+    private static final String[] LAST_NAMES = {"Sharma", "Verma", "Iyer", "Reddy", "Patel", "Gupta", "Nair", "Khan", "Das", "Singh",
+            "Smith", "Garcia", "Chen", "Tanaka", "Muller"};
+
+    //Most users are from the first countries of the list
+    private static final String[] COUNTRIES = {"India", "United States", "United Kingdom", "Canada", "Australia", "Germany", "Singapore",
+            "Japan", "Brazil", "Kenya"};
+
+    private static final String[] WORDS = ("how what why when which does can should is the a an of to in for on with java spring boot "
+            + "hibernate database postgres index query cache thread lock pool latency memory heap garbage collector request "
+            + "response api rest json token session user question answer page sort join transaction isolation deadlock "
+            + "timeout retry queue stream batch throughput benchmark profile production deploy container kubernetes").split(" ");
+
+    private final long seed;
+
+    private final int users;
+
+    private final int questions;
+
+    private final int answers;
+
+    private final long userOffset;
+
+    private final long tokenOffset;
+
+    private final long questionOffset;
+
+    private final long answerOffset;
+
+    private final ZipfSampler authors;
+
+    private final ZipfSampler answeredQuestions;
+
+    private final ZipfSampler sessions;
+
+    private final ZipfSampler countries;
+
+    private final long userStride;
+
+    private final long questionStride;
+
+    private final long startSecond;
+
+    private final long periodSeconds;
+
+    private final String salt;
+
+    private final String passwordHash;
+
+    /**
+     * @param seed    seed of all random streams
+     * @param scale   scale factor, 1 for 10,000 users
+     * @param offsets largest id already present in USERS, USER_AUTH, QUESTION and ANSWER, generated ids start after them
+     * @param start   date of the first generated question
+     */
+    Dataset(final long seed, final int scale, final long[] offsets, final LocalDateTime start) {
+        if (scale < 1) {
+            throw new IllegalArgumentException("The scale factor must be at least 1");
+        }
+        this.seed = seed;
+        this.users = 10000 * scale;
+        this.questions = 5 * users;
+        this.answers = 5 * questions;
+        this.userOffset = offsets[0];
+        this.tokenOffset = offsets[1];
+        this.questionOffset = offsets[2];
+        this.answerOffset = offsets[3];
+        this.authors = new ZipfSampler(users, 1.07);
+        this.answeredQuestions = new ZipfSampler(questions, 0.9);
+        this.sessions = new ZipfSampler(MAX_SESSIONS, 1.3);
+        this.countries = new ZipfSampler(COUNTRIES.length, 1.2);
+        this.userStride = coprimeStride(users);
+        this.questionStride = coprimeStride(questions);
+        this.startSecond = start.toEpochSecond(ZoneOffset.UTC);
+        this.periodSeconds = 2L * 365 * 24 * 3600;
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] saltBytes = new byte[32];
+        for (int i = 0; i < saltBytes.length; i++) {
+            saltBytes[i] = (byte) random.nextInt(256);
+        }
+        this.salt = Base64.getEncoder().encodeToString(saltBytes);
+        this.passwordHash = hashPassword(PASSWORD, saltBytes);
+    }
+
+    int getUsers() {
+        return users;
+    }
+
+    int getQuestions() {
+        return questions;
+    }
+
+    int getAnswers() {
+        return answers;
+    }
+
+    static int chunks(final int rows) {
+        return (rows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+    }
+
+    /**
+     * USERS(id, uuid, firstname, lastname, username, email, password, salt, country, aboutme, dob, role, contactnumber)
+     */
+    void users(final int chunk, final CsvBuffer out) {
+        SplittableRandom random = random(1, chunk);
+        for (int ordinal = chunk * CHUNK_ROWS; ordinal < Math.min(users, (chunk + 1) * CHUNK_ROWS); ordinal++) {
+            long id = userOffset + ordinal + 1;
+            out.field(id).field(uuid(random))
+                    .field(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]).field(LAST_NAMES[random.nextInt(LAST_NAMES.length)])
+                    .field("gen" + id).field("gen" + id + "@example.com")
+                    .field(passwordHash).field(salt)
+                    .field(COUNTRIES[countries.sample(random) - 1]).field(text(random, 2, 6, 50, '.'))
+                    .field(String.format("%02d-%02d-%04d", 1 + random.nextInt(28), 1 + random.nextInt(12), 1960 + random.nextInt(45)))
+                    .field(random.nextInt(1000) == 0 ? "admin" : "nonadmin")
+                    .field(Long.toString(6000000000L + random.nextLong(4000000000L)));
+            out.endRow();
+        }
+    }
+
+    /**
+     * USER_AUTH(id, uuid, user_id, access_token, expires_at, login_at, logout_at) of the users of a chunk.
+     * All sessions but the last are signed out or abandoned, the last one is still signed in for about a third of the users.
+     *
+     * @param activeTokens receives the access tokens of the sessions that are still signed in
+     */
+    void tokens(final int chunk, final CsvBuffer out, final List<String> activeTokens) {
+        SplittableRandom random = random(2, chunk);
+        for (int ordinal = chunk * CHUNK_ROWS; ordinal < Math.min(users, (chunk + 1) * CHUNK_ROWS); ordinal++) {
+            int count = sessions.sample(random);
+            long loginAt = startSecond + random.nextLong(periodSeconds / 2);
+            for (int session = 0; session < count; session++) {
+                String accessToken = "gen." + Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong());
+                boolean last = session == count - 1;
+                String logoutAt = null;
+                if (last ? random.nextInt(3) != 0 : random.nextInt(10) < 7) {
+                    logoutAt = timestamp(loginAt + 60 + random.nextLong(8 * 3600));
+                } else if (last) {
+                    activeTokens.add(accessToken);
+                }
+                out.field(tokenOffset + (long) ordinal * MAX_SESSIONS + session + 1).field(uuid(random)).field(userOffset + ordinal + 1)
+                        .field(accessToken).field(timestamp(loginAt + 8 * 3600)).field(timestamp(loginAt)).field(logoutAt);
+                out.endRow();
+                loginAt += 3600 + random.nextLong(periodSeconds / 2 / MAX_SESSIONS);
+            }
+        }
+    }
+
+    /**
+     * QUESTION(id, uuid, content, date, user_id)
+     */
+    void questions(final int chunk, final CsvBuffer out) {
+        SplittableRandom random = random(3, chunk);
+        for (int ordinal = chunk * CHUNK_ROWS; ordinal < Math.min(questions, (chunk + 1) * CHUNK_ROWS); ordinal++) {
+            out.field(questionOffset + ordinal + 1).field(uuid(random)).field(text(random, 6, 30, 500, '?'))
+                    .field(timestamp(questionSecond(ordinal))).field(userId(authors.sample(random)));
+            out.endRow();
+        }
+    }
+
+    /**
+     * ANSWER(id, uuid, ans, date, user_id, question_id), always dated after the question
+     */
+    void answers(final int chunk, final CsvBuffer out) {
+        SplittableRandom random = random(4, chunk);
+        for (int ordinal = chunk * CHUNK_ROWS; ordinal < Math.min(answers, (chunk + 1) * CHUNK_ROWS); ordinal++) {
+            int question = (int) (((answeredQuestions.sample(random) - 1) * questionStride) % questions);
+            out.field(answerOffset + ordinal + 1).field(uuid(random)).field(text(random, 10, 40, 255, '.'))
+                    .field(timestamp(questionSecond(question) + 60 + random.nextLong(30L * 24 * 3600)))
+                    .field(userId(authors.sample(random))).field(questionOffset + question + 1);
+            out.endRow();
+        }
+    }
+
+    //The date of a question is needed again for its answers, so it is derived from the question alone
+    private long questionSecond(final int question) {
+        return startSecond + Math.floorMod(mix(seed ^ mix((5L << 32) | question)), periodSeconds);
+    }
+
+    //Spreads the popular ranks over the id range, so that the most active users are not simply the first ones
+    private long userId(final int rank) {
+        return userOffset + ((rank - 1) * userStride) % users + 1;
+    }
+
+    private SplittableRandom random(final int table, final int chunk) {
+        return new SplittableRandom(mix(seed ^ mix(((long) table << 32) | chunk)));
+    }
+
+    private static long coprimeStride(final long n) {
+        long stride = Math.max(1, (long) (n * 0.6180339887));
+        while (gcd(stride, n) != 1) {
+            stride++;
+        }
+        return stride;
+    }
+
+    private static long gcd(final long a, final long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    //Finalizer of SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String uuid(final SplittableRandom random) {
+        long mostSignificantBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSignificantBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+
+    private static String timestamp(final long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC).toString();
+    }
+
+    private static String text(final SplittableRandom random, final int minWords, final int maxWords, final int maxLength, final char end) {
+        int words = minWords + random.nextInt(maxWords - minWords + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (text.length() + word.length() + 2 > maxLength) {
+                break;
+            }
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(word);
+        }
+        return text.append(end).toString();
+    }
+
+    //Same derivation and encoding as PasswordCryptographyProvider of quora-service
+    private static String hashPassword(final String password, final byte[] salt) {
+        try {
+            byte[] hash = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA512")
+                    .generateSecret(new PBEKeySpec(password.toCharArray(), salt, 1000, 64)).getEncoded();
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02X", b));
+            }
+            return hex.toString();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.upgrad.quora.db.generator;
+
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a synthetic dataset, see Dataset, into the database created by the setup profile.
+ * Run it with
+ * <pre>
+ *   mvn -pl quora-db -P generate process-classes -Dgenerator.scale=10
+ * </pre>
+ * Options, read from system properties:
+ * <ul>
+ * <li>generator.url, generator.user, generator.password: database, localhost.properties with the generate profile</li>
+ * <li>generator.scale: scale factor, 1 (10,000 users) by default</li>
+ * <li>generator.seed: seed of the dataset, 42 by default</li>
+ * <li>generator.threads: parallel COPY streams, the number of processors by default</li>
+ * <li>generator.truncate: empty USERS, USER_AUTH, QUESTION and ANSWER first, false by default</li>
+ * <li>generator.tokens-file: file receiving the access tokens still signed in, one per line</li>
+ * </ul>
+ * Generated ids start after the largest id already present, so that the rows of quora.sql and quora_test.sql are kept.
+ * With the same seed, scale and existing rows, two runs produce the same tables whatever the number of threads.
+ */
+public final class DatasetGenerator {
+
+    private final String url;
+
+    private final String user;
+
+    private final String password;
+
+    private final int threads;
+
+    //One connection per loading thread, closed once the dataset is loaded
+    private final ThreadLocal<Connection> threadConnection = new ThreadLocal<>();
+
+    private final ConcurrentLinkedQueue<Connection> connections = new ConcurrentLinkedQueue<>();
+
+    private DatasetGenerator(final String url, final String user, final String password, final int threads) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.threads = threads;
+    }
+
+    /**
+     * Writes the rows of one chunk
+     */
+    private interface ChunkWriter {
+        void write(int chunk, CsvBuffer out);
+    }
+
+    public static void main(final String[] args) throws Exception {
+        DatasetGenerator generator = new DatasetGenerator(
+                System.getProperty("generator.url", "jdbc:postgresql://localhost:5432/quora"),
+                System.getProperty("generator.user", "postgres"),
+                System.getProperty("generator.password", "password"),
+                Integer.getInteger("generator.threads", Runtime.getRuntime().availableProcessors()));
+        generator.generate(Integer.getInteger("generator.scale", 1), Long.getLong("generator.seed", 42L),
+                Boolean.getBoolean("generator.truncate"), System.getProperty("generator.tokens-file"));
+    }
+
+    private void generate(final int scale, final long seed, final boolean truncate, final String tokensFile) throws SQLException, IOException, InterruptedException {
+        long[] offsets;
+        try (Connection connection = DriverManager.getConnection(url, user, password); Statement statement = connection.createStatement()) {
+            if (truncate) {
+                statement.execute("TRUNCATE ANSWER, QUESTION, USER_AUTH, USERS");
+            }
+            offsets = new long[]{maxId(statement, "USERS"), maxId(statement, "USER_AUTH"), maxId(statement, "QUESTION"), maxId(statement, "ANSWER")};
+        }
+        final Dataset dataset = new Dataset(seed, scale, offsets, LocalDateTime.of(2018, 1, 1, 0, 0));
+        System.out.printf("Generating scale factor %d with seed %d on %d threads%n", scale, seed, threads);
+
+        //Tables are loaded one after the other for the foreign keys, the chunks of a table in parallel
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            load(executor, "USERS", "id, uuid, firstname, lastname, username, email, password, salt, country, aboutme, dob, role, contactnumber",
+                    Dataset.chunks(dataset.getUsers()), dataset::users);
+            final List<List<String>> activeTokens = new ArrayList<>();
+            for (int chunk = 0; chunk < Dataset.chunks(dataset.getUsers()); chunk++) {
+                activeTokens.add(new ArrayList<String>());
+            }
+            load(executor, "USER_AUTH", "id, uuid, user_id, access_token, expires_at, login_at, logout_at",
+                    Dataset.chunks(dataset.getUsers()), (chunk, out) -> dataset.tokens(chunk, out, activeTokens.get(chunk)));
+            load(executor, "QUESTION", "id, uuid, content, date, user_id", Dataset.chunks(dataset.getQuestions()), dataset::questions);
+            load(executor, "ANSWER", "id, uuid, ans, date, user_id, question_id", Dataset.chunks(dataset.getAnswers()), dataset::answers);
+
+            if (tokensFile != null) {
+                List<String> lines = new ArrayList<>();
+                for (List<String> chunkTokens : activeTokens) {
+                    lines.addAll(chunkTokens);
+                }
+                Files.write(Paths.get(tokensFile), lines, StandardCharsets.UTF_8);
+                System.out.printf("%d signed in access tokens written to %s%n", lines.size(), tokensFile);
+            }
+        } finally {
+            executor.shutdownNow();
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+
+        //Ids were assigned by the generator, the sequences continue after them. Fresh statistics for the planner.
+        try (Connection connection = DriverManager.getConnection(url, user, password); Statement statement = connection.createStatement()) {
+            for (String table : new String[]{"USERS", "USER_AUTH", "QUESTION", "ANSWER"}) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table.toLowerCase() + "', 'id'), (SELECT COALESCE(MAX(id), 1) FROM " + table + "))");
+                statement.execute("ANALYZE " + table);
+            }
+        }
+    }
+
+    private void load(final ExecutorService executor, final String table, final String columns, final int chunks, final ChunkWriter writer)
+            throws InterruptedException, SQLException {
+        final String copy = "COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)";
+        long start = System.nanoTime();
+        List<Future<Long>> results = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            final int index = chunk;
+            results.add(executor.submit(() -> {
+                CsvBuffer out = new CsvBuffer();
+                writer.write(index, out);
+                return ((PGConnection) connection()).getCopyAPI().copyIn(copy, out.reader());
+            }));
+        }
+        long rows = 0;
+        try {
+            for (Future<Long> result : results) {
+                rows += result.get();
+            }
+        } catch (ExecutionException e) {
+            for (Future<Long> result : results) {
+                result.cancel(true);
+            }
+            throw new SQLException("Loading " + table + " failed, rerun with -Dgenerator.truncate=true", e.getCause());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-10s %,12d rows in %7.1f s, %,10.0f rows/s%n", table, rows, seconds, rows / seconds);
+    }
+
+    private Connection connection() throws SQLException {
+        Connection connection = threadConnection.get();
+        if (connection == null) {
+            connection = DriverManager.getConnection(url, user, password);
+            connections.add(connection);
+            threadConnection.set(connection);
+        }
+        return connection;
+    }
+
+    private static long maxId(final Statement statement, final String table) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
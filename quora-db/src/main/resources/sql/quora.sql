@@ -22,9 +22,21 @@ ALTER TABLE USER_AUTH ADD CONSTRAINT FK_USER_AUTH_USER_ID FOREIGN KEY(USER_ID) R
 
 --QUESTION table is created to store the questions related information posted by any user in the Application
 DROP TABLE IF EXISTS QUESTION CASCADE;
-CREATE TABLE IF NOT EXISTS QUESTION(id SERIAL,uuid VARCHAR(200) NOT NULL, content VARCHAR(500) NOT NULL, date TIMESTAMP NOT NULL , user_id INTEGER NOT NULL, PRIMARY KEY(id), FOREIGN KEY (user_id) REFERENCES USERS(id) ON DELETE CASCADE);
+CREATE TABLE IF NOT EXISTS QUESTION(id SERIAL,uuid VARCHAR(200) NOT NULL, content VARCHAR(500) NOT NULL, date TIMESTAMP NOT NULL , minhash BYTEA NULL , user_id INTEGER NOT NULL, PRIMARY KEY(id), FOREIGN KEY (user_id) REFERENCES USERS(id) ON DELETE CASCADE);
 
 
 --ANSWER table is created to store the answers related information in reply to any question posted in the Application
 DROP TABLE IF EXISTS ANSWER CASCADE;
 CREATE TABLE IF NOT EXISTS ANSWER(id SERIAL,uuid VARCHAR(200) NOT NULL, ans VARCHAR(255) NOT NULL,date TIMESTAMP NOT NULL , user_id INTEGER NOT NULL, question_id INTEGER NOT NULL , PRIMARY KEY(id), FOREIGN KEY (user_id) REFERENCES USERS(id) ON DELETE CASCADE, FOREIGN KEY (question_id) REFERENCES QUESTION(id) ON DELETE CASCADE);
+
+
+--IDEMPOTENCY_KEY table is created to store the responses of create requests sent with an Idempotency-Key header, so that retries reaching any node are answered with the original response
+DROP TABLE IF EXISTS IDEMPOTENCY_KEY CASCADE;
+CREATE TABLE IF NOT EXISTS IDEMPOTENCY_KEY(id BIGSERIAL, idempotency_key VARCHAR(400) UNIQUE NOT NULL, fingerprint VARCHAR(64) NOT NULL, status INTEGER NULL, headers TEXT NULL, body BYTEA NULL, created_at TIMESTAMP NOT NULL, expires_at TIMESTAMP NOT NULL, PRIMARY KEY(id));
+CREATE INDEX IF NOT EXISTS IDEMPOTENCY_KEY_EXPIRES_AT ON IDEMPOTENCY_KEY(expires_at);
+
+--RESOURCE_VERSION table holds the version counters behind the ETags of the read endpoints, shared by all instances.
+--The sequence is kept when the table is recreated, so that versions, and the ETags built from them, never repeat.
+DROP TABLE IF EXISTS RESOURCE_VERSION CASCADE;
+CREATE SEQUENCE IF NOT EXISTS RESOURCE_VERSION_SEQ;
+CREATE TABLE IF NOT EXISTS RESOURCE_VERSION(resource VARCHAR(210) NOT NULL, version BIGINT NOT NULL, PRIMARY KEY(resource));
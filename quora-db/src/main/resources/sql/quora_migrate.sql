@@ -0,0 +1,15 @@
+
+--Brings a database created by an earlier version of quora.sql up to date without dropping its data.
+--Every statement is idempotent, so the script can be run on any database, including one created by the current quora.sql.
+--Needs PostgreSQL 9.6 or later for ADD COLUMN IF NOT EXISTS.
+
+--MinHash signature of the question content, computed again from the content when NULL
+ALTER TABLE QUESTION ADD COLUMN IF NOT EXISTS minhash BYTEA NULL;
+
+--IDEMPOTENCY_KEY table, see quora.sql
+CREATE TABLE IF NOT EXISTS IDEMPOTENCY_KEY(id BIGSERIAL, idempotency_key VARCHAR(400) UNIQUE NOT NULL, fingerprint VARCHAR(64) NOT NULL, status INTEGER NULL, headers TEXT NULL, body BYTEA NULL, created_at TIMESTAMP NOT NULL, expires_at TIMESTAMP NOT NULL, PRIMARY KEY(id));
+CREATE INDEX IF NOT EXISTS IDEMPOTENCY_KEY_EXPIRES_AT ON IDEMPOTENCY_KEY(expires_at);
+
+--RESOURCE_VERSION table, see quora.sql
+CREATE SEQUENCE IF NOT EXISTS RESOURCE_VERSION_SEQ;
+CREATE TABLE IF NOT EXISTS RESOURCE_VERSION(resource VARCHAR(210) NOT NULL, version BIGINT NOT NULL, PRIMARY KEY(resource));
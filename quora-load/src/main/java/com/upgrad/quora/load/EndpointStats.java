@@ -0,0 +1,53 @@
+package com.upgrad.quora.load;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of one endpoint during one stage. The response time runs from the time the request was scheduled to be
+ * sent, so that time spent waiting for a free connection or session is not hidden (coordinated omission).
+ * The service time runs from the time the request was actually sent.
+ */
+final class EndpointStats {
+
+    private final Histogram responseTime = new Histogram();
+
+    private final Histogram serviceTime = new Histogram();
+
+    //Status 0 counts requests that failed without a response
+    private final ConcurrentHashMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    void record(final int status, final long responseNanos, final long serviceNanos) {
+        responseTime.record(responseNanos);
+        serviceTime.record(serviceNanos);
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    Histogram getResponseTime() {
+        return responseTime;
+    }
+
+    Histogram getServiceTime() {
+        return serviceTime;
+    }
+
+    long getErrors() {
+        long errors = 0;
+        for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+            if (entry.getKey() < 200 || entry.getKey() >= 400) {
+                errors += entry.getValue().sum();
+            }
+        }
+        return errors;
+    }
+
+    Map<Integer, Long> getStatuses() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+}
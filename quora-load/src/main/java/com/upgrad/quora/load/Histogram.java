@@ -0,0 +1,98 @@
+package com.upgrad.quora.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram in the layout of HdrHistogram, the same as LatencyHistogram of quora-api without its windows:
+ * values below 128 ns have a bucket each, above that every power of two is split in 64 buckets,
+ * so percentiles are exact to within 1/64 of the value. Recording is lock free.
+ */
+final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    //About 73 minutes, longer latencies are recorded as this value
+    private static final long MAX_VALUE_NANOS = (1L << 42) - 1;
+
+    private static final int BUCKETS = indexOf(MAX_VALUE_NANOS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong sumNanos = new AtomicLong();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(final long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE_NANOS));
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        sumNanos.addAndGet(value);
+        long max;
+        while (value > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, value)) {
+            //Lost a race with a larger or concurrent maximum, read it again
+        }
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    double getMeanNanos() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : sumNanos.get() / (double) recorded;
+    }
+
+    /**
+     * @param quantiles quantiles in ascending order, between 0 and 1
+     * @return the value in nanoseconds at each quantile, 0 if nothing was recorded
+     */
+    long[] getQuantileNanos(final double... quantiles) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        long[] values = new long[quantiles.length];
+        if (total == 0) {
+            return values;
+        }
+        int next = 0;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && next < quantiles.length; i++) {
+            seen += snapshot[i];
+            while (next < quantiles.length && seen >= Math.max(1, (long) Math.ceil(quantiles[next] * total))) {
+                //The top quantile of a bucket holding the maximum is reported as the maximum itself
+                values[next++] = Math.min(valueOf(i), maxNanos.get());
+            }
+        }
+        return values;
+    }
+
+    static int indexOf(final long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    //Middle of the range of values kept in the bucket
+    static long valueOf(final int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index - shift * SUB_BUCKETS;
+        return (subBucket << shift) + ((1L << shift) >>> 1);
+    }
+}
@@ -0,0 +1,186 @@
+package com.upgrad.quora.load;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load driver of the JSON API. Requests are started at a fixed rate whatever the latency of earlier
+ * requests, and each response time is measured from the time its request was due, so a stalled instance shows up
+ * as latency instead of as fewer requests.
+ * <pre>
+ *   java -jar quora-load/target/quora-load.jar --url http://localhost:8080/api --profile mixed \
+ *        --rates 50,100,200,400 --duration 60 --warmup 10 --sessions 200 --report load-report.json
+ * </pre>
+ * Options:
+ * <ul>
+ * <li>--url: base url of the instance, http://localhost:8080/api by default</li>
+ * <li>--profile: read-heavy, mixed (default), write-heavy, or weights such as list-answers=60,create-answer=40</li>
+ * <li>--rates: offered requests per second of each stage, run one after the other, 50 by default</li>
+ * <li>--duration, --warmup: measured and unmeasured seconds of each stage, 60 and 10 by default</li>
+ * <li>--sessions: users signed up and signed in before the first stage, 100 by default</li>
+ * <li>--connections: maximum concurrent requests, 200 by default</li>
+ * <li>--arrival: constant (default) or poisson inter-arrival times</li>
+ * <li>--timeout-ms: connect and read timeout of a request, 30000 by default</li>
+ * <li>--report: JSON file receiving the results of all stages</li>
+ * </ul>
+ * The instance rate limits clients by address, see quora.rate-limit, except for the trusted addresses,
+ * which include the loopback addresses. Run the driver on the same host or add its address there.
+ */
+public final class LoadDriver {
+
+    private final Map<String, String> options;
+
+    private LoadDriver(final Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument '" + args[i] + "'");
+            }
+            String option = args[i].substring(2);
+            int equals = option.indexOf('=');
+            if (equals >= 0) {
+                options.put(option.substring(0, equals), option.substring(equals + 1));
+            } else if (i + 1 < args.length) {
+                options.put(option, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value of --" + option);
+            }
+        }
+        System.exit(new LoadDriver(options).run());
+    }
+
+    private int run() throws Exception {
+        String url = option("url", "http://localhost:8080/api");
+        WorkloadProfile profile = WorkloadProfile.parse(option("profile", "mixed"));
+        int sessionCount = Integer.parseInt(option("sessions", "100"));
+        int connections = Integer.parseInt(option("connections", "200"));
+        int timeoutMillis = Integer.parseInt(option("timeout-ms", "30000"));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("duration", "60")));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("warmup", "10")));
+        boolean poisson = option("arrival", "constant").equals("poisson");
+
+        //Connections kept alive by the JDK per host, 5 by default
+        System.setProperty("http.maxConnections", Integer.toString(connections));
+        Workload workload = new Workload(new QuoraClient(url, timeoutMillis, timeoutMillis),
+                Long.toString(System.currentTimeMillis() % 2176782336L, 36));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(connections, connections, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        LoadReport report = new LoadReport(url, profile);
+        try {
+            BlockingQueue<Session> sessions = signIn(workload, executor, sessionCount);
+            if (sessions.isEmpty()) {
+                System.err.println("No session could be signed in at " + url);
+                return 1;
+            }
+            System.out.printf("%d sessions signed in, profile %s%n", sessions.size(), profile.getName());
+            for (String rate : option("rates", "50").split(",")) {
+                LoadReport.Stage stage = runStage(workload, profile, executor, sessions, Double.parseDouble(rate.trim()),
+                        warmupNanos, durationNanos, poisson, timeoutMillis);
+                report.add(stage);
+                report.print(stage, System.out);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        String reportFile = options.get("report");
+        if (reportFile != null) {
+            report.write(Paths.get(reportFile));
+            System.out.println("\nReport written to " + reportFile);
+        }
+        return 0;
+    }
+
+    private static BlockingQueue<Session> signIn(final Workload workload, final ExecutorService executor, final int count) throws Exception {
+        List<Future<Session>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(executor.submit(workload::newSession));
+        }
+        BlockingQueue<Session> sessions = new LinkedBlockingQueue<>();
+        for (Future<Session> future : futures) {
+            Session session = future.get();
+            if (session != null) {
+                sessions.add(session);
+            }
+        }
+        return sessions;
+    }
+
+    private static LoadReport.Stage runStage(final Workload workload, final WorkloadProfile profile, final ExecutorService executor,
+                                             final BlockingQueue<Session> sessions, final double rate, final long warmupNanos,
+                                             final long durationNanos, final boolean poisson, final int timeoutMillis) throws InterruptedException {
+        final LoadReport.Stage stage = new LoadReport.Stage(rate, durationNanos / 1e9);
+        final AtomicLong inFlight = new AtomicLong();
+        Random random = new Random();
+        double intervalNanos = 1e9 / rate;
+        long start = System.nanoTime();
+        final long measuredFrom = start + warmupNanos;
+        long end = measuredFrom + durationNanos;
+        System.out.printf("%nStage at %.1f req/s: %d s warmup, %d s measured%n", rate,
+                TimeUnit.NANOSECONDS.toSeconds(warmupNanos), TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+
+        //Due times are computed from the start, so that a late wakeup of this thread does not lower the rate
+        double offset = 0;
+        while (start + (long) offset < end) {
+            long dueNanos = start + (long) offset;
+            long wait;
+            while ((wait = dueNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            final long scheduled = dueNanos;
+            final Operation operation = profile.pick(random);
+            inFlight.incrementAndGet();
+            executor.execute(() -> {
+                Session session = null;
+                try {
+                    if (operation.isSignedIn()) {
+                        session = sessions.take();
+                    }
+                    Workload.Call call = workload.execute(operation, session, ThreadLocalRandom.current());
+                    long now = System.nanoTime();
+                    if (scheduled >= measuredFrom) {
+                        stage.get(call.getOperation()).record(call.getStatus(), now - scheduled, now - call.getSentNanos());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (session != null) {
+                        sessions.add(session);
+                    }
+                    inFlight.decrementAndGet();
+                }
+            });
+            offset += poisson ? -Math.log(1 - random.nextDouble()) * intervalNanos : intervalNanos;
+        }
+
+        //Requests due during the stage are part of it even when they complete after its end
+        long drainUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2L * timeoutMillis);
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+        if (inFlight.get() > 0) {
+            System.out.printf("%d requests still outstanding at the end of the stage%n", inFlight.get());
+        }
+        return stage;
+    }
+
+    private String option(final String name, final String defaultValue) {
+        String value = options.get(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,172 @@
+package com.upgrad.quora.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Results of the stages of a run, printed as a table after each stage and written as JSON at the end.
+ * Comparing the achieved with the offered rate, and the p99 between stages, shows the saturation point.
+ */
+final class LoadReport {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999, 0.9999};
+
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p99", "p99.9", "p99.99"};
+
+    private final String url;
+
+    private final WorkloadProfile profile;
+
+    private final List<Stage> stages = new ArrayList<>();
+
+    /**
+     * Requests measured at one offered rate
+     */
+    static final class Stage {
+
+        private final double offeredRate;
+
+        private final double durationSeconds;
+
+        private final Map<Operation, EndpointStats> endpoints = new EnumMap<>(Operation.class);
+
+        Stage(final double offeredRate, final double durationSeconds) {
+            this.offeredRate = offeredRate;
+            this.durationSeconds = durationSeconds;
+            for (Operation operation : Operation.values()) {
+                endpoints.put(operation, new EndpointStats());
+            }
+        }
+
+        EndpointStats get(final Operation operation) {
+            return endpoints.get(operation);
+        }
+
+        long getCount() {
+            long count = 0;
+            for (EndpointStats stats : endpoints.values()) {
+                count += stats.getResponseTime().getCount();
+            }
+            return count;
+        }
+
+        long getErrors() {
+            long errors = 0;
+            for (EndpointStats stats : endpoints.values()) {
+                errors += stats.getErrors();
+            }
+            return errors;
+        }
+    }
+
+    LoadReport(final String url, final WorkloadProfile profile) {
+        this.url = url;
+        this.profile = profile;
+    }
+
+    void add(final Stage stage) {
+        stages.add(stage);
+    }
+
+    void print(final Stage stage, final PrintStream out) {
+        long count = stage.getCount();
+        out.printf(Locale.ROOT, "%nOffered %.1f req/s, achieved %.1f req/s over %.0f s, %d requests, %.2f%% errors%n",
+                stage.offeredRate, count / stage.durationSeconds, stage.durationSeconds, count, count == 0 ? 0 : 100.0 * stage.getErrors() / count);
+        out.printf(Locale.ROOT, "%-42s %8s %7s %8s", "response time (ms)", "count", "errors", "req/s");
+        for (String name : QUANTILE_NAMES) {
+            out.printf(Locale.ROOT, " %9s", name);
+        }
+        out.printf(Locale.ROOT, " %9s %9s%n", "max", "svc p99");
+        for (Map.Entry<Operation, EndpointStats> entry : stage.endpoints.entrySet()) {
+            Histogram responseTime = entry.getValue().getResponseTime();
+            if (responseTime.getCount() == 0) {
+                continue;
+            }
+            out.printf(Locale.ROOT, "%-42s %8d %7d %8.1f", entry.getKey().getEndpoint(), responseTime.getCount(), entry.getValue().getErrors(),
+                    responseTime.getCount() / stage.durationSeconds);
+            for (long value : responseTime.getQuantileNanos(QUANTILES)) {
+                out.printf(Locale.ROOT, " %9.2f", value / 1e6);
+            }
+            out.printf(Locale.ROOT, " %9.2f %9.2f%n", responseTime.getMaxNanos() / 1e6, entry.getValue().getServiceTime().getQuantileNanos(0.99)[0] / 1e6);
+        }
+    }
+
+    void write(final Path path) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write("{\"url\":" + string(url) + ",\"profile\":" + string(profile.getName()) + ",\"weights\":{");
+            String separator = "";
+            for (Map.Entry<Operation, Integer> weight : profile.getWeights().entrySet()) {
+                out.write(separator + string(weight.getKey().getKey()) + ":" + weight.getValue());
+                separator = ",";
+            }
+            out.write("},\"stages\":[");
+            separator = "";
+            for (Stage stage : stages) {
+                out.write(separator);
+                writeStage(stage, out);
+                separator = ",";
+            }
+            out.write("]}\n");
+        }
+    }
+
+    private static void writeStage(final Stage stage, final Writer out) throws IOException {
+        out.write(String.format(Locale.ROOT, "{\"offeredRate\":%.3f,\"achievedRate\":%.3f,\"durationSeconds\":%.3f,\"requests\":%d,\"errors\":%d,\"endpoints\":{",
+                stage.offeredRate, stage.getCount() / stage.durationSeconds, stage.durationSeconds, stage.getCount(), stage.getErrors()));
+        String separator = "";
+        for (Map.Entry<Operation, EndpointStats> entry : stage.endpoints.entrySet()) {
+            EndpointStats stats = entry.getValue();
+            if (stats.getResponseTime().getCount() == 0) {
+                continue;
+            }
+            out.write(separator + string(entry.getKey().getEndpoint()) + ":{");
+            out.write(String.format(Locale.ROOT, "\"count\":%d,\"errors\":%d,\"throughput\":%.3f,\"statuses\":{",
+                    stats.getResponseTime().getCount(), stats.getErrors(), stats.getResponseTime().getCount() / stage.durationSeconds));
+            String statusSeparator = "";
+            for (Map.Entry<Integer, Long> status : stats.getStatuses().entrySet()) {
+                out.write(statusSeparator + "\"" + status.getKey() + "\":" + status.getValue());
+                statusSeparator = ",";
+            }
+            out.write("},\"responseTimeMs\":");
+            writeHistogram(stats.getResponseTime(), out);
+            out.write(",\"serviceTimeMs\":");
+            writeHistogram(stats.getServiceTime(), out);
+            out.write("}");
+            separator = ",";
+        }
+        out.write("}}");
+    }
+
+    private static void writeHistogram(final Histogram histogram, final Writer out) throws IOException {
+        out.write(String.format(Locale.ROOT, "{\"mean\":%.3f", histogram.getMeanNanos() / 1e6));
+        long[] values = histogram.getQuantileNanos(QUANTILES);
+        for (int i = 0; i < values.length; i++) {
+            out.write(String.format(Locale.ROOT, ",\"%s\":%.3f", QUANTILE_NAMES[i], values[i] / 1e6));
+        }
+        out.write(String.format(Locale.ROOT, ",\"max\":%.3f}", histogram.getMaxNanos() / 1e6));
+    }
+
+    private static String string(final String value) {
+        StringBuilder json = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+}
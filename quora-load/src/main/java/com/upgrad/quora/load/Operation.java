@@ -0,0 +1,59 @@
+package com.upgrad.quora.load;
+
+/**
+ * Calls of the workload, named in profiles by their key
+ */
+enum Operation {
+
+    SIGNUP("signup", "POST /user/signup", false),
+    SIGNIN("signin", "POST /user/signin", true),
+    CREATE_QUESTION("create-question", "POST /question/create", true),
+    EDIT_QUESTION("edit-question", "PUT /question/edit/{questionId}", true),
+    DELETE_QUESTION("delete-question", "DELETE /question/delete/{questionId}", true),
+    LIST_QUESTIONS("list-questions", "GET /question/all", true),
+    LIST_USER_QUESTIONS("list-user-questions", "GET /question/all/{userId}", true),
+    CREATE_ANSWER("create-answer", "POST /question/{questionId}/answer/create", true),
+    EDIT_ANSWER("edit-answer", "PUT /answer/edit/{answerId}", true),
+    DELETE_ANSWER("delete-answer", "DELETE /answer/delete/{answerId}", true),
+    LIST_ANSWERS("list-answers", "GET /answer/all/{questionId}", true),
+    USER_PROFILE("user-profile", "GET /userprofile/{userId}", true);
+
+    private final String key;
+
+    private final String endpoint;
+
+    private final boolean signedIn;
+
+    Operation(final String key, final String endpoint, final boolean signedIn) {
+        this.key = key;
+        this.endpoint = endpoint;
+        this.signedIn = signedIn;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * @return method and path template, as reported
+     */
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return true if the call is made by a signed in session
+     */
+    boolean isSignedIn() {
+        return signedIn;
+    }
+
+    static Operation ofKey(final String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + key + "'");
+    }
+}
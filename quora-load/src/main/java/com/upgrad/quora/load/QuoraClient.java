@@ -0,0 +1,135 @@
+package com.upgrad.quora.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal client of the JSON API on HttpURLConnection. Request models are bound from query parameters by the
+ * controllers, so create and edit calls send their fields in the query string with an empty JSON request.
+ * Responses are always read to the end, which lets the JDK reuse the connection.
+ */
+final class QuoraClient {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final String baseUrl;
+
+    private final int connectTimeoutMillis;
+
+    private final int readTimeoutMillis;
+
+    /**
+     * Outcome of a call, status 0 when no response was received
+     */
+    static final class Response {
+
+        private final int status;
+
+        private final String body;
+
+        private final String accessToken;
+
+        Response(final int status, final String body, final String accessToken) {
+            this.status = status;
+            this.body = body;
+            this.accessToken = accessToken;
+        }
+
+        int getStatus() {
+            return status;
+        }
+
+        boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+
+        String getAccessToken() {
+            return accessToken;
+        }
+
+        /**
+         * @return the first "id" of the JSON body, null if there is none
+         */
+        String getId() {
+            if (body == null) {
+                return null;
+            }
+            Matcher matcher = ID.matcher(body);
+            return matcher.find() ? matcher.group(1) : null;
+        }
+    }
+
+    QuoraClient(final String baseUrl, final int connectTimeoutMillis, final int readTimeoutMillis) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    /**
+     * @param method        HTTP method
+     * @param path          path below the base url, with its query string
+     * @param authorization authorization header, null for none
+     * @param keepBody      false to discard the body while reading it, for listings that can be large
+     */
+    Response send(final String method, final String path, final String authorization, final boolean keepBody) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(connectTimeoutMillis);
+            connection.setReadTimeout(readTimeoutMillis);
+            connection.setRequestProperty("Accept", "application/json");
+            if (authorization != null) {
+                connection.setRequestProperty("authorization", authorization);
+            }
+            if (method.equals("POST") || method.equals("PUT")) {
+                connection.setRequestProperty("Content-Type", "application/json;charset=UTF-8");
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(0);
+                connection.getOutputStream().close();
+            }
+            int status = connection.getResponseCode();
+            String body = read(status >= 400 ? connection.getErrorStream() : connection.getInputStream(), keepBody);
+            return new Response(status, body, connection.getHeaderField("access-token"));
+        } catch (IOException e) {
+            //A broken connection is not reused by the JDK, the next request opens a new one
+            if (connection != null) {
+                connection.disconnect();
+            }
+            return new Response(0, null, null);
+        }
+    }
+
+    static String encode(final String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String read(final InputStream stream, final boolean keep) throws IOException {
+        if (stream == null) {
+            return null;
+        }
+        try (InputStream in = stream) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (keep) {
+                    body.write(buffer, 0, read);
+                }
+            }
+            return keep ? new String(body.toByteArray(), StandardCharsets.UTF_8) : null;
+        }
+    }
+}
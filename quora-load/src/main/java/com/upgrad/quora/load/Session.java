@@ -0,0 +1,72 @@
+package com.upgrad.quora.load;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Signed in user of the load test. A session serves one request at a time, so its state is not shared.
+ */
+final class Session {
+
+    //Own questions and answers kept for edits and deletes, the oldest are forgotten first
+    private static final int MAX_OWN_IDS = 64;
+
+    private final String userName;
+
+    private final String password;
+
+    private String userUuid;
+
+    private String accessToken;
+
+    private final Deque<String> questions = new ArrayDeque<>();
+
+    private final Deque<String> answers = new ArrayDeque<>();
+
+    Session(final String userName, final String password) {
+        this.userName = userName;
+        this.password = password;
+    }
+
+    String getUserName() {
+        return userName;
+    }
+
+    String getPassword() {
+        return password;
+    }
+
+    String getUserUuid() {
+        return userUuid;
+    }
+
+    void setUserUuid(final String userUuid) {
+        this.userUuid = userUuid;
+    }
+
+    String getAccessToken() {
+        return accessToken;
+    }
+
+    void setAccessToken(final String accessToken) {
+        this.accessToken = accessToken;
+    }
+
+    Deque<String> getQuestions() {
+        return questions;
+    }
+
+    Deque<String> getAnswers() {
+        return answers;
+    }
+
+    static void remember(final Deque<String> ids, final String id) {
+        if (id == null) {
+            return;
+        }
+        if (ids.size() == MAX_OWN_IDS) {
+            ids.pollFirst();
+        }
+        ids.addLast(id);
+    }
+}
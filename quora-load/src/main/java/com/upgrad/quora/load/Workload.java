@@ -0,0 +1,244 @@
+package com.upgrad.quora.load;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Executes operations for sessions. Operations that need an id the session does not have yet fall back to the
+ * operation creating it, an edit without own question creates a question for example, so every profile
+ * can start from an empty database. The executed operation is the one reported.
+ * <p>
+ * Questions are either kept by their author for edits and deletes, or published for everybody to answer and
+ * read, and then never deleted, so that answers and listings do not hit deleted questions.
+ */
+final class Workload {
+
+    private static final String[] WORDS = ("how what why does can the a of to in for java spring database index query cache "
+            + "thread lock pool latency memory request response token session page sort join transaction timeout retry").split(" ");
+
+    private static final int SHARED_IDS = 4096;
+
+    private final QuoraClient client;
+
+    private final String runId;
+
+    private final AtomicLong signups = new AtomicLong();
+
+    private final SharedIds sharedQuestions = new SharedIds();
+
+    private final SharedIds users = new SharedIds();
+
+    /**
+     * Result of an executed operation
+     */
+    static final class Call {
+
+        private final Operation operation;
+
+        private final int status;
+
+        private final long sentNanos;
+
+        Call(final Operation operation, final int status, final long sentNanos) {
+            this.operation = operation;
+            this.status = status;
+            this.sentNanos = sentNanos;
+        }
+
+        Operation getOperation() {
+            return operation;
+        }
+
+        int getStatus() {
+            return status;
+        }
+
+        long getSentNanos() {
+            return sentNanos;
+        }
+    }
+
+    //Fixed size ring of recently created ids, older ids are overwritten
+    private static final class SharedIds {
+
+        private final AtomicReferenceArray<String> ids = new AtomicReferenceArray<>(SHARED_IDS);
+
+        private final AtomicLong added = new AtomicLong();
+
+        void add(final String id) {
+            if (id != null) {
+                ids.set((int) (added.getAndIncrement() % SHARED_IDS), id);
+            }
+        }
+
+        String pick(final Random random) {
+            long count = Math.min(added.get(), SHARED_IDS);
+            return count == 0 ? null : ids.get(random.nextInt((int) count));
+        }
+    }
+
+    /**
+     * @param runId distinguishes the users of this run from those of earlier runs
+     */
+    Workload(final QuoraClient client, final String runId) {
+        this.client = client;
+        this.runId = runId;
+    }
+
+    /**
+     * Signs up and signs in a new user, outside of the measured stages
+     *
+     * @return the session, null if the instance refused the signup or the signin
+     */
+    Session newSession() {
+        Session session = new Session(nextUserName(), "load-" + runId);
+        QuoraClient.Response signup = signup(session);
+        if (!signup.isSuccess()) {
+            return null;
+        }
+        users.add(signup.getId());
+        return signin(session).isSuccess() ? session : null;
+    }
+
+    /**
+     * @param session null for operations that do not need to be signed in
+     */
+    Call execute(final Operation operation, final Session session, final Random random) {
+        long sent = System.nanoTime();
+        QuoraClient.Response response;
+        switch (operation) {
+            case SIGNUP:
+                response = signup(new Session(nextUserName(), "load-" + runId));
+                users.add(response.isSuccess() ? response.getId() : null);
+                break;
+            case SIGNIN:
+                response = signin(session);
+                break;
+            case CREATE_QUESTION:
+                response = client.send("POST", "/question/create?content=" + QuoraClient.encode(text(random, 8, 24, '?')), session.getAccessToken(), true);
+                if (response.isSuccess()) {
+                    if (random.nextBoolean()) {
+                        sharedQuestions.add(response.getId());
+                    } else {
+                        Session.remember(session.getQuestions(), response.getId());
+                    }
+                }
+                break;
+            case EDIT_QUESTION: {
+                String questionId = session.getQuestions().peekLast();
+                if (questionId == null) {
+                    return execute(Operation.CREATE_QUESTION, session, random);
+                }
+                response = client.send("PUT", "/question/edit/" + questionId + "?content=" + QuoraClient.encode(text(random, 8, 24, '?')),
+                        session.getAccessToken(), false);
+                break;
+            }
+            case DELETE_QUESTION: {
+                String questionId = session.getQuestions().pollLast();
+                if (questionId == null) {
+                    return execute(Operation.CREATE_QUESTION, session, random);
+                }
+                response = client.send("DELETE", "/question/delete/" + questionId, session.getAccessToken(), false);
+                break;
+            }
+            case LIST_QUESTIONS:
+                response = client.send("GET", "/question/all", session.getAccessToken(), false);
+                break;
+            case LIST_USER_QUESTIONS: {
+                String userId = users.pick(random);
+                if (userId == null) {
+                    return execute(Operation.LIST_QUESTIONS, session, random);
+                }
+                response = client.send("GET", "/question/all/" + userId, session.getAccessToken(), false);
+                break;
+            }
+            case CREATE_ANSWER: {
+                String questionId = sharedQuestions.pick(random);
+                if (questionId == null) {
+                    return execute(Operation.CREATE_QUESTION, session, random);
+                }
+                response = client.send("POST", "/question/" + questionId + "/answer/create?answer=" + QuoraClient.encode(text(random, 10, 20, '.')),
+                        session.getAccessToken(), true);
+                if (response.isSuccess()) {
+                    Session.remember(session.getAnswers(), response.getId());
+                }
+                break;
+            }
+            case EDIT_ANSWER: {
+                String answerId = session.getAnswers().peekLast();
+                if (answerId == null) {
+                    return execute(Operation.CREATE_ANSWER, session, random);
+                }
+                response = client.send("PUT", "/answer/edit/" + answerId + "?answer=" + QuoraClient.encode(text(random, 10, 20, '.')),
+                        session.getAccessToken(), false);
+                break;
+            }
+            case DELETE_ANSWER: {
+                String answerId = session.getAnswers().pollLast();
+                if (answerId == null) {
+                    return execute(Operation.CREATE_ANSWER, session, random);
+                }
+                response = client.send("DELETE", "/answer/delete/" + answerId, session.getAccessToken(), false);
+                break;
+            }
+            case LIST_ANSWERS: {
+                String questionId = sharedQuestions.pick(random);
+                if (questionId == null) {
+                    return execute(Operation.LIST_QUESTIONS, session, random);
+                }
+                response = client.send("GET", "/answer/all/" + questionId, session.getAccessToken(), false);
+                break;
+            }
+            case USER_PROFILE: {
+                String userId = users.pick(random);
+                if (userId == null) {
+                    return execute(Operation.LIST_QUESTIONS, session, random);
+                }
+                response = client.send("GET", "/userprofile/" + userId, session.getAccessToken(), false);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + operation);
+        }
+        return new Call(operation, response.getStatus(), sent);
+    }
+
+    private QuoraClient.Response signup(final Session session) {
+        String userName = session.getUserName();
+        return client.send("POST", "/user/signup?firstName=Load&lastName=Test&userName=" + userName
+                + "&emailAddress=" + userName + "%40load.test&password=" + QuoraClient.encode(session.getPassword())
+                + "&country=India&aboutMe=load+test&dob=01-01-1990&contactNumber=9000000000", null, true);
+    }
+
+    //Users sign in with their email address
+    private QuoraClient.Response signin(final Session session) {
+        String credentials = session.getUserName() + "@load.test:" + session.getPassword();
+        QuoraClient.Response response = client.send("POST", "/user/signin",
+                "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)), true);
+        if (response.isSuccess()) {
+            session.setAccessToken(response.getAccessToken());
+            session.setUserUuid(response.getId());
+        }
+        return response;
+    }
+
+    //At most 30 characters, the size of USERS.username
+    private String nextUserName() {
+        return "ld" + runId + signups.incrementAndGet();
+    }
+
+    private static String text(final Random random, final int minWords, final int maxWords, final char end) {
+        int words = minWords + random.nextInt(maxWords - minWords + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.append(end).toString();
+    }
+}
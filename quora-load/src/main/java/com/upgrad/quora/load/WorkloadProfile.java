@@ -0,0 +1,96 @@
+package com.upgrad.quora.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Mix of operations, either one of the named profiles or a list of weights such as
+ * "list-answers=60,create-answer=30,signin=10". Weights are relative and need not add up to 100.
+ */
+final class WorkloadProfile {
+
+    private static final String READ_HEAVY = "signup=1,signin=2,create-question=3,edit-question=1,list-questions=5,list-user-questions=15,"
+            + "create-answer=7,edit-answer=1,list-answers=40,user-profile=25";
+
+    private static final String MIXED = "signup=2,signin=5,create-question=10,edit-question=5,delete-question=3,list-questions=5,"
+            + "list-user-questions=10,create-answer=15,edit-answer=5,delete-answer=3,list-answers=27,user-profile=10";
+
+    private static final String WRITE_HEAVY = "signup=5,signin=10,create-question=20,edit-question=10,delete-question=5,"
+            + "create-answer=30,edit-answer=10,delete-answer=5,list-answers=5";
+
+    private final String name;
+
+    private final Map<Operation, Integer> weights;
+
+    private final Operation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    private WorkloadProfile(final String name, final Map<Operation, Integer> weights) {
+        this.name = name;
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("A profile needs at least one operation with a positive weight");
+        }
+    }
+
+    /**
+     * @param spec read-heavy, mixed, write-heavy or a list of operation=weight
+     */
+    static WorkloadProfile parse(final String spec) {
+        switch (spec) {
+            case "read-heavy":
+                return new WorkloadProfile(spec, weights(READ_HEAVY));
+            case "mixed":
+                return new WorkloadProfile(spec, weights(MIXED));
+            case "write-heavy":
+                return new WorkloadProfile(spec, weights(WRITE_HEAVY));
+            default:
+                return new WorkloadProfile(spec, weights(spec));
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Map<Operation, Integer> getWeights() {
+        return weights;
+    }
+
+    Operation pick(final Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private static Map<Operation, Integer> weights(final String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : spec.split(",")) {
+            String[] keyAndWeight = entry.trim().split("=");
+            if (keyAndWeight.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight, found '" + entry + "'");
+            }
+            int weight = Integer.parseInt(keyAndWeight[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + keyAndWeight[0]);
+            }
+            if (weight > 0) {
+                weights.put(Operation.ofKey(keyAndWeight[0].trim()), weight);
+            }
+        }
+        return weights;
+    }
+}
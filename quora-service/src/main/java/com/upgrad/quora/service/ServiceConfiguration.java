@@ -1,9 +1,16 @@
 package com.upgrad.quora.service;
 
 
+import com.upgrad.quora.service.common.DeadlineAwareTransactionManager;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
 
 /**
  * Enabling the component scan and entity scan of classes in the below mentioned "com.upgrad.quora.service" and "com.upgrad.quora.service.entity" packages respectively.
@@ -12,4 +19,18 @@ import org.springframework.context.annotation.Configuration;
 @ComponentScan("com.upgrad.quora.service")
 @EntityScan("com.upgrad.quora.service.entity")
 public class ServiceConfiguration {
+
+    /**
+     * Replaces the transaction manager of the JPA auto-configuration, so that transactions are bounded by the request deadline
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(final EntityManagerFactory entityManagerFactory,
+                                                         final ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        DeadlineAwareTransactionManager transactionManager = new DeadlineAwareTransactionManager(entityManagerFactory);
+        TransactionManagerCustomizers customizers = transactionManagerCustomizers.getIfAvailable();
+        if (customizers != null) {
+            customizers.customize(transactionManager);
+        }
+        return transactionManager;
+    }
 }
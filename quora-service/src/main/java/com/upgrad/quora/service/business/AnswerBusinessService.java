@@ -1,8 +1,12 @@
 package com.upgrad.quora.service.business;
 
 
+import com.upgrad.quora.service.common.SingleFlights;
 import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.dao.AnswerEventHub;
 import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.dao.ResourceVersions;
+import com.upgrad.quora.service.dao.RowHandler;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.AnswerEntity;
 import com.upgrad.quora.service.entity.QuestionEntity;
@@ -11,12 +15,17 @@ import com.upgrad.quora.service.exception.AnswerNotFoundException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Service class for Handling AnswerEntity and respective CRUD operations
@@ -34,6 +43,21 @@ public class AnswerBusinessService {
     @Autowired
     private QuestionDao questionDao;
 
+    @Autowired
+    private AnswerGroupCommitter answerGroupCommitter;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private AnswerEventHub answerEventHub;
+
+    @Autowired
+    private SingleFlights singleFlights;
+
+    @Value("${quora.listing.fetch-size:500}")
+    private int fetchSize;
+
     /**
      * Service class implementation of createAnswer utility
      *
@@ -47,6 +71,36 @@ public class AnswerBusinessService {
 
     @Transactional(propagation = Propagation.REQUIRED)
     public AnswerEntity createAnswers(String questionUuid, AnswerEntity answerEntity, String accessToken) throws InvalidQuestionException, AuthorizationFailedException {
+        prepareAnswer(questionUuid, answerEntity, accessToken);
+        return answerDao.createAnswer(answerEntity);
+
+    }
+
+    /**
+     * Group-commit variant of createAnswers.
+     * The token and question are validated here and the insert is handed to the AnswerGroupCommitter,
+     * this method returns once the batch containing the answer has been committed.
+     *
+     * @param questionUuid whose answer is to be created
+     * @param answerEntity which will contain answer details
+     * @param accessToken for validation
+     * @return answer entity
+     * @throws InvalidQuestionException if question id is invalid
+     * @throws AuthorizationFailedException if validation details are not as desired
+     */
+    public AnswerEntity createAnswersGrouped(String questionUuid, AnswerEntity answerEntity, String accessToken) throws InvalidQuestionException, AuthorizationFailedException {
+        prepareAnswer(questionUuid, answerEntity, accessToken);
+        return answerGroupCommitter.submit(answerEntity);
+    }
+
+    /**
+     * @return true if answers should be created through createAnswersGrouped
+     */
+    public boolean isGroupCommitEnabled() {
+        return answerGroupCommitter.isEnabled();
+    }
+
+    private void prepareAnswer(String questionUuid, AnswerEntity answerEntity, String accessToken) throws InvalidQuestionException, AuthorizationFailedException {
         UserAuthTokenEntity userAuthTokenEntity = userDao.getUserByAccessToken(accessToken);
 
         //Check if Access token enter by user  exist in database or not
@@ -69,9 +123,6 @@ public class AnswerBusinessService {
         answerEntity.setDate(LocalDateTime.now());
         answerEntity.setQuestion(questionEntity);
         answerEntity.setUser(userAuthTokenEntity.getUser());
-
-        return answerDao.createAnswer(answerEntity);
-
     }
 
     /**
@@ -158,13 +209,29 @@ public class AnswerBusinessService {
      *
      * @param questionUuid whose answer are to be retrieve
      * @param token for validtion
-     * @return list of all answers
+     * @return [answer uuid, answer content, question content] of every answer, the rows are shared read-only
      * @throws AuthorizationFailedException
      * @throws InvalidQuestionException if id is invalid
      */
 
     @Transactional(propagation = Propagation.REQUIRED)
-    public List<AnswerEntity> getAllAnswersForQuestion(String questionUuid, String token) throws AuthorizationFailedException, InvalidQuestionException {
+    public List<Object[]> getAllAnswersForQuestion(String questionUuid, String token) throws AuthorizationFailedException, InvalidQuestionException {
+        return getAllAnswersForQuestion(questionUuid, token, tag -> false);
+    }
+
+    /**
+     * Conditional variant of getAllAnswersForQuestion, the version tag of the answer listing is offered
+     * to notModified once the token and question have been validated and before the answers are queried.
+     *
+     * @param questionUuid whose answer are to be retrieve
+     * @param token for validtion
+     * @param notModified returns true when the caller already holds the tagged version
+     * @return [answer uuid, answer content, question content] of every answer, or null when notModified accepted the tag
+     * @throws AuthorizationFailedException
+     * @throws InvalidQuestionException if id is invalid
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<Object[]> getAllAnswersForQuestion(String questionUuid, String token, Predicate<String> notModified) throws AuthorizationFailedException, InvalidQuestionException {
 
         UserAuthTokenEntity userAuthTokenEntity = userDao.getUserAuthToken(token);
 
@@ -178,16 +245,142 @@ public class AnswerBusinessService {
             throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to get the answers");
         }
 
-        QuestionEntity questionEntity = questionDao.getQuestionByUuid(questionUuid);
+        //Only the id is needed, loading the question would also load its answers
+        final Integer questionId = questionDao.getQuestionIdByUuid(questionUuid);
         //Check if the question with uuid whose answers are to be retrieved from the database does not exist
-        if (questionEntity == null) {
+        if (questionId == null) {
+            throw new InvalidQuestionException("QUES-001", "The question with entered uuid whose details are to be seen does not exist");
+        }
+
+        final String answersTag = resourceVersions.answersTag(questionUuid);
+        if (notModified.test(answersTag)) {
+            return null;
+        }
+
+        //Concurrent listings of the same version of the answers share one query, as scalar rows only:
+        //entities and their lazy collections belong to the session of the leader
+        return singleFlights.<List<Object[]>>get("answers-for-question")
+                .execute(questionId + "@" + answersTag, () -> Collections.unmodifiableList(answerDao.getAllAnswerSummariesForQuestionById(questionId)));
+
+    }
+
+    /**
+     * Sparse variant of getAllAnswersForQuestion, only the requested columns are selected and the question
+     * and author are only joined when one of their fields is requested.
+     *
+     * @param questionUuid whose answer are to be retrieve
+     * @param token for validtion
+     * @param fields columns to read, in the order they appear in the returned rows
+     * @param notModified returns true when the caller already holds the tagged version
+     * @return one row per answer, or null when notModified accepted the tag
+     * @throws AuthorizationFailedException
+     * @throws InvalidQuestionException if id is invalid
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<Object[]> getAnswerFieldsForQuestion(String questionUuid, String token, List<AnswerField> fields, Predicate<String> notModified) throws AuthorizationFailedException, InvalidQuestionException {
+
+        UserAuthTokenEntity userAuthTokenEntity = userDao.getUserAuthToken(token);
+
+        //Check if the access token provided by the user does not exist in the database
+        if (userAuthTokenEntity == null) {
+            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+        }
+
+        //Check if the user has signed out
+        if (userAuthTokenEntity.getLogoutAt() != null && userAuthTokenEntity.getLogoutAt().isAfter(userAuthTokenEntity.getLoginAt())) {
+            throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to get the answers");
+        }
+
+        Integer questionId = questionDao.getQuestionIdByUuid(questionUuid);
+        //Check if the question with uuid whose answers are to be retrieved from the database does not exist
+        if (questionId == null) {
+            throw new InvalidQuestionException("QUES-001", "The question with entered uuid whose details are to be seen does not exist");
+        }
+
+        if (notModified.test(resourceVersions.answersTag(questionUuid))) {
+            return null;
+        }
+        List<String> paths = new ArrayList<>(fields.size());
+        for (AnswerField field : fields) {
+            paths.add(field.getPath());
+        }
+        return answerDao.getAnswerColumnsForQuestionById(questionId, paths);
+    }
+
+    /**
+     * Streaming variant of getAllAnswersForQuestion, the answers are read with a forward-only cursor and handed
+     * to the row handler one at a time. The question entity is not loaded, so its answer list is not fetched either.
+     *
+     * @param questionUuid whose answer are to be retrieve
+     * @param token for validtion
+     * @param notModified returns true when the caller already holds the tagged version
+     * @param rowHandler receives [answer uuid, answer content, question content] of every answer
+     * @return false if notModified accepted the tag and nothing was read
+     * @throws AuthorizationFailedException
+     * @throws InvalidQuestionException if id is invalid
+     * @throws IOException if the row handler fails
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public boolean streamAllAnswersForQuestion(String questionUuid, String token, Predicate<String> notModified, RowHandler rowHandler) throws AuthorizationFailedException, InvalidQuestionException, IOException {
+
+        UserAuthTokenEntity userAuthTokenEntity = userDao.getUserAuthToken(token);
+
+        //Check if the access token provided by the user does not exist in the database
+        if (userAuthTokenEntity == null) {
+            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+        }
+
+        //Check if the user has signed out
+        if (userAuthTokenEntity.getLogoutAt() != null && userAuthTokenEntity.getLogoutAt().isAfter(userAuthTokenEntity.getLoginAt())) {
+            throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to get the answers");
+        }
+
+        Integer questionId = questionDao.getQuestionIdByUuid(questionUuid);
+        //Check if the question with uuid whose answers are to be retrieved from the database does not exist
+        if (questionId == null) {
             throw new InvalidQuestionException("QUES-001", "The question with entered uuid whose details are to be seen does not exist");
         }
 
+        if (notModified.test(resourceVersions.answersTag(questionUuid))) {
+            return false;
+        }
+        answerDao.scrollAllAnswersForQuestionById(questionId, fetchSize, rowHandler);
+        return true;
+    }
+
+    /**
+     * Subscribes to the answers posted to a question from now on, or after lastEventId when reconnecting.
+     * Only the token and the question are read from the database, the answers are pushed by the AnswerEventHub.
+     *
+     * @param questionUuid question to watch
+     * @param token        for validation
+     * @param lastEventId  id of the last event the client received, null for a new subscription
+     * @param signal       called whenever events are buffered for the subscription, must not block
+     * @return subscription to drain the events from
+     * @throws AuthorizationFailedException if validation details are not as desired
+     * @throws InvalidQuestionException     if question id is invalid
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public AnswerEventHub.Subscription subscribeToAnswers(String questionUuid, String token, String lastEventId, Runnable signal) throws AuthorizationFailedException, InvalidQuestionException {
+
+        UserAuthTokenEntity userAuthTokenEntity = userDao.getUserAuthToken(token);
+
+        //Check if the access token provided by the user does not exist in the database
+        if (userAuthTokenEntity == null) {
+            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+        }
+
+        //Check if the user has signed out
+        if (userAuthTokenEntity.getLogoutAt() != null && userAuthTokenEntity.getLogoutAt().isAfter(userAuthTokenEntity.getLoginAt())) {
+            throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to get the answers");
+        }
 
-        List<AnswerEntity> answerEntityList = answerDao.getAllAnswersForQuestionById(questionEntity.getId());
-        return answerEntityList;
+        //Check if the question with uuid whose answers are to be watched does not exist
+        if (questionDao.getQuestionIdByUuid(questionUuid) == null) {
+            throw new InvalidQuestionException("QUES-001", "The question with entered uuid whose details are to be seen does not exist");
+        }
 
+        return answerEventHub.subscribe(questionUuid, lastEventId, signal);
     }
 
 }
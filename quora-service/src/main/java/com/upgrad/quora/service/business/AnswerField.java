@@ -0,0 +1,24 @@
+package com.upgrad.quora.service.business;
+
+/**
+ * Columns that can be selected for an answer listing with a sparse fieldset.
+ * The path is the JPQL expression, "a" is the answer, "q" its question and "u" its author.
+ */
+public enum AnswerField {
+    ID("a.uuid"),
+    ANSWER_CONTENT("a.ans"),
+    QUESTION_ID("q.uuid"),
+    QUESTION_CONTENT("q.content"),
+    AUTHOR_ID("u.uuid"),
+    AUTHOR_NAME("u.username");
+
+    private final String path;
+
+    AnswerField(final String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,316 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.common.DeadlineExceededException;
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.RequestDeadline;
+import com.upgrad.quora.service.common.UnexpectedException;
+import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.entity.AnswerEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Group-commit writer for answer creation.
+ * Requests are queued in a bounded buffer and a single writer thread drains it every flush interval,
+ * inserting the whole batch with one multi-row insert in one transaction. Each caller is released only
+ * after the transaction holding its answer has committed, so durability is the same as a direct insert.
+ * Once stopped, the writer commits what is already queued, answers submitted later are written inline.
+ */
+@Component
+public class AnswerGroupCommitter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AnswerGroupCommitter.class);
+
+    @Value("${quora.answer.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${quora.answer.group-commit.capacity:4096}")
+    private int capacity;
+
+    @Value("${quora.answer.group-commit.max-batch-size:256}")
+    private int maxBatchSize;
+
+    @Value("${quora.answer.group-commit.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    @Value("${quora.answer.group-commit.enqueue-timeout-ms:50}")
+    private long enqueueTimeoutMs;
+
+    @Value("${quora.answer.group-commit.stop-timeout-ms:10000}")
+    private long stopTimeoutMs;
+
+    @Autowired
+    private AnswerDao answerDao;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BlockingQueue<PendingAnswer> queue;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    //Held for reading while an answer is queued, so that stop never misses an answer queued as the writer exits
+    private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+
+
+    private final AtomicLong batchCount = new AtomicLong();
+
+    private final AtomicLong answerCount = new AtomicLong();
+
+    private final AtomicLong commitNanos = new AtomicLong();
+
+    private final AtomicLong lastCommitNanos = new AtomicLong();
+
+    private final AtomicLong maxBatch = new AtomicLong();
+
+    private final AtomicLong inlineWrites = new AtomicLong();
+
+    private final AtomicLong deadlineExpiries = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        writer = new Thread(this::drainLoop, "answer-group-commit");
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        stopLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stopLock.writeLock().unlock();
+        }
+        writer.join(stopTimeoutMs);
+        //Answers the writer could not commit in time are failed rather than left waiting forever
+        List<PendingAnswer> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        if (!abandoned.isEmpty()) {
+            LOG.warn("Group commit stopped with {} answers still queued, failing them", abandoned.size());
+        }
+        for (PendingAnswer pending : abandoned) {
+            pending.committed.completeExceptionally(new UnexpectedException(GenericErrorCode.GEN_001, new IllegalStateException("Group commit stopped")));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the answer for the next group commit and waits until that commit has finished.
+     * If the buffer stays full for longer than the enqueue timeout, or the committer has been stopped,
+     * the answer is written in its own transaction instead.
+     * Neither wait outlasts the request deadline, see RequestDeadline. An answer still queued when the deadline
+     * passes is withdrawn and never written, one the writer has already taken may still be committed.
+     *
+     * @param answerEntity fully populated answer (uuid, content, date, user and question)
+     * @return the same answer entity once it is durable
+     * @throws DeadlineExceededException if the deadline passes before the answer has been committed
+     */
+    public AnswerEntity submit(final AnswerEntity answerEntity) {
+        PendingAnswer pending = new PendingAnswer(answerEntity);
+        boolean queued;
+        stopLock.readLock().lock();
+        try {
+            queued = running && queue.offer(pending, Math.min(enqueueTimeoutMs, RequestDeadline.remainingMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        } finally {
+            stopLock.readLock().unlock();
+        }
+        if (!queued) {
+            inlineWrites.incrementAndGet();
+            write(Collections.singletonList(answerEntity));
+            return answerEntity;
+        }
+        final long waitMillis = RequestDeadline.remainingMillis();
+        try {
+            if (waitMillis == Long.MAX_VALUE) {
+                pending.committed.get();
+            } else {
+                pending.committed.get(Math.max(0, waitMillis), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            deadlineExpiries.incrementAndGet();
+            queue.remove(pending);
+            throw new DeadlineExceededException();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new UnexpectedException(GenericErrorCode.GEN_001, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        }
+        return answerEntity;
+    }
+
+    private void drainLoop() {
+        final long flushNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        List<PendingAnswer> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAnswer first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                final long flushAt = System.nanoTime() + flushNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = flushAt - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingAnswer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+    }
+
+    private void commit(final List<PendingAnswer> batch) {
+        List<AnswerEntity> answers = new ArrayList<>(batch.size());
+        for (PendingAnswer pending : batch) {
+            answers.add(pending.answer);
+        }
+        try {
+            write(answers);
+            for (PendingAnswer pending : batch) {
+                pending.committed.complete(null);
+            }
+        } catch (RuntimeException batchFailure) {
+            // One bad row must not fail the whole group, so fall back to one transaction per answer
+            LOG.warn("Group commit of {} answers failed, retrying individually", batch.size(), batchFailure);
+            for (PendingAnswer pending : batch) {
+                try {
+                    write(Collections.singletonList(pending.answer));
+                    pending.committed.complete(null);
+                } catch (RuntimeException e) {
+                    pending.committed.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private void write(final List<AnswerEntity> answers) {
+        final long start = System.nanoTime();
+        transactionTemplate.execute(status -> answerDao.createAnswers(answers));
+        final long elapsed = System.nanoTime() - start;
+        batchCount.incrementAndGet();
+        answerCount.addAndGet(answers.size());
+        commitNanos.addAndGet(elapsed);
+        lastCommitNanos.set(elapsed);
+        maxBatch.accumulateAndGet(answers.size(), Math::max);
+        LOG.debug("Group commit wrote {} answers in {} us", answers.size(), TimeUnit.NANOSECONDS.toMicros(elapsed));
+    }
+
+    /**
+     * @return number of committed batches, including single-answer fallbacks
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return number of answers written through this committer
+     */
+    public long getAnswerCount() {
+        return answerCount.get();
+    }
+
+    /**
+     * @return total time spent inside commit transactions, in nanoseconds
+     */
+    public long getCommitNanos() {
+        return commitNanos.get();
+    }
+
+    /**
+     * @return duration of the most recent commit, in nanoseconds
+     */
+    public long getLastCommitNanos() {
+        return lastCommitNanos.get();
+    }
+
+    /**
+     * @return largest batch committed so far
+     */
+    public long getMaxBatchSize() {
+        return maxBatch.get();
+    }
+
+    /**
+     * @return number of answers written inline because the buffer was full
+     */
+    public long getInlineWrites() {
+        return inlineWrites.get();
+    }
+
+    /**
+     * @return number of callers whose request deadline passed while their answer was waiting for its commit
+     */
+    public long getDeadlineExpiries() {
+        return deadlineExpiries.get();
+    }
+
+    /**
+     * @return number of answers currently waiting for the writer
+     */
+    public int getQueueDepth() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    private static final class PendingAnswer {
+
+        private final AnswerEntity answer;
+
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        private PendingAnswer(final AnswerEntity answer) {
+            this.answer = answer;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.common.TransactionCallbacks;
+import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.AnswerEntity;
+import com.upgrad.quora.service.entity.QuestionEntity;
+import com.upgrad.quora.service.entity.UserAuthTokenEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.BatchSizeExceededException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service class for creating many questions or answers in one request.
+ * The token is validated once per batch, referenced questions are resolved with a single IN query
+ * and the accepted items are written with multi-row inserts. Items that fail validation are reported
+ * back with their error and do not prevent the other items from being created.
+ */
+@Service
+public class BatchBusinessService {
+
+    //Column sizes of QUESTION.content and ANSWER.ans
+    private static final int MAX_QUESTION_LENGTH = 500;
+
+    private static final int MAX_ANSWER_LENGTH = 255;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private QuestionDao questionDao;
+
+    @Autowired
+    private AnswerDao answerDao;
+
+    @Autowired
+    private QuestionSimilarityIndex questionSimilarityIndex;
+
+    @Value("${quora.batch.max-items:500}")
+    private int maxItems;
+
+    @Value("${quora.batch.insert-rows:200}")
+    private int insertRows;
+
+    /**
+     * Service implementation of the batch question creation
+     *
+     * @param accessToken for validation
+     * @param contents    content of every question, in request order
+     * @return one result per content, in request order
+     * @throws AuthorizationFailedException if the user is not signed in
+     * @throws BatchSizeExceededException   if more than quora.batch.max-items questions are sent
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<BatchItemResult> createQuestions(final String accessToken, final List<String> contents) throws AuthorizationFailedException, BatchSizeExceededException {
+
+        checkSize(contents.size());
+        final UserEntity user = authorize(accessToken, "User is signed out.Sign in first to post a question");
+
+        final List<BatchItemResult> results = new ArrayList<>(contents.size());
+        final List<QuestionEntity> accepted = new ArrayList<>();
+        final List<int[]> signatures = new ArrayList<>();
+        final LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < contents.size(); i++) {
+            final String content = contents.get(i);
+            final BatchItemResult invalid = validateContent(i, content, MAX_QUESTION_LENGTH);
+            if (invalid != null) {
+                results.add(invalid);
+                continue;
+            }
+            final int[] signature = MinHash.signature(content);
+            QuestionEntity questionEntity = new QuestionEntity();
+            questionEntity.setUuid(UUID.randomUUID().toString());
+            questionEntity.setContent(content);
+            questionEntity.setDate(now);
+            questionEntity.setMinhash(MinHash.toBytes(signature));
+            questionEntity.setUser(user);
+            accepted.add(questionEntity);
+            signatures.add(signature);
+            results.add(BatchItemResult.created(i, questionEntity.getUuid()));
+        }
+
+        for (int from = 0; from < accepted.size(); from += insertRows) {
+            questionDao.createQuestions(accepted.subList(from, Math.min(accepted.size(), from + insertRows)));
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            for (int i = 0; i < accepted.size(); i++) {
+                questionSimilarityIndex.add(accepted.get(i).getUuid(), signatures.get(i));
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Service implementation of the batch answer creation
+     *
+     * @param accessToken   for validation
+     * @param questionUuids question of every answer, in request order
+     * @param answers       content of every answer, in the same order as questionUuids
+     * @return one result per answer, in request order
+     * @throws AuthorizationFailedException if the user is not signed in
+     * @throws BatchSizeExceededException   if more than quora.batch.max-items answers are sent
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<BatchItemResult> createAnswers(final String accessToken, final List<String> questionUuids, final List<String> answers) throws AuthorizationFailedException, BatchSizeExceededException {
+
+        checkSize(answers.size());
+        final UserEntity user = authorize(accessToken, "User is signed out.Sign in first to post an answer");
+
+        //Every referenced question is looked up once, however many answers point to it
+        final Map<String, Integer> questionIds = questionDao.getQuestionIdsByUuids(new HashSet<>(questionUuids));
+
+        final List<BatchItemResult> results = new ArrayList<>(answers.size());
+        final List<AnswerEntity> accepted = new ArrayList<>();
+        final LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < answers.size(); i++) {
+            final Integer questionId = questionIds.get(questionUuids.get(i));
+            if (questionId == null) {
+                results.add(BatchItemResult.failed(i, "QUES-001", "The question entered is invalid"));
+                continue;
+            }
+            final BatchItemResult invalid = validateContent(i, answers.get(i), MAX_ANSWER_LENGTH);
+            if (invalid != null) {
+                results.add(invalid);
+                continue;
+            }
+            //The insert only needs the id and uuid of the question, so the entity is not loaded
+            QuestionEntity questionEntity = new QuestionEntity();
+            questionEntity.setId(questionId);
+            questionEntity.setUuid(questionUuids.get(i));
+            AnswerEntity answerEntity = new AnswerEntity();
+            answerEntity.setUuid(UUID.randomUUID().toString());
+            answerEntity.setAns(answers.get(i));
+            answerEntity.setDate(now);
+            answerEntity.setUser(user);
+            answerEntity.setQuestion(questionEntity);
+            accepted.add(answerEntity);
+            results.add(BatchItemResult.created(i, answerEntity.getUuid()));
+        }
+
+        for (int from = 0; from < accepted.size(); from += insertRows) {
+            answerDao.createAnswers(accepted.subList(from, Math.min(accepted.size(), from + insertRows)));
+        }
+        return results;
+    }
+
+    private void checkSize(final int size) throws BatchSizeExceededException {
+        if (size > maxItems) {
+            throw new BatchSizeExceededException("BATCH-001", "A batch can contain at most " + maxItems + " items");
+        }
+    }
+
+    private static BatchItemResult validateContent(final int index, final String content, final int maxLength) {
+        if (content == null || content.trim().isEmpty()) {
+            return BatchItemResult.failed(index, "BATCH-002", "Content is missing");
+        }
+        if (content.length() > maxLength) {
+            return BatchItemResult.failed(index, "BATCH-003", "Content is longer than " + maxLength + " characters");
+        }
+        return null;
+    }
+
+    private UserEntity authorize(final String accessToken, final String signedOutMessage) throws AuthorizationFailedException {
+
+        UserAuthTokenEntity userAuth = userDao.getUserAuthToken(accessToken);
+
+        //Check if the access token provided by the user does not exist in the database
+        if (userAuth == null) {
+            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+        }
+
+        //Check if the user has signed out
+        if (userAuth.getLogoutAt() != null && userAuth.getLogoutAt().isAfter(userAuth.getLoginAt())) {
+            throw new AuthorizationFailedException("ATHR-002", signedOutMessage);
+        }
+        return userAuth.getUser();
+    }
+}
@@ -0,0 +1,53 @@
+package com.upgrad.quora.service.business;
+
+/**
+ * Outcome of one item of a batch write, either the uuid of the created row or the error that rejected the item.
+ */
+public class BatchItemResult {
+
+    private final int index;
+
+    private final String uuid;
+
+    private final String code;
+
+    private final String errorMessage;
+
+    private BatchItemResult(final int index, final String uuid, final String code, final String errorMessage) {
+        this.index = index;
+        this.uuid = uuid;
+        this.code = code;
+        this.errorMessage = errorMessage;
+    }
+
+    public static BatchItemResult created(final int index, final String uuid) {
+        return new BatchItemResult(index, uuid, null, null);
+    }
+
+    public static BatchItemResult failed(final int index, final String code, final String errorMessage) {
+        return new BatchItemResult(index, null, code, errorMessage);
+    }
+
+    /**
+     * @return position of the item in the request
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public boolean isCreated() {
+        return code == null;
+    }
+}
@@ -1,21 +1,35 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.dao.ResourceVersions;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.BatchSizeExceededException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
 @Service
 public class CommonService {
 
     @Autowired
     private UserDao userDao;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Value("${quora.multi-get.max-ids:100}")
+    private int maxIds;
+
     /**
      * Service implementation for get user endpoint
      * @param userUuid for getting all details of user
@@ -27,6 +41,21 @@ public class CommonService {
 
     @Transactional(propagation = Propagation.REQUIRED)
     public UserEntity getUser(final String userUuid, final String accessToken) throws UserNotFoundException, AuthorizationFailedException {
+        return getUser(userUuid, accessToken, tag -> false);
+    }
+
+    /**
+     * Conditional variant of getUser, the version tag of the profile is offered to notModified
+     * once the token has been validated and before the user is looked up
+     * @param userUuid for getting all details of user
+     * @param accessToken for validation
+     * @param notModified returns true when the caller already holds the tagged version
+     * @return details of user, or null when notModified accepted the tag
+     * @throws UserNotFoundException if user uuid is not found in database
+     * @throws AuthorizationFailedException if authorization details are invalid
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public UserEntity getUser(final String userUuid, final String accessToken, final Predicate<String> notModified) throws UserNotFoundException, AuthorizationFailedException {
 
         UserAuthTokenEntity userAuthTokenEntity = userDao.getUserByAccessToken(accessToken);
 
@@ -40,6 +69,10 @@ public class CommonService {
             throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to get user details");
         }
 
+        if (notModified.test(resourceVersions.userTag(userUuid))) {
+            return null;
+        }
+
         //Check if uuid  exist in database
         UserEntity userEntityByUuid = userDao.getUserByUuid(userUuid);
         if (userEntityByUuid == null) {
@@ -48,4 +81,74 @@ public class CommonService {
         return userEntityByUuid;
     }
 
+    /**
+     * Sparse variant of getUser, only the requested profile columns are read
+     * @param userUuid for getting the details of user
+     * @param accessToken for validation
+     * @param fields columns to read, in the order they appear in the returned row
+     * @param notModified returns true when the caller already holds the tagged version
+     * @return values of the fields, or null when notModified accepted the tag
+     * @throws UserNotFoundException if user uuid is not found in database
+     * @throws AuthorizationFailedException if authorization details are invalid
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public Object[] getUserFields(final String userUuid, final String accessToken, final List<UserField> fields, final Predicate<String> notModified) throws UserNotFoundException, AuthorizationFailedException {
+
+        UserAuthTokenEntity userAuthTokenEntity = userDao.getUserByAccessToken(accessToken);
+
+        //Check if accessToken enter by user exist in database
+        if (userAuthTokenEntity == null) {
+            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+        }
+
+        //Check if user has signOut
+        if (userAuthTokenEntity.getLogoutAt() != null && userAuthTokenEntity.getLogoutAt().isAfter(userAuthTokenEntity.getLoginAt())) {
+            throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to get user details");
+        }
+
+        if (notModified.test(resourceVersions.userTag(userUuid))) {
+            return null;
+        }
+
+        List<String> paths = new ArrayList<>(fields.size());
+        for (UserField field : fields) {
+            paths.add(field.getPath());
+        }
+        //Check if uuid  exist in database
+        Object[] values = userDao.getUserColumnsByUuid(userUuid, paths);
+        if (values == null) {
+            throw new UserNotFoundException("USR-001", "User with entered uuid does not exist");
+        }
+        return values;
+    }
+
+    /**
+     * Service implementation for the multi-user profile endpoint, the token is validated once
+     * and all profiles are read with a single IN query
+     * @param userUuids uuids of the users, duplicates are returned once
+     * @param accessToken for validation
+     * @return rows of [uuid, firstName, lastName, username, email, country, aboutMe, dob, contactNumber] in the order of userUuids, unknown uuids are skipped
+     * @throws AuthorizationFailedException if authorization details are invalid
+     * @throws BatchSizeExceededException if more than quora.multi-get.max-ids users are requested
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<Object[]> getUsers(final List<String> userUuids, final String accessToken) throws AuthorizationFailedException, BatchSizeExceededException {
+
+        final Set<String> distinctUuids = MultiGet.distinct(userUuids, maxIds);
+
+        UserAuthTokenEntity userAuthTokenEntity = userDao.getUserByAccessToken(accessToken);
+
+        //Check if accessToken enter by user exist in database
+        if (userAuthTokenEntity == null) {
+            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+        }
+
+        //Check if user has signOut
+        if (userAuthTokenEntity.getLogoutAt() != null && userAuthTokenEntity.getLogoutAt().isAfter(userAuthTokenEntity.getLoginAt())) {
+            throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to get user details");
+        }
+
+        return MultiGet.inOrder(distinctUuids, userDao.getUserProfilesByUuids(distinctUuids));
+    }
+
 }
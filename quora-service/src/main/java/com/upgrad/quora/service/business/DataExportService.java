@@ -0,0 +1,165 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.dao.RowHandler;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class for the admin bulk export of questions, answers and users.
+ * Rows are read in id order, one page per short read-only transaction, and handed out one at a time. The export
+ * paces itself to a configured number of rows per second so that it does not starve the regular traffic, and
+ * neither the pacing nor a slow client holds a pooled connection, which is only taken while a page is read.
+ * The id of every row is exported as its cursor. An interrupted export resumes after the last cursor received,
+ * rows added or removed in between are neither skipped nor repeated.
+ */
+@Service
+public class DataExportService {
+
+    //Used when no since filter is given, older than any row in the database
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Exportable resources and the field names of their rows, in select order, the cursor is always last
+     */
+    public enum Resource {
+        QUESTIONS("id", "content", "date", "user_id", "cursor"),
+        ANSWERS("id", "answer", "date", "question_id", "user_id", "cursor"),
+        USERS("id", "first_name", "last_name", "user_name", "email_address", "country", "aboutMe", "dob", "contact_number", "role", "cursor");
+
+        private final String[] fields;
+
+        Resource(final String... fields) {
+            this.fields = fields;
+        }
+
+        public String[] getFields() {
+            return fields.clone();
+        }
+    }
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private UserAdminService userAdminService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private QuestionDao questionDao;
+
+    @Autowired
+    private AnswerDao answerDao;
+
+    @Value("${quora.export.page-size:1000}")
+    private int pageSize;
+
+    @Value("${quora.export.max-rows-per-second:5000}")
+    private int maxRowsPerSecond;
+
+    private TransactionTemplate readOnly;
+
+    @PostConstruct
+    public void start() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Service implementation of the export, only admins can export
+     *
+     * @param resource    resource to export
+     * @param accessToken for validation
+     * @param since       only questions and answers dated at or after this time are exported, ignored for users, may be null
+     * @param after       cursor of the last row already received, to resume an interrupted export, 0 to start
+     * @param rowHandler  receives the exported rows, with values in the order of Resource.getFields()
+     * @throws AuthorizationFailedException if the user is not signed in or is not an admin
+     * @throws IOException if the row handler fails
+     */
+    public void export(final Resource resource, final String accessToken, final LocalDateTime since, final int after, final RowHandler rowHandler)
+            throws AuthorizationFailedException, IOException {
+
+        userAdminService.authorizeAdmin(accessToken);
+
+        final RowHandler throttled = new Throttle(maxRowsPerSecond, rowHandler);
+        final LocalDateTime from = since == null ? BEGINNING : since;
+        int cursor = Math.max(0, after);
+        List<Object[]> page;
+        do {
+            final int pageAfter = cursor;
+            page = readOnly.execute(status -> readPage(resource, from, pageAfter));
+            for (Object[] row : page) {
+                throttled.handle(row);
+            }
+            if (!page.isEmpty()) {
+                Object[] last = page.get(page.size() - 1);
+                cursor = (Integer) last[last.length - 1];
+            }
+        } while (page.size() == pageSize);
+    }
+
+    private List<Object[]> readPage(final Resource resource, final LocalDateTime since, final int after) {
+        switch (resource) {
+            case QUESTIONS:
+                return questionDao.getQuestionsForExport(since, after, pageSize);
+            case ANSWERS:
+                return answerDao.getAnswersForExport(since, after, pageSize);
+            default:
+                return userDao.getUsersForExport(after, pageSize);
+        }
+    }
+
+    /**
+     * Passes rows through and sleeps whenever more than the allowed number of rows went out within the current second.
+     */
+    private static final class Throttle implements RowHandler {
+
+        private final int rowsPerSecond;
+
+        private final RowHandler delegate;
+
+        private long windowStart = System.nanoTime();
+
+        private int rowsInWindow;
+
+        private Throttle(final int rowsPerSecond, final RowHandler delegate) {
+            this.rowsPerSecond = rowsPerSecond;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void handle(final Object[] row) throws IOException {
+            if (rowsPerSecond > 0 && ++rowsInWindow > rowsPerSecond) {
+                long elapsed = System.nanoTime() - windowStart;
+                long wait = TimeUnit.SECONDS.toNanos(1) - elapsed;
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+                    }
+                }
+                windowStart = System.nanoTime();
+                rowsInWindow = 1;
+            }
+            delegate.handle(row);
+        }
+    }
+}
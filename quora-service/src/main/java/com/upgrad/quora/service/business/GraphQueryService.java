@@ -0,0 +1,88 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.UserAuthTokenEntity;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service class behind the GraphQL endpoint. Every lookup takes a batch of keys and runs a single IN query
+ * selecting scalar columns, so the batched loaders of a GraphQL request never trigger per-row or eager fetches.
+ * The lookups of lists return at most limit rows per key.
+ */
+@Service
+public class GraphQueryService {
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private QuestionDao questionDao;
+
+    @Autowired
+    private AnswerDao answerDao;
+
+    /**
+     * Validates the token once for the whole GraphQL request
+     *
+     * @param accessToken for validation
+     * @throws AuthorizationFailedException if the user is not signed in
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public void authorize(final String accessToken) throws AuthorizationFailedException {
+
+        UserAuthTokenEntity userAuthTokenEntity = userDao.getUserAuthToken(accessToken);
+
+        //Check if the access token provided by the user does not exist in the database
+        if (userAuthTokenEntity == null) {
+            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+        }
+
+        //Check if the user has signed out
+        if (userAuthTokenEntity.getLogoutAt() != null && userAuthTokenEntity.getLogoutAt().isAfter(userAuthTokenEntity.getLoginAt())) {
+            throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to run queries");
+        }
+    }
+
+    /**
+     * @return rows of [uuid, content, date, user uuid]
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<Object[]> getQuestionsByUuids(final Collection<String> questionUuids) {
+        return questionDao.getQuestionRowsByUuids(questionUuids);
+    }
+
+    /**
+     * @param limit questions per user
+     * @return rows of [uuid, content, date, user uuid]
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<Object[]> getQuestionsByUserUuids(final Collection<String> userUuids, final int limit) {
+        return questionDao.getQuestionRowsByUserUuids(userUuids, limit);
+    }
+
+    /**
+     * @param limit answers per question
+     * @return rows of [uuid, answer, date, question uuid, user uuid]
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<Object[]> getAnswersByQuestionUuids(final Collection<String> questionUuids, final int limit) {
+        return answerDao.getAnswerRowsByQuestionUuids(questionUuids, limit);
+    }
+
+    /**
+     * @return rows of [uuid, firstName, lastName, username, email, country, aboutMe, dob, contactNumber]
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<Object[]> getUsersByUuids(final Collection<String> userUuids) {
+        return userDao.getUserProfilesByUuids(userUuids);
+    }
+}
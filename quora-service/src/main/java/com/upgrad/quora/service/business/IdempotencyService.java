@@ -0,0 +1,260 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.common.RequestDeadline;
+import com.upgrad.quora.service.dao.IdempotencyKeyDao;
+import com.upgrad.quora.service.entity.IdempotencyKeyEntity;
+import com.upgrad.quora.service.exception.IdempotencyKeyException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class keeping the responses of requests sent with an idempotency key, so that retries of a request are
+ * answered with the response of the original instead of running it again.
+ * The first request under a key claims it and runs, concurrent duplicates wait for it to complete and then replay
+ * its response. When the original fails the claim is abandoned and one of the waiting duplicates runs instead.
+ * Keys are kept in memory by default, with the "database" store they are kept in the IDEMPOTENCY_KEY table and
+ * claimed with a unique insert, so that duplicates sent to different nodes are recognised as well.
+ * A claim in the database outlives the longest deadline a request can be given, after which it is taken to belong
+ * to a node that went away. The response is only stored while the claim is still held, see {@link Claim}.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final String DATABASE_STORE = "database";
+
+    @Autowired
+    private IdempotencyKeyDao idempotencyKeyDao;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${quora.idempotency.store:memory}")
+    private String store;
+
+    @Value("${quora.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${quora.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${quora.deadline.max-ms:60000}")
+    private long maxDeadlineMs;
+
+    //Added to the longest deadline for the time a request spends before its deadline starts and after it ends
+    @Value("${quora.idempotency.claim-margin-ms:30000}")
+    private long claimMarginMs;
+
+    @Value("${quora.idempotency.poll-interval-ms:50}")
+    private long pollIntervalMs;
+
+    @Value("${quora.idempotency.purge-interval-ms:60000}")
+    private long purgeIntervalMs;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextPurge = new AtomicLong();
+
+    private static final class Entry {
+
+        private final String fingerprint;
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private volatile IdempotentResponse response;
+
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private Entry(final String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * Outcome of {@link #begin}: either the response to replay, or the claim of the calling request, which it
+     * passes to {@link #complete} or {@link #abandon}. A claim is identified by its row in the database store and
+     * by its entry in the memory store, so that it cannot complete or release the claim of a later request.
+     */
+    public static final class Claim {
+
+        private final String key;
+
+        private final IdempotentResponse response;
+
+        private final Long id;
+
+        private final Entry entry;
+
+        private Claim(final String key, final IdempotentResponse response, final Long id, final Entry entry) {
+            this.key = key;
+            this.response = response;
+            this.id = id;
+            this.entry = entry;
+        }
+
+        /**
+         * @return the response to replay, null if the caller holds the claim and must run the request
+         */
+        public IdempotentResponse getResponse() {
+            return response;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Claims the key for the calling request, or waits for the request holding the claim
+     *
+     * @param key         idempotency key, scoped to the caller
+     * @param fingerprint digest of the request, a retry must send the same request as the original
+     * @return the claim of the caller, or the response to replay
+     * @throws IdempotencyKeyException IDEM-001 if the key was used for a different request,
+     *                                 IDEM-002 if the original request is still running after the wait timeout,
+     *                                 or when the deadline of the calling request comes first
+     */
+    public Claim begin(final String key, final String fingerprint) throws IdempotencyKeyException {
+        purgeExpiredIfDue();
+        final long deadline = System.currentTimeMillis() + Math.min(waitTimeoutMs, RequestDeadline.remainingMillis());
+        return DATABASE_STORE.equals(store) ? beginInDatabase(key, fingerprint, deadline) : beginInMemory(key, fingerprint, deadline);
+    }
+
+    /**
+     * Stores the response of the request that claimed the key and releases the waiting duplicates.
+     * Nothing is stored if the claim expired and was taken by another request in the meantime.
+     */
+    public void complete(final Claim claim, final IdempotentResponse response) {
+        if (claim.id != null) {
+            transactionTemplate.execute(status -> idempotencyKeyDao.completeIdempotencyKey(claim.id, response.getStatus(),
+                    response.encodeHeaders(), response.getBody(), LocalDateTime.now().plusMinutes(ttlMinutes)));
+            return;
+        }
+        if (entries.get(claim.key) == claim.entry) {
+            claim.entry.response = response;
+            claim.entry.expiresAt = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(ttlMinutes);
+        }
+        claim.entry.done.countDown();
+    }
+
+    /**
+     * Releases the claim of a request that failed, so that the next duplicate runs the request again
+     */
+    public void abandon(final Claim claim) {
+        if (claim.id != null) {
+            transactionTemplate.execute(status -> {
+                idempotencyKeyDao.deletePendingIdempotencyKey(claim.id);
+                return null;
+            });
+            return;
+        }
+        entries.remove(claim.key, claim.entry);
+        claim.entry.done.countDown();
+    }
+
+    private Claim beginInMemory(final String key, final String fingerprint, final long deadline) throws IdempotencyKeyException {
+        while (true) {
+            Entry entry = new Entry(fingerprint);
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                return new Claim(key, null, null, entry);
+            }
+            if (existing.expiresAt < System.currentTimeMillis()) {
+                entries.remove(key, existing);
+                continue;
+            }
+            checkFingerprint(existing.fingerprint, fingerprint);
+            try {
+                if (!existing.done.await(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                    throw inProgress();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw inProgress();
+            }
+            if (existing.response != null) {
+                return new Claim(key, existing.response, null, null);
+            }
+            //The original failed and released its claim, try to claim the key again
+        }
+    }
+
+    private Claim beginInDatabase(final String key, final String fingerprint, final long deadline) throws IdempotencyKeyException {
+        final long claimMs = Math.max(maxDeadlineMs, waitTimeoutMs) + claimMarginMs;
+        while (true) {
+            final LocalDateTime now = LocalDateTime.now();
+            //The pending row expires once the original must have ended, so that the claim of a node that died is given up
+            Long id = transactionTemplate.execute(status ->
+                    idempotencyKeyDao.claim(key, fingerprint, now, now.plusNanos(TimeUnit.MILLISECONDS.toNanos(claimMs))));
+            if (id != null) {
+                return new Claim(key, null, id, null);
+            }
+            IdempotencyKeyEntity existing = transactionTemplate.execute(status -> idempotencyKeyDao.getIdempotencyKey(key));
+            if (existing == null) {
+                continue;
+            }
+            if (existing.getExpiresAt().isBefore(now)) {
+                transactionTemplate.execute(status -> {
+                    idempotencyKeyDao.deleteExpiredIdempotencyKey(key, now);
+                    return null;
+                });
+                continue;
+            }
+            checkFingerprint(existing.getFingerprint(), fingerprint);
+            if (existing.getStatus() != null) {
+                return new Claim(key, new IdempotentResponse(existing.getStatus(), IdempotentResponse.decodeHeaders(existing.getHeaders()),
+                        existing.getBody()), null, null);
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw inProgress();
+            }
+            try {
+                Thread.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw inProgress();
+            }
+        }
+    }
+
+    private void purgeExpiredIfDue() {
+        long now = System.currentTimeMillis();
+        long due = nextPurge.get();
+        if (now < due || !nextPurge.compareAndSet(due, now + purgeIntervalMs)) {
+            return;
+        }
+        if (DATABASE_STORE.equals(store)) {
+            transactionTemplate.execute(status -> idempotencyKeyDao.deleteExpiredIdempotencyKeys(LocalDateTime.now()));
+            return;
+        }
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().expiresAt < now) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void checkFingerprint(final String stored, final String fingerprint) throws IdempotencyKeyException {
+        if (!stored.equals(fingerprint)) {
+            throw new IdempotencyKeyException("IDEM-001", "The idempotency key was already used for a different request");
+        }
+    }
+
+    private static IdempotencyKeyException inProgress() {
+        return new IdempotencyKeyException("IDEM-002", "A request with the same idempotency key is still in progress");
+    }
+}
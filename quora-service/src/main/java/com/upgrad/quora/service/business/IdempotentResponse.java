@@ -0,0 +1,62 @@
+package com.upgrad.quora.service.business;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response of a request sent with an idempotency key, as replayed to retries of the request
+ */
+public final class IdempotentResponse {
+
+    private final int status;
+
+    private final Map<String, List<String>> headers;
+
+    private final byte[] body;
+
+    public IdempotentResponse(final int status, final Map<String, List<String>> headers, final byte[] body) {
+        this.status = status;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+        this.body = body;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    //One "name: value" line per header value, header values cannot contain line breaks
+    String encodeHeaders() {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                encoded.append(header.getKey()).append(": ").append(value).append('\n');
+            }
+        }
+        return encoded.toString();
+    }
+
+    static Map<String, List<String>> decodeHeaders(final String encoded) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        if (encoded == null) {
+            return headers;
+        }
+        for (String line : encoded.split("\n")) {
+            int colon = line.indexOf(": ");
+            if (colon > 0) {
+                headers.computeIfAbsent(line.substring(0, colon), name -> new ArrayList<>()).add(line.substring(colon + 2));
+            }
+        }
+        return headers;
+    }
+}
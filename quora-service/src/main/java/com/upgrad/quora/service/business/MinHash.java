@@ -0,0 +1,134 @@
+package com.upgrad.quora.service.business;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * This class computes MinHash signatures of question content.
+ * The content is normalised, cut into overlapping character shingles and each of the
+ * SIGNATURE_LENGTH hash functions keeps the minimum hash seen over all shingles.
+ * The fraction of equal positions in two signatures estimates the Jaccard similarity of the shingle sets.
+ */
+public final class MinHash {
+
+    public static final int SIGNATURE_LENGTH = 128;
+
+    public static final int BANDS = 32;
+
+    public static final int ROWS_PER_BAND = SIGNATURE_LENGTH / BANDS;
+
+    private static final int SHINGLE_LENGTH = 4;
+
+    private static final long[] SEEDS = new long[SIGNATURE_LENGTH];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /**
+     * This method computes the signature of the given text
+     *
+     * @param content question content
+     * @return signature with SIGNATURE_LENGTH entries
+     */
+    public static int[] signature(final String content) {
+        final String text = normalise(content);
+        final int[] signature = new int[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        if (text.isEmpty()) {
+            return signature;
+        }
+        final int shingles = Math.max(1, text.length() - SHINGLE_LENGTH + 1);
+        for (int start = 0; start < shingles; start++) {
+            int shingleHash = 0;
+            for (int i = start, end = Math.min(text.length(), start + SHINGLE_LENGTH); i < end; i++) {
+                shingleHash = 31 * shingleHash + text.charAt(i);
+            }
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                int hash = (int) (mix(shingleHash ^ SEEDS[i]) >>> 33);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * This method estimates the Jaccard similarity of the two signatures
+     *
+     * @return value between 0 and 1
+     */
+    public static double similarity(final int[] first, final int[] second) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (first[i] == second[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_LENGTH;
+    }
+
+    /**
+     * This method hashes the rows of one band, used as the LSH bucket key
+     *
+     * @param signature question signature
+     * @param band      band index between 0 and BANDS - 1
+     * @return bucket key which is unique across bands
+     */
+    public static long bandKey(final int[] signature, final int band) {
+        long hash = band;
+        for (int i = band * ROWS_PER_BAND, end = i + ROWS_PER_BAND; i < end; i++) {
+            hash = mix(hash * 31 + signature[i]);
+        }
+        return (hash & 0xFFFFFFFFFFFFFF00L) | band;
+    }
+
+    public static byte[] toBytes(final int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    public static int[] fromBytes(final byte[] bytes) {
+        if (bytes == null || bytes.length != SIGNATURE_LENGTH * Integer.BYTES) {
+            return null;
+        }
+        int[] signature = new int[SIGNATURE_LENGTH];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+
+    private static String normalise(final String content) {
+        if (content == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder(content.length());
+        boolean space = true;
+        for (char c : content.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                text.append(c);
+                space = false;
+            } else if (!space) {
+                text.append(' ');
+                space = true;
+            }
+        }
+        int length = text.length();
+        return space && length > 0 ? text.substring(0, length - 1) : text.toString();
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
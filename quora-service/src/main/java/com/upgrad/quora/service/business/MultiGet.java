@@ -0,0 +1,59 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.exception.BatchSizeExceededException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Helpers shared by the multi-get services, which look up a list of uuids with one IN query.
+ */
+final class MultiGet {
+
+    private MultiGet() {
+    }
+
+    /**
+     * @param uuids requested uuids, possibly with duplicates
+     * @param max   largest number of distinct uuids accepted
+     * @return the distinct uuids in order of first occurrence
+     * @throws BatchSizeExceededException if there are more than max distinct uuids
+     */
+    static Set<String> distinct(final List<String> uuids, final int max) throws BatchSizeExceededException {
+        final Set<String> distinct = new LinkedHashSet<>();
+        for (String uuid : uuids) {
+            if (uuid != null && !uuid.isEmpty()) {
+                distinct.add(uuid);
+            }
+        }
+        if (distinct.size() > max) {
+            throw new BatchSizeExceededException("BATCH-001", "At most " + max + " ids can be requested at once");
+        }
+        return distinct;
+    }
+
+    /**
+     * @param uuids uuids in the order the rows should be returned
+     * @param rows  query result rows, with the uuid in the first column
+     * @return the rows in the order of uuids, uuids without a row are skipped
+     */
+    static List<Object[]> inOrder(final Collection<String> uuids, final List<Object[]> rows) {
+        final Map<String, Object[]> rowsByUuid = new HashMap<>();
+        for (Object[] row : rows) {
+            rowsByUuid.put((String) row[0], row);
+        }
+        final List<Object[]> ordered = new ArrayList<>(rows.size());
+        for (String uuid : uuids) {
+            Object[] row = rowsByUuid.get(uuid);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+}
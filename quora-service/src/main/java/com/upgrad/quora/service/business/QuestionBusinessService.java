@@ -1,15 +1,28 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.common.SingleFlights;
+import com.upgrad.quora.service.common.TransactionCallbacks;
 import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.dao.ResourceVersions;
+import com.upgrad.quora.service.dao.RowHandler;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.QuestionEntity;
 import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.BatchSizeExceededException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +40,21 @@ public class QuestionBusinessService {
     @Autowired
     UserDao userDao;
 
+    @Autowired
+    QuestionSimilarityIndex questionSimilarityIndex;
+
+    @Autowired
+    ResourceVersions resourceVersions;
+
+    @Autowired
+    SingleFlights singleFlights;
+
+    @Value("${quora.listing.fetch-size:500}")
+    int fetchSize;
+
+    @Value("${quora.multi-get.max-ids:100}")
+    int maxIds;
+
     /**
      * Service class implementation for creating a question,
      * This method takes questionEntity as input and creates a question
@@ -51,8 +79,12 @@ public class QuestionBusinessService {
         }
 
         questionEntity.setUser(userAuth.getUser());
+        final int[] signature = MinHash.signature(questionEntity.getContent());
+        questionEntity.setMinhash(MinHash.toBytes(signature));
 
         questionDao.createQuestionForUser(questionEntity);
+        final String uuid = questionEntity.getUuid();
+        TransactionCallbacks.afterCommit(() -> questionSimilarityIndex.add(uuid, signature));
         return questionEntity;
 
     }
@@ -61,11 +93,24 @@ public class QuestionBusinessService {
      * Service class implementation for getting all question
      * This method takes authentication token as input and returns list of all questions
      * @param token to check if token is available
-     * @return List of question entity object containing all questions
+     * @return [uuid, content] of every question, the rows are shared read-only
      * @throws AuthorizationFailedException
      */
     @Transactional(propagation = Propagation.REQUIRED)
-    public List<QuestionEntity> getAllQuestions(String token) throws AuthorizationFailedException {
+    public List<Object[]> getAllQuestions(String token) throws AuthorizationFailedException {
+        return getAllQuestions(token, tag -> false);
+    }
+
+    /**
+     * Conditional variant of getAllQuestions, the version tag of the question list is offered to notModified
+     * after the token has been validated and before the list query runs.
+     * @param token to check if token is available
+     * @param notModified returns true when the caller already holds the tagged version
+     * @return [uuid, content] of every question, or null when notModified accepted the tag
+     * @throws AuthorizationFailedException
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<Object[]> getAllQuestions(String token, Predicate<String> notModified) throws AuthorizationFailedException {
 
         UserAuthTokenEntity userAuth = userDao.getUserAuthToken(token);
         //Check if access token provided by user exist in data base
@@ -77,8 +122,15 @@ public class QuestionBusinessService {
             throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to get all questions");
         }
 
-        List<QuestionEntity> questionEntityList = questionDao.getAllQuestions();
-        return questionEntityList;
+        final String questionsTag = resourceVersions.questionsTag();
+        if (notModified.test(questionsTag)) {
+            return null;
+        }
+
+        //Concurrent listings of the same version of the questions share one query. Only scalar rows are shared,
+        //entities belong to the session of the leader and must not reach the other request threads.
+        return singleFlights.<List<Object[]>>get("all-questions")
+                .execute(questionsTag, () -> Collections.unmodifiableList(questionDao.getAllQuestionSummaries()));
 
     }
 
@@ -117,6 +169,9 @@ public class QuestionBusinessService {
             throw new AuthorizationFailedException("ATHR-003", "Only the question owner can edit the question");
         }
         currentQuestionEntity.setContent(questionEntity.getContent());
+        final int[] signature = MinHash.signature(questionEntity.getContent());
+        currentQuestionEntity.setMinhash(MinHash.toBytes(signature));
+        TransactionCallbacks.afterCommit(() -> questionSimilarityIndex.add(questUuid, signature));
         return questionDao.editQuestion(currentQuestionEntity);
 
     }
@@ -157,6 +212,7 @@ public class QuestionBusinessService {
         if (!questionEntity.getUser().getUuid().equals(userAuth.getUser().getUuid())) {
             throw new AuthorizationFailedException("ATHR-003", "Only the question owner or admin can delete the question");
         }
+        TransactionCallbacks.afterCommit(() -> questionSimilarityIndex.remove(questUuid));
         return questionDao.deleteQuestion(questionEntity);
 
     }
@@ -174,6 +230,21 @@ public class QuestionBusinessService {
 
     @Transactional(propagation = Propagation.REQUIRED)
     public List<QuestionEntity> getAllQuestionByUser(String userUuid, String token) throws AuthorizationFailedException, UserNotFoundException {
+        return getAllQuestionByUser(userUuid, token, tag -> false);
+    }
+
+    /**
+     * Conditional variant of getAllQuestionByUser, see getAllQuestions(String, Predicate)
+     *
+     * @param userUuid get all Question related to this id
+     * @param token validating access
+     * @param notModified returns true when the caller already holds the tagged version
+     * @return List of all Questions, or null when notModified accepted the tag
+     * @throws AuthorizationFailedException if authorization conditions fail
+     * @throws UserNotFoundException if id not found
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<QuestionEntity> getAllQuestionByUser(String userUuid, String token, Predicate<String> notModified) throws AuthorizationFailedException, UserNotFoundException {
 
         UserAuthTokenEntity userAuth = userDao.getUserAuthToken(token);
 
@@ -192,10 +263,109 @@ public class QuestionBusinessService {
         if (userEntity == null) {
             throw new UserNotFoundException("USR-001", "User with entered uuid whose question details are to be seen does not exist");
         }
+
+        if (notModified.test(resourceVersions.userQuestionsTag(userUuid))) {
+            return null;
+        }
         return userEntity.getQuestionList();
 
     }
 
+    /**
+     * Service class implementation for finding questions that are likely duplicates of the given content
+     *
+     * @param content question text to compare against the existing questions
+     * @param token   for validating authorization
+     * @return similar questions, most similar first
+     * @throws AuthorizationFailedException if authorization fails
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<QuestionEntity> getSimilarQuestions(String content, String token) throws AuthorizationFailedException {
+
+        authorize(token, "User is signed out.Sign in first to get similar questions");
+
+        List<String> similarUuids = getSimilarQuestionUuids(content);
+        Map<String, QuestionEntity> questionsByUuid = new HashMap<>();
+        for (QuestionEntity questionEntity : questionDao.getQuestionsByUuids(similarUuids)) {
+            questionsByUuid.put(questionEntity.getUuid(), questionEntity);
+        }
+        //Keep the similarity order, questions deleted since they were indexed are skipped
+        List<QuestionEntity> similarQuestions = new ArrayList<>(similarUuids.size());
+        for (String uuid : similarUuids) {
+            QuestionEntity questionEntity = questionsByUuid.get(uuid);
+            if (questionEntity != null) {
+                similarQuestions.add(questionEntity);
+            }
+        }
+        return similarQuestions;
+    }
+
+    /**
+     * Service class implementation for getting several questions by uuid with a single IN query
+     *
+     * @param questionUuids uuids of the questions, duplicates are returned once
+     * @param token         for validating authorization
+     * @return rows of [uuid, content] in the order of questionUuids, unknown uuids are skipped
+     * @throws AuthorizationFailedException if authorization fails
+     * @throws BatchSizeExceededException   if more than quora.multi-get.max-ids questions are requested
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<Object[]> getQuestionsByUuids(List<String> questionUuids, String token) throws AuthorizationFailedException, BatchSizeExceededException {
+
+        Set<String> distinctUuids = MultiGet.distinct(questionUuids, maxIds);
+        authorize(token, "User is signed out.Sign in first to get the questions");
+        return MultiGet.inOrder(distinctUuids, questionDao.getQuestionSummariesByUuids(distinctUuids));
+    }
+
+    /**
+     * Streaming variant of getAllQuestions, the questions are read with a forward-only cursor and handed to
+     * the row handler one at a time instead of being collected into a list.
+     *
+     * @param token       for validating authorization
+     * @param notModified returns true when the caller already holds the tagged version
+     * @param rowHandler  receives [uuid, content] of every question
+     * @return false if notModified accepted the tag and nothing was read
+     * @throws AuthorizationFailedException if authorization fails
+     * @throws IOException if the row handler fails
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public boolean streamAllQuestions(String token, Predicate<String> notModified, RowHandler rowHandler) throws AuthorizationFailedException, IOException {
+
+        authorize(token, "User is signed out.Sign in first to get all questions");
+
+        if (notModified.test(resourceVersions.questionsTag())) {
+            return false;
+        }
+        questionDao.scrollAllQuestions(fetchSize, rowHandler);
+        return true;
+    }
+
+    /**
+     * Looks up the similarity index only, used to warn about likely duplicates when a question is created
+     *
+     * @param content question text
+     * @return uuids of similar questions, most similar first
+     */
+    public List<String> getSimilarQuestionUuids(String content) {
+        return questionSimilarityIndex.findSimilar(MinHash.signature(content));
+    }
+
+    private UserAuthTokenEntity authorize(String token, String signedOutMessage) throws AuthorizationFailedException {
+
+        UserAuthTokenEntity userAuth = userDao.getUserAuthToken(token);
+
+        //check if access token exist or not
+        if (userAuth == null) {
+            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+        }
+
+        //Check if user has signed out
+        if (userAuth.getLogoutAt() != null && userAuth.getLogoutAt().isAfter(userAuth.getLoginAt())) {
+            throw new AuthorizationFailedException("ATHR-002", signedOutMessage);
+        }
+        return userAuth;
+    }
+
 
 
 }
\ No newline at end of file
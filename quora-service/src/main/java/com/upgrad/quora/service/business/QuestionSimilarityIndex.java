@@ -0,0 +1,172 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.dao.QuestionDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory LSH band index over the MinHash signatures of all questions.
+ * Each signature is split into MinHash.BANDS bands and the question is put in one bucket per band,
+ * questions sharing at least one bucket are candidates and are ranked by their estimated similarity.
+ * A rebuild fills a new index and swaps it in, the questions added and removed while it loads are applied to the
+ * new index as well, so that lookups never see a partial index and no change made meanwhile is lost.
+ */
+@Component
+public class QuestionSimilarityIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QuestionSimilarityIndex.class);
+
+    @Value("${quora.question.similarity.threshold:0.6}")
+    private double threshold;
+
+    @Value("${quora.question.similarity.max-results:10}")
+    private int maxResults;
+
+    @Autowired
+    private QuestionDao questionDao;
+
+    private volatile Index index = new Index();
+
+    //Changes made while a rebuild loads, null when no rebuild is running, guarded by this
+    private List<Consumer<Index>> changesDuringRebuild;
+
+    private static final class Index {
+
+        private final Map<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+
+        private final Map<String, int[]> signatures = new ConcurrentHashMap<>();
+
+        private void add(final String uuid, final int[] signature) {
+            remove(uuid);
+            signatures.put(uuid, signature);
+            for (int band = 0; band < MinHash.BANDS; band++) {
+                //Adds and removals of a bucket are atomic, so a bucket emptied by remove is never dropped with a new uuid in it
+                buckets.compute(MinHash.bandKey(signature, band), (key, bucket) -> {
+                    Set<String> members = bucket != null ? bucket : ConcurrentHashMap.<String>newKeySet();
+                    members.add(uuid);
+                    return members;
+                });
+            }
+        }
+
+        private void remove(final String uuid) {
+            int[] previous = signatures.remove(uuid);
+            if (previous == null) {
+                return;
+            }
+            for (int band = 0; band < MinHash.BANDS; band++) {
+                buckets.computeIfPresent(MinHash.bandKey(previous, band), (key, bucket) -> {
+                    bucket.remove(uuid);
+                    return bucket.isEmpty() ? null : bucket;
+                });
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index from the QUESTION table once the application has started.
+     * Signatures stored with the question are reused, missing ones are computed from the content.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        final long start = System.currentTimeMillis();
+        synchronized (this) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        final Index rebuilt = new Index();
+        try {
+            List<Object[]> rows = questionDao.getAllQuestionSignatures();
+            rows.parallelStream().forEach(row -> {
+                int[] signature = MinHash.fromBytes((byte[]) row[2]);
+                rebuilt.add((String) row[0], signature != null ? signature : MinHash.signature((String) row[1]));
+            });
+        } finally {
+            synchronized (this) {
+                //Replayed in order on top of the loaded rows, the changes are idempotent
+                changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+                changesDuringRebuild = null;
+                index = rebuilt;
+            }
+        }
+        LOG.info("Question similarity index rebuilt with {} questions in {} ms", rebuilt.signatures.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Adds or replaces the signature of a question
+     *
+     * @param uuid      question uuid
+     * @param signature MinHash signature of the question content
+     */
+    public void add(final String uuid, final int[] signature) {
+        change(target -> target.add(uuid, signature));
+    }
+
+    /**
+     * Removes a question from the index, buckets left empty are dropped
+     *
+     * @param uuid question uuid
+     */
+    public void remove(final String uuid) {
+        change(target -> target.remove(uuid));
+    }
+
+    private synchronized void change(final Consumer<Index> change) {
+        change.accept(index);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    /**
+     * Returns the uuids of the indexed questions most similar to the signature, best match first
+     *
+     * @param signature MinHash signature of the content to look up
+     * @return uuids with an estimated similarity above the configured threshold
+     */
+    public List<String> findSimilar(final int[] signature) {
+        final Index index = this.index;
+        Map<String, Double> scores = new HashMap<>();
+        for (int band = 0; band < MinHash.BANDS; band++) {
+            Set<String> bucket = index.buckets.get(MinHash.bandKey(signature, band));
+            if (bucket == null) {
+                continue;
+            }
+            for (String uuid : bucket) {
+                if (scores.containsKey(uuid)) {
+                    continue;
+                }
+                int[] candidate = index.signatures.get(uuid);
+                if (candidate != null) {
+                    scores.put(uuid, MinHash.similarity(signature, candidate));
+                }
+            }
+        }
+        List<String> similar = new ArrayList<>();
+        scores.entrySet().stream()
+                .filter(score -> score.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()))
+                .limit(maxResults)
+                .forEach(score -> similar.add(score.getKey()));
+        return similar;
+    }
+
+    public int size() {
+        return index.signatures.size();
+    }
+}
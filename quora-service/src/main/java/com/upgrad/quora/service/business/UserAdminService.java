@@ -1,5 +1,9 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.common.SingleFlight;
+import com.upgrad.quora.service.common.SingleFlights;
+import com.upgrad.quora.service.common.TransactionCallbacks;
+import com.upgrad.quora.service.dao.QuestionDao;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
@@ -9,12 +13,24 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import com.upgrad.quora.service.exception.*;
 
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class UserAdminService {
 
     @Autowired
     private UserDao userDao;
 
+    @Autowired
+    private SingleFlights singleFlights;
+
+    @Autowired
+    private QuestionDao questionDao;
+
+    @Autowired
+    private QuestionSimilarityIndex questionSimilarityIndex;
+
 
     /**
      * Service class for user delete if user is having admin role
@@ -52,8 +68,49 @@ public class UserAdminService {
             throw new AuthorizationFailedException("ATHR-003", "Unauthorized Access, Entered user is not an admin");
         }
 
+        //The questions of the user are deleted with the user
+        final List<String> questionUuids = questionDao.getQuestionUuidsByUser(userEntityByUuid);
+        TransactionCallbacks.afterCommit(() -> questionUuids.forEach(questionSimilarityIndex::remove));
         return userDao.deleteUser(userEntityByUuid);
     }
 
+    /**
+     * Service class for the counters of the coalesced read paths, only admins can read them
+     *
+     * @param accessToken for validation
+     * @return SingleFlight instances by name
+     * @throws AuthorizationFailedException violation of validation
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public Map<String, SingleFlight<?>> getSingleFlights(final String accessToken) throws AuthorizationFailedException {
+        authorizeAdmin(accessToken);
+        return singleFlights.getAll();
+    }
+
+    /**
+     * Validates that the token belongs to a signed in admin, for admin endpoints whose data is not in the database
+     *
+     * @param accessToken for validation
+     * @throws AuthorizationFailedException violation of validation
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public void authorizeAdmin(final String accessToken) throws AuthorizationFailedException {
+
+        final UserAuthTokenEntity userAuthTokenEntity = userDao.getUserByAccessToken(accessToken);
 
+        //Check if accessToken enter by user exist in database
+        if (userAuthTokenEntity == null) {
+            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+        }
+
+        //Check if user has signOut
+        if (userAuthTokenEntity.getLogoutAt() != null && userAuthTokenEntity.getLogoutAt().isAfter(userAuthTokenEntity.getLoginAt())) {
+            throw new AuthorizationFailedException("ATHR-002", "User is signed out");
+        }
+
+        // Check if user has role other than admin..
+        if (userAuthTokenEntity.getUser().getRole().equals("nonadmin")) {
+            throw new AuthorizationFailedException("ATHR-003", "Unauthorized Access, Entered user is not an admin");
+        }
+    }
 }
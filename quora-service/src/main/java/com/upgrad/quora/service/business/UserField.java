@@ -0,0 +1,25 @@
+package com.upgrad.quora.service.business;
+
+/**
+ * Profile columns that can be selected for a user with a sparse fieldset, the path is the JPQL expression on "u".
+ */
+public enum UserField {
+    FIRST_NAME("u.firstName"),
+    LAST_NAME("u.lastName"),
+    USER_NAME("u.username"),
+    EMAIL_ADDRESS("u.email"),
+    COUNTRY("u.country"),
+    ABOUT_ME("u.aboutMe"),
+    DOB("u.dob"),
+    CONTACT_NUMBER("u.contactNumber");
+
+    private final String path;
+
+    UserField(final String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,53 @@
+package com.upgrad.quora.service.common;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * JPA transaction manager that bounds the timeout of every transaction by the time left to the request deadline,
+ * see RequestDeadline. Hibernate applies the transaction timeout as the query timeout of each JDBC statement, so a
+ * slow query is cancelled by the database once the budget is spent and its connection goes back to the pool.
+ * A transaction is not started at all, and no connection taken, once the deadline has passed.
+ * <p>
+ * Commits get a span of their own in the request trace, see Tracing, so that the time and statements of the
+ * Hibernate flush are not attributed to whichever DAO call happened to run last.
+ */
+public class DeadlineAwareTransactionManager extends JpaTransactionManager {
+
+    public DeadlineAwareTransactionManager(final EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    protected void doBegin(final Object transaction, final TransactionDefinition definition) {
+        RequestDeadline.check();
+        super.doBegin(transaction, definition);
+    }
+
+    @Override
+    protected int determineTimeout(final TransactionDefinition definition) {
+        int timeout = super.determineTimeout(definition);
+        long remainingMillis = RequestDeadline.remainingMillis();
+        if (remainingMillis == Long.MAX_VALUE) {
+            return timeout;
+        }
+        //JDBC query timeouts have a granularity of seconds, a budget below one second still allows one second
+        int remainingSeconds = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (remainingMillis + 999) / 1000));
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remainingSeconds : Math.min(timeout, remainingSeconds);
+    }
+
+    @Override
+    protected void doCommit(final DefaultTransactionStatus status) {
+        Span span = Tracing.start("transaction", "commit");
+        try {
+            super.doCommit(status);
+        } catch (RuntimeException e) {
+            Tracing.finish(span, e);
+            throw e;
+        }
+        Tracing.finish(span, null);
+    }
+}
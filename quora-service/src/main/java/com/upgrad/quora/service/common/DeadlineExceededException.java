@@ -0,0 +1,13 @@
+package com.upgrad.quora.service.common;
+
+/**
+ * Thrown when the deadline of the request has passed before the work was done
+ */
+public class DeadlineExceededException extends UnexpectedException {
+
+    private static final long serialVersionUID = -3918462871535524418L;
+
+    public DeadlineExceededException() {
+        super(GenericErrorCode.GEN_004);
+    }
+}
@@ -10,7 +10,28 @@ public enum GenericErrorCode implements ErrorCode {
      * <b>Cause:</b> This error could have occurred due to undetermined runtime errors.<br>
      * <b>Action: None</b><br>
      */
-    GEN_001("GEN-001", "An unexpected error occurred. Please contact System Administrator");
+    GEN_001("GEN-001", "An unexpected error occurred. Please contact System Administrator"),
+
+    /**
+     * Error message: <b>The server is busy. Please retry later</b><br>
+     * <b>Cause:</b> All workers serving the request type are busy and their queue is full.<br>
+     * <b>Action: Retry the request later</b><br>
+     */
+    GEN_002("GEN-002", "The server is busy. Please retry later"),
+
+    /**
+     * Error message: <b>Too many requests. Please retry later</b><br>
+     * <b>Cause:</b> The client has used up the request rate allowed for its access token or address.<br>
+     * <b>Action: Retry the request after the number of seconds in the Retry-After header</b><br>
+     */
+    GEN_003("GEN-003", "Too many requests. Please retry later"),
+
+    /**
+     * Error message: <b>The request did not complete within its deadline</b><br>
+     * <b>Cause:</b> The time budget of the request, from the endpoint default or the client timeout header, ran out.<br>
+     * <b>Action: Retry the request later or with a longer timeout</b><br>
+     */
+    GEN_004("GEN-004", "The request did not complete within its deadline");
 
     private static final Map<String, GenericErrorCode> LOOKUP = new HashMap<String, GenericErrorCode>();
 
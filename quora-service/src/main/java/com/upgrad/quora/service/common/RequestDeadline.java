@@ -0,0 +1,64 @@
+package com.upgrad.quora.service.common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline of the request handled by the current thread, set by the web layer when the request arrives.
+ * DeadlineAwareTransactionManager turns the time left into the timeout of every transaction, which Hibernate and
+ * the shared EntityManager apply as the JDBC query timeout of every statement run in it.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * @param timeoutMillis time budget of the request from now
+     */
+    public static void start(final long timeoutMillis) {
+        DEADLINE.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    /**
+     * @return the deadline in System.nanoTime() terms, null if the current thread has none
+     */
+    public static Long get() {
+        return DEADLINE.get();
+    }
+
+    /**
+     * Hands the deadline obtained from {@link #get()} over to another thread
+     *
+     * @param deadlineNanos deadline to set, null to clear it
+     */
+    public static void set(final Long deadlineNanos) {
+        if (deadlineNanos == null) {
+            DEADLINE.remove();
+        } else {
+            DEADLINE.set(deadlineNanos);
+        }
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * @return milliseconds left, Long.MAX_VALUE if the current thread has no deadline
+     */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? Long.MAX_VALUE : TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    /**
+     * @throws DeadlineExceededException if the deadline of the current thread has passed
+     */
+    public static void check() {
+        if (remainingMillis() <= 0) {
+            throw new DeadlineExceededException();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.upgrad.quora.service.common;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls: while a call for a key is in flight, further callers with the same key
+ * wait for it and receive its result instead of running the call again. Nothing is kept once the call completes,
+ * so this is not a cache, callers arriving after completion start a new call.
+ * Results are shared between the coalesced callers and must be treated as read-only.
+ * A waiting caller gives up at its own RequestDeadline. When the call in flight fails after the deadline of the
+ * caller running it has passed, the failure is that caller's timeout, and the waiting callers run the call
+ * themselves, within their own deadlines, instead of failing with it.
+ *
+ * @param <V> result of the call
+ */
+public final class SingleFlight<V> {
+
+    private final Map<String, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder executions = new LongAdder();
+
+    private static final class Flight<V> {
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        //Deadline of the caller running the call, see RequestDeadline.get()
+        private final Long deadline = RequestDeadline.get();
+
+        private boolean failedAtDeadline() {
+            return result.isCancelled() || deadline != null && System.nanoTime() - deadline >= 0;
+        }
+    }
+
+    SingleFlight(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param key  identifies the call, it must cover every argument and the version of the data read
+     * @param call the call to run if none with the same key is in flight
+     * @return the result of the call, possibly run by another thread
+     */
+    public V execute(final String key, final Supplier<V> call) {
+        calls.increment();
+        if (!enabled) {
+            executions.increment();
+            return call.get();
+        }
+        while (true) {
+            Flight<V> own = new Flight<>();
+            Flight<V> leader = inFlight.putIfAbsent(key, own);
+            if (leader == null) {
+                return run(key, own, call);
+            }
+            awaitCompletion(leader);
+            if (!leader.result.isCompletedExceptionally() || !leader.failedAtDeadline()) {
+                return resultOf(leader);
+            }
+        }
+    }
+
+    /**
+     * @return number of calls made through execute
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * @return number of calls that were actually run
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * @return number of calls that shared the result of a call in flight
+     */
+    public long getCollapsed() {
+        return getCalls() - getExecutions();
+    }
+
+    //The flight is removed before it completes, so that a caller retrying after a failure cannot find it again
+    private V run(final String key, final Flight<V> own, final Supplier<V> call) {
+        executions.increment();
+        V result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, own);
+            own.result.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, own);
+        own.result.complete(result);
+        return result;
+    }
+
+    //Waits for the call in flight within the deadline of the calling thread
+    private static <V> void awaitCompletion(final Flight<V> leader) {
+        long remainingMillis = RequestDeadline.remainingMillis();
+        if (remainingMillis <= 0) {
+            throw new DeadlineExceededException();
+        }
+        try {
+            if (remainingMillis == Long.MAX_VALUE) {
+                leader.result.get();
+            } else {
+                leader.result.get(remainingMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced call", e);
+        } catch (ExecutionException | CancellationException e) {
+            //Completed, see resultOf
+        }
+    }
+
+    private static <V> V resultOf(final Flight<V> leader) {
+        try {
+            return leader.result.join();
+        } catch (CompletionException e) {
+            //The leader's failure is rethrown as is, so every caller sees the same exception
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
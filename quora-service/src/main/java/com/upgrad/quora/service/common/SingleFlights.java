@@ -0,0 +1,37 @@
+package com.upgrad.quora.service.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named SingleFlight instances of the read paths, with their counters for monitoring
+ */
+@Component
+public class SingleFlights {
+
+    private final Map<String, SingleFlight<?>> flights = new ConcurrentHashMap<>();
+
+    @Value("${quora.single-flight.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * @param name name of the read path, every call site uses its own name
+     * @return the SingleFlight of the read path
+     */
+    @SuppressWarnings("unchecked")
+    public <V> SingleFlight<V> get(final String name) {
+        return (SingleFlight<V>) flights.computeIfAbsent(name, n -> new SingleFlight<>(enabled));
+    }
+
+    /**
+     * @return all SingleFlight instances used so far, by name
+     */
+    public Map<String, SingleFlight<?>> getAll() {
+        return Collections.unmodifiableMap(new TreeMap<>(flights));
+    }
+}
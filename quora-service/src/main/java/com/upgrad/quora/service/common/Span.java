@@ -0,0 +1,142 @@
+package com.upgrad.quora.service.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timed section of a request, see Tracing. Children may be added from other threads when work is handed to an
+ * executor, and may still run after their parent has ended.
+ */
+public final class Span {
+
+    private final String traceId;
+
+    private final Span parent;
+
+    private final Span root;
+
+    private final String kind;
+
+    private final String name;
+
+    private final long startNanos = System.nanoTime();
+
+    private volatile long endNanos;
+
+    private volatile String error;
+
+    private final AtomicInteger sqlStatements = new AtomicInteger();
+
+    private final List<Span> children = new ArrayList<>(4);
+
+    //Spans of the whole trace, counted on the root only
+    private final AtomicInteger spans;
+
+    private final AtomicInteger droppedSpans;
+
+    Span(final String traceId, final Span parent, final String kind, final String name) {
+        this.traceId = traceId;
+        this.parent = parent;
+        this.root = parent == null ? this : parent.root;
+        this.kind = kind;
+        this.name = name;
+        this.spans = parent == null ? new AtomicInteger(1) : null;
+        this.droppedSpans = parent == null ? new AtomicInteger() : null;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * @return the duration, or the time elapsed so far if the span has not ended
+     */
+    public long getDurationNanos() {
+        long end = endNanos;
+        return (end == 0 ? System.nanoTime() : end) - startNanos;
+    }
+
+    public boolean isEnded() {
+        return endNanos != 0;
+    }
+
+    /**
+     * @return class name of the exception the span ended with, null if it ended normally
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return SQL statements prepared while this span was the current one, not counting its children
+     */
+    public int getSqlStatements() {
+        return sqlStatements.get();
+    }
+
+    /**
+     * @return SQL statements of this span and all its descendants
+     */
+    public int getTotalSqlStatements() {
+        int total = sqlStatements.get();
+        for (Span child : getChildren()) {
+            total += child.getTotalSqlStatements();
+        }
+        return total;
+    }
+
+    public List<Span> getChildren() {
+        synchronized (children) {
+            return children.isEmpty() ? Collections.<Span>emptyList() : new ArrayList<>(children);
+        }
+    }
+
+    /**
+     * @return spans that were not recorded because the trace reached its maximum number of spans
+     */
+    public int getDroppedSpans() {
+        return root.droppedSpans.get();
+    }
+
+    Span getParent() {
+        return parent;
+    }
+
+    Span child(final String childKind, final String childName, final int maxSpans) {
+        if (root.spans.incrementAndGet() > maxSpans) {
+            root.spans.decrementAndGet();
+            root.droppedSpans.incrementAndGet();
+            return null;
+        }
+        Span child = new Span(traceId, this, childKind, childName);
+        synchronized (children) {
+            children.add(child);
+        }
+        return child;
+    }
+
+    void countSqlStatement() {
+        sqlStatements.incrementAndGet();
+    }
+
+    void end(final Throwable throwable) {
+        if (throwable != null) {
+            error = throwable.getClass().getSimpleName();
+        }
+        endNanos = System.nanoTime();
+    }
+}
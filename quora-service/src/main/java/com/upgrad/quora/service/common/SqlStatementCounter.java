@@ -0,0 +1,16 @@
+package com.upgrad.quora.service.common;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares, including native queries and flushes, on the current span.
+ * Registered with the hibernate.session_factory.statement_inspector property, the SQL is left unchanged.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    @Override
+    public String inspect(final String sql) {
+        Tracing.countSqlStatement();
+        return sql;
+    }
+}
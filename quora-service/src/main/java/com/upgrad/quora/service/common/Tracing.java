@@ -0,0 +1,118 @@
+package com.upgrad.quora.service.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Span tree of the request handled by the current thread. The web layer starts a trace when a request arrives,
+ * controllers, business services, DAOs and transaction commits add a span each, and SqlStatementCounter counts the
+ * statements Hibernate prepares against the current span. Without a trace on the thread nothing is recorded.
+ * <p>
+ * Work handed to an executor keeps its place in the tree when the task is wrapped with {@link #wrap(Runnable)}.
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    //Bounds the memory of a trace, for example of an export calling a DAO per page
+    private static volatile int maxSpans = 1000;
+
+    private Tracing() {
+    }
+
+    public static void setMaxSpans(final int spans) {
+        maxSpans = spans;
+    }
+
+    /**
+     * Starts a trace on the current thread, replacing any span left on it
+     *
+     * @return the root span
+     */
+    public static Span startTrace(final String name) {
+        Span root = new Span(Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE), null, "request", name);
+        CURRENT.set(root);
+        return root;
+    }
+
+    /**
+     * @return the new span, now the current one, or null if the thread has no trace or the trace is full
+     */
+    public static Span start(final String kind, final String name) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return null;
+        }
+        Span span = parent.child(kind, name, maxSpans);
+        if (span != null) {
+            CURRENT.set(span);
+        }
+        return span;
+    }
+
+    /**
+     * Ends a span returned by {@link #start} or {@link #startTrace}, its parent becomes the current span again
+     *
+     * @param span      span to end, null is ignored
+     * @param throwable exception the span ended with, null if none
+     */
+    public static void finish(final Span span, final Throwable throwable) {
+        if (span == null) {
+            return;
+        }
+        span.end(throwable);
+        //A root ended by an async completion callback is not current on that thread
+        if (CURRENT.get() == span) {
+            set(span.getParent());
+        }
+    }
+
+    /**
+     * @return the current span, null if the thread has no trace
+     */
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Hands the span obtained from {@link #current()} over to another thread
+     *
+     * @param span span to make current, null to clear it
+     */
+    public static void set(final Span span) {
+        if (span == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(span);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    static void countSqlStatement() {
+        Span span = CURRENT.get();
+        if (span != null) {
+            span.countSqlStatement();
+        }
+    }
+
+    /**
+     * @return the task running under the span current when it was wrapped, usable as a TaskDecorator
+     */
+    public static Runnable wrap(final Runnable task) {
+        final Span span = CURRENT.get();
+        if (span == null) {
+            return task;
+        }
+        return () -> {
+            Span previous = CURRENT.get();
+            CURRENT.set(span);
+            try {
+                task.run();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+}
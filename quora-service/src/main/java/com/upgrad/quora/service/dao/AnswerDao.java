@@ -3,11 +3,21 @@ package com.upgrad.quora.service.dao;
 
 import com.upgrad.quora.service.entity.AnswerEntity;
 import com.upgrad.quora.service.entity.QuestionEntity;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -20,6 +30,12 @@ public class AnswerDao {
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private AnswerEventHub answerEventHub;
+
     /**
      * Dao implementation to get answer by Uuid
      *
@@ -43,9 +59,44 @@ public class AnswerDao {
      */
     public AnswerEntity createAnswer(AnswerEntity answerEntity) {
         entityManager.persist(answerEntity);
+        resourceVersions.answersChanged(answerEntity.getQuestion().getUuid());
+        answerEventHub.answerCreated(answerEntity);
         return answerEntity;
     }
 
+    /**
+     * Dao implementation to create several answers with a single multi-row insert.
+     * The rows are written straight to the ANSWER table, so the generated ids are not read back
+     * and the entities are not attached to the persistence context.
+     *
+     * @param answerEntities answers with uuid, content, date, user and question already set
+     * @return number of rows inserted
+     */
+    public int createAnswers(List<AnswerEntity> answerEntities) {
+        if (answerEntities.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO ANSWER (uuid, ans, date, user_id, question_id) VALUES ");
+        for (int i = 0; i < answerEntities.size(); i++) {
+            sql.append(i == 0 ? "(?,?,?,?,?)" : ",(?,?,?,?,?)");
+        }
+        Query query = entityManager.createNativeQuery(sql.toString());
+        int position = 1;
+        List<String> questionUuids = new ArrayList<>(answerEntities.size());
+        for (AnswerEntity answerEntity : answerEntities) {
+            query.setParameter(position++, answerEntity.getUuid());
+            query.setParameter(position++, answerEntity.getAns());
+            query.setParameter(position++, Timestamp.valueOf(answerEntity.getDate()));
+            query.setParameter(position++, answerEntity.getUser().getId());
+            query.setParameter(position++, answerEntity.getQuestion().getId());
+            questionUuids.add(answerEntity.getQuestion().getUuid());
+            answerEventHub.answerCreated(answerEntity);
+        }
+        int inserted = query.executeUpdate();
+        resourceVersions.answersChanged(questionUuids);
+        return inserted;
+    }
+
     /**
      * Dao implementation to edit answer
      *
@@ -54,6 +105,7 @@ public class AnswerDao {
      */
     public AnswerEntity editAnswer(AnswerEntity answerEntity) {
         entityManager.merge(answerEntity);
+        resourceVersions.answersChanged(answerEntity.getQuestion().getUuid());
         return answerEntity;
     }
 
@@ -67,10 +119,97 @@ public class AnswerDao {
 
     public AnswerEntity deleteAnswer(AnswerEntity answerEntity) {
         entityManager.remove(answerEntity);
+        resourceVersions.answersChanged(answerEntity.getQuestion().getUuid());
         return answerEntity;
     }
 
 
+    /**
+     * Dao implementation to scroll through the answers of a question with a forward-only cursor.
+     * Only scalar values are selected, so nothing is added to the persistence context while scrolling.
+     *
+     * @param questionId question whose answers are read
+     * @param fetchSize  number of rows fetched from the database per round trip
+     * @param rowHandler receives [answer uuid, answer content, question content] for every answer
+     * @throws IOException if the handler fails to write a row
+     */
+    public void scrollAllAnswersForQuestionById(int questionId, int fetchSize, RowHandler rowHandler) throws IOException {
+        org.hibernate.query.Query<Object[]> query = entityManager.createNamedQuery("getAllAnswerSummariesByQuestionId", Object[].class)
+                .setParameter("question", questionId)
+                .unwrap(org.hibernate.query.Query.class);
+        try (ScrollableResults results = query.setFetchSize(fetchSize).setReadOnly(true).scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                rowHandler.handle(results.get());
+            }
+        }
+    }
+
+    /**
+     * Dao implementation to read one page of Answers in id order for the bulk export.
+     * Pages are read by keyset, the cost of a page does not grow with the number of rows exported before it.
+     *
+     * @param since only rows dated at or after this time are read
+     * @param after id of the last row of the previous page, 0 for the first page
+     * @param limit maximum number of rows in the page
+     * @return [uuid, answer, date, question uuid, user uuid, id] for every answer
+     */
+    public List<Object[]> getAnswersForExport(LocalDateTime since, int after, int limit) {
+        return entityManager.createNamedQuery("exportAnswers", Object[].class).setParameter("since", since)
+                .setParameter("after", after).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Dao implementation to read only the given columns of the answers of a question.
+     * The question and user tables are only joined when a column of theirs is selected.
+     *
+     * @param questionId question whose answers are read
+     * @param paths      JPQL expressions to select, on "a" for the answer, "q" for the question and "u" for the author
+     * @return one row per answer with the values in the order of paths
+     */
+    public List<Object[]> getAnswerColumnsForQuestionById(int questionId, List<String> paths) {
+        StringBuilder jpql = new StringBuilder("select ").append(String.join(", ", paths)).append(" from AnswerEntity a");
+        if (paths.stream().anyMatch(path -> path.startsWith("q."))) {
+            jpql.append(" join a.question q");
+        }
+        if (paths.stream().anyMatch(path -> path.startsWith("u."))) {
+            jpql.append(" join a.user u");
+        }
+        jpql.append(" where a.question.id = :question order by a.id");
+        List<?> results = entityManager.createQuery(jpql.toString()).setParameter("question", questionId).getResultList();
+        List<Object[]> rows = new ArrayList<>(results.size());
+        for (Object result : results) {
+            //A single selected column comes back as a plain value
+            rows.add(result instanceof Object[] ? (Object[]) result : new Object[]{result});
+        }
+        return rows;
+    }
+
+    /**
+     * Dao implementation to get the first answers of each of the given questions as scalar rows, with a single query
+     *
+     * @param questionUuids question uuids
+     * @param limit         maximum number of answers per question, in id order
+     * @return rows of [uuid, answer, date, question uuid, user uuid], in id order
+     */
+    public List<Object[]> getAnswerRowsByQuestionUuids(Collection<String> questionUuids, int limit) {
+        if (questionUuids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<?> rows = entityManager.createNativeQuery("SELECT uuid, ans, date, question_uuid, user_uuid FROM"
+                + " (SELECT a.id, a.uuid, a.ans, a.date, q.uuid AS question_uuid, u.uuid AS user_uuid,"
+                + " ROW_NUMBER() OVER (PARTITION BY a.question_id ORDER BY a.id) AS position"
+                + " FROM ANSWER a JOIN QUESTION q ON q.id = a.question_id JOIN USERS u ON u.id = a.user_id WHERE q.uuid IN (:uuids)) ranked"
+                + " WHERE position <= :limit ORDER BY id")
+                .setParameter("uuids", questionUuids).setParameter("limit", limit).getResultList();
+        List<Object[]> answers = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            columns[2] = ((Timestamp) columns[2]).toLocalDateTime();
+            answers.add(columns);
+        }
+        return answers;
+    }
+
     /**
      * Dao implementation to retrieve all answers by question uuid
      *
@@ -83,5 +222,17 @@ public class AnswerDao {
                 .getResultList();
     }
 
+    /**
+     * Dao implementation to retrieve the answers of a question as scalar rows, which can be shared between transactions
+     *
+     * @param questionId question whose answers are read
+     * @return [answer uuid, answer content, question content] for every answer
+     */
+    public List<Object[]> getAllAnswerSummariesForQuestionById(int questionId) {
+        return entityManager.createNamedQuery("getAllAnswerSummariesByQuestionId", Object[].class)
+                .setParameter("question", questionId)
+                .getResultList();
+    }
+
 }
 
@@ -0,0 +1,41 @@
+package com.upgrad.quora.service.dao;
+
+/**
+ * An answer that has been committed, as delivered to the subscribers of its question by the AnswerEventHub
+ */
+public final class AnswerEvent {
+
+    private final String id;
+
+    private final String questionUuid;
+
+    private final String answerUuid;
+
+    private final String answer;
+
+    AnswerEvent(final String id, final String questionUuid, final String answerUuid, final String answer) {
+        this.id = id;
+        this.questionUuid = questionUuid;
+        this.answerUuid = answerUuid;
+        this.answer = answer;
+    }
+
+    /**
+     * @return event id, increasing in publication order, which clients send back as Last-Event-ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    public String getQuestionUuid() {
+        return questionUuid;
+    }
+
+    public String getAnswerUuid() {
+        return answerUuid;
+    }
+
+    public String getAnswer() {
+        return answer;
+    }
+}
@@ -0,0 +1,224 @@
+package com.upgrad.quora.service.dao;
+
+import com.upgrad.quora.service.common.TransactionCallbacks;
+import com.upgrad.quora.service.entity.AnswerEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process publish/subscribe hub for new answers, one topic per watched question.
+ * The DAOs publish every created answer once its transaction has committed. Each subscriber has a bounded buffer,
+ * a subscriber whose buffer is full is evicted instead of slowing down the publisher or the other subscribers.
+ * Every topic keeps its most recent events, so that a client reconnecting with the id of the last event it saw
+ * receives what it missed. Topics only exist while their question is watched and for a while after, answers to
+ * questions nobody watches are not recorded.
+ * Event ids carry the start time of the hub, ids from before a restart are recognised and reported as a replay gap.
+ */
+@Component
+public class AnswerEventHub {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AnswerEventHub.class);
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+
+    @Value("${quora.answer.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${quora.answer.stream.replay-size:100}")
+    private int replaySize;
+
+    @Value("${quora.answer.stream.idle-topic-ttl-ms:60000}")
+    private long idleTopicTtlMs;
+
+    private static final class Topic {
+
+        private final ArrayDeque<AnswerEvent> replay = new ArrayDeque<>();
+
+        private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+
+        //Sequence number up to which events may be missing from the replay
+        private long horizon;
+
+        private long idleSince;
+
+        private boolean removed;
+
+        private Topic(final long horizon) {
+            this.horizon = horizon;
+            this.idleSince = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Subscription of one client to the answers of one question
+     */
+    public final class Subscription {
+
+        private final Topic topic;
+
+        private final ArrayBlockingQueue<AnswerEvent> buffer;
+
+        private final Runnable signal;
+
+        private volatile boolean replayIncomplete;
+
+        private volatile boolean evicted;
+
+        private Subscription(final Topic topic, final Runnable signal) {
+            this.topic = topic;
+            this.signal = signal;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        /**
+         * @return the buffered events, oldest first
+         */
+        public List<AnswerEvent> drain() {
+            List<AnswerEvent> events = new ArrayList<>(buffer.size());
+            buffer.drainTo(events);
+            return events;
+        }
+
+        /**
+         * @return true if events after the requested Last-Event-ID may be missing, the client should reload the answers once
+         */
+        public boolean isReplayIncomplete() {
+            return replayIncomplete;
+        }
+
+        /**
+         * @return true if the subscriber fell behind and no further events will be buffered, the client should reconnect
+         */
+        public boolean isEvicted() {
+            return evicted;
+        }
+
+        public void cancel() {
+            synchronized (topic) {
+                if (topic.subscribers.remove(this) && topic.subscribers.isEmpty()) {
+                    topic.idleSince = System.currentTimeMillis();
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes the answer to the subscribers of its question once the current transaction has committed
+     *
+     * @param answerEntity created answer, with uuid, content and question set
+     */
+    public void answerCreated(final AnswerEntity answerEntity) {
+        final String questionUuid = answerEntity.getQuestion().getUuid();
+        final String answerUuid = answerEntity.getUuid();
+        final String answer = answerEntity.getAns();
+        TransactionCallbacks.afterCommit(() -> publish(questionUuid, answerUuid, answer));
+    }
+
+    /**
+     * @param questionUuid question to watch
+     * @param lastEventId  id of the last event the client received, null for a new subscription
+     * @param signal       called, on the publishing thread, whenever events are buffered or the subscriber is evicted, must not block
+     * @return subscription holding the events after lastEventId that are still kept
+     */
+    public Subscription subscribe(final String questionUuid, final String lastEventId, final Runnable signal) {
+        purgeIdleTopics();
+        final long lastSequence = parseSequence(lastEventId);
+        while (true) {
+            Topic topic = topics.computeIfAbsent(questionUuid, uuid -> new Topic(sequence.get()));
+            synchronized (topic) {
+                if (topic.removed) {
+                    continue;
+                }
+                Subscription subscription = new Subscription(topic, signal);
+                if (lastEventId != null) {
+                    subscription.replayIncomplete = lastSequence < topic.horizon;
+                    for (AnswerEvent event : topic.replay) {
+                        if (sequenceOf(event) > lastSequence && !subscription.buffer.offer(event)) {
+                            subscription.replayIncomplete = true;
+                        }
+                    }
+                }
+                topic.subscribers.add(subscription);
+                return subscription;
+            }
+        }
+    }
+
+    private void publish(final String questionUuid, final String answerUuid, final String answer) {
+        Topic topic = topics.get(questionUuid);
+        //Nobody watches the question, there is nothing to deliver or to replay later
+        if (topic == null) {
+            return;
+        }
+        List<Subscription> signalled = new ArrayList<>();
+        synchronized (topic) {
+            if (topic.removed) {
+                return;
+            }
+            AnswerEvent event = new AnswerEvent(epoch + "-" + sequence.incrementAndGet(), questionUuid, answerUuid, answer);
+            topic.replay.addLast(event);
+            if (topic.replay.size() > replaySize) {
+                topic.horizon = sequenceOf(topic.replay.removeFirst());
+            }
+            for (Subscription subscription : topic.subscribers) {
+                if (!subscription.buffer.offer(event)) {
+                    subscription.evicted = true;
+                    topic.subscribers.remove(subscription);
+                    LOG.info("Evicted a slow subscriber of the answers to question {}", questionUuid);
+                }
+                signalled.add(subscription);
+            }
+            if (topic.subscribers.isEmpty()) {
+                topic.idleSince = System.currentTimeMillis();
+            }
+        }
+        for (Subscription subscription : signalled) {
+            subscription.signal.run();
+        }
+    }
+
+    private void purgeIdleTopics() {
+        long idleBefore = System.currentTimeMillis() - idleTopicTtlMs;
+        for (Iterator<Map.Entry<String, Topic>> iterator = topics.entrySet().iterator(); iterator.hasNext(); ) {
+            Topic topic = iterator.next().getValue();
+            synchronized (topic) {
+                if (topic.subscribers.isEmpty() && topic.idleSince < idleBefore) {
+                    topic.removed = true;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    //Ids from another run of the application, or that are not ids of this hub at all, are older than everything kept
+    private long parseSequence(final String eventId) {
+        if (eventId == null || !eventId.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private long sequenceOf(final AnswerEvent event) {
+        return parseSequence(event.getId());
+    }
+}
@@ -0,0 +1,79 @@
+package com.upgrad.quora.service.dao;
+
+import com.upgrad.quora.service.entity.IdempotencyKeyEntity;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Dao Implementation for the responses stored under idempotency keys
+ */
+
+@Repository
+public class IdempotencyKeyDao {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Inserts a pending row for the key unless a row exists already. The unique key column lets exactly one of
+     * several concurrent inserts, from any node, succeed without raising an error in the others.
+     *
+     * @return id of the row inserted by this call, null if the key has a row already
+     */
+    public Long claim(final String idempotencyKey, final String fingerprint, final LocalDateTime createdAt, final LocalDateTime expiresAt) {
+        List<?> ids = entityManager.createNativeQuery("INSERT INTO IDEMPOTENCY_KEY (idempotency_key, fingerprint, created_at, expires_at) VALUES (?,?,?,?) "
+                + "ON CONFLICT (idempotency_key) DO NOTHING RETURNING id")
+                .setParameter(1, idempotencyKey)
+                .setParameter(2, fingerprint)
+                .setParameter(3, Timestamp.valueOf(createdAt))
+                .setParameter(4, Timestamp.valueOf(expiresAt))
+                .getResultList();
+        return ids.isEmpty() ? null : ((Number) ids.get(0)).longValue();
+    }
+
+    public IdempotencyKeyEntity getIdempotencyKey(final String idempotencyKey) {
+        try {
+            return entityManager.createNamedQuery("idempotencyKeyByKey", IdempotencyKeyEntity.class).setParameter("idempotencyKey", idempotencyKey).getSingleResult();
+        } catch (NoResultException nre) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores the response in the pending row inserted by {@link #claim}. A row that expired and was claimed again
+     * has another id, so a request that outlived its claim cannot overwrite the response of the next one.
+     *
+     * @return false if the row is no longer the pending row of the claim
+     */
+    public boolean completeIdempotencyKey(final long id, final int status, final String headers, final byte[] body, final LocalDateTime expiresAt) {
+        return entityManager.createNamedQuery("completeIdempotencyKey").setParameter("id", id).setParameter("status", status)
+                .setParameter("headers", headers).setParameter("body", body).setParameter("expiresAt", expiresAt).executeUpdate() == 1;
+    }
+
+    /**
+     * Removes the pending row of an original request that failed, so that a retry runs again
+     */
+    public void deletePendingIdempotencyKey(final long id) {
+        entityManager.createNamedQuery("deletePendingIdempotencyKey").setParameter("id", id).executeUpdate();
+    }
+
+    /**
+     * Removes the row of the key if it has expired, including the pending row of a request whose node went away
+     */
+    public void deleteExpiredIdempotencyKey(final String idempotencyKey, final LocalDateTime now) {
+        entityManager.createNamedQuery("deleteExpiredIdempotencyKey").setParameter("idempotencyKey", idempotencyKey).setParameter("now", now).executeUpdate();
+    }
+
+    /**
+     * @return number of expired rows removed
+     */
+    public int deleteExpiredIdempotencyKeys(final LocalDateTime now) {
+        return entityManager.createNamedQuery("deleteExpiredIdempotencyKeys").setParameter("now", now).executeUpdate();
+    }
+}
@@ -1,12 +1,25 @@
 package com.upgrad.quora.service.dao;
 
 import com.upgrad.quora.service.entity.QuestionEntity;
+import com.upgrad.quora.service.entity.UserEntity;
 
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -20,6 +33,9 @@ public class QuestionDao {
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
 
     /**
      * Dao implementation to create Questions
@@ -30,10 +46,44 @@ public class QuestionDao {
     public QuestionEntity createQuestionForUser(QuestionEntity questionEntity) {
 
         entityManager.persist(questionEntity);
+        resourceVersions.questionsCreated(Collections.singletonList(questionEntity.getUser().getUuid()));
         return questionEntity;
     }
 
 
+    /**
+     * Dao implementation to create several Questions with multi-row inserts, see AnswerDao.createAnswers.
+     * The generated ids are not read back and the entities are not attached to the persistence context.
+     *
+     * @param questionEntities questions with uuid, content, date, minhash and user already set
+     * @return number of rows inserted
+     */
+    public int createQuestions(List<QuestionEntity> questionEntities) {
+
+        if (questionEntities.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO QUESTION (uuid, content, date, minhash, user_id) VALUES ");
+        for (int i = 0; i < questionEntities.size(); i++) {
+            sql.append(i == 0 ? "(?,?,?,?,?)" : ",(?,?,?,?,?)");
+        }
+        javax.persistence.Query query = entityManager.createNativeQuery(sql.toString());
+        int position = 1;
+        List<String> userUuids = new ArrayList<>(questionEntities.size());
+        for (QuestionEntity questionEntity : questionEntities) {
+            userUuids.add(questionEntity.getUser().getUuid());
+            query.setParameter(position++, questionEntity.getUuid());
+            query.setParameter(position++, questionEntity.getContent());
+            query.setParameter(position++, Timestamp.valueOf(questionEntity.getDate()));
+            query.setParameter(position++, questionEntity.getMinhash());
+            query.setParameter(position++, questionEntity.getUser().getId());
+        }
+        int inserted = query.executeUpdate();
+        resourceVersions.questionsCreated(userUuids);
+        return inserted;
+    }
+
+
     /**
      * Dao implementation to retrieve all Questions
      *
@@ -45,6 +95,65 @@ public class QuestionDao {
     }
 
 
+    /**
+     * Dao implementation to retrieve uuid and content of all Questions.
+     * Only scalar values are selected, so the rows can be shared between transactions.
+     *
+     * @return [uuid, content] for every question
+     */
+    public List<Object[]> getAllQuestionSummaries() {
+
+        return entityManager.createNamedQuery("getAllQuestionSummaries", Object[].class).getResultList();
+    }
+
+
+    /**
+     * Dao implementation to scroll through uuid and content of all Questions with a forward-only cursor.
+     * Only scalar values are selected, so nothing is added to the persistence context while scrolling.
+     *
+     * @param fetchSize  number of rows fetched from the database per round trip
+     * @param rowHandler receives [uuid, content] for every question
+     * @throws IOException if the handler fails to write a row
+     */
+    public void scrollAllQuestions(int fetchSize, RowHandler rowHandler) throws IOException {
+
+        Query<Object[]> query = entityManager.createNamedQuery("getAllQuestionSummaries", Object[].class).unwrap(Query.class);
+        try (ScrollableResults results = query.setFetchSize(fetchSize).setReadOnly(true).scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                rowHandler.handle(results.get());
+            }
+        }
+    }
+
+    /**
+     * Dao implementation to read one page of Questions in id order for the bulk export.
+     * Pages are read by keyset, the cost of a page does not grow with the number of rows exported before it.
+     *
+     * @param since only rows dated at or after this time are read
+     * @param after id of the last row of the previous page, 0 for the first page
+     * @param limit maximum number of rows in the page
+     * @return [uuid, content, date, user uuid, id] for every question
+     */
+    public List<Object[]> getQuestionsForExport(LocalDateTime since, int after, int limit) {
+        return entityManager.createNamedQuery("exportQuestions", Object[].class).setParameter("since", since)
+                .setParameter("after", after).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Dao implementation to get the id of a Question without loading the entity and its answers
+     *
+     * @param uuid
+     * @return question id, or null if no question has the uuid
+     */
+    public Integer getQuestionIdByUuid(String uuid) {
+
+        try {
+            return entityManager.createNamedQuery("getQuestionIdByUuid", Integer.class).setParameter("uuid", uuid).getSingleResult();
+        } catch (NoResultException ex) {
+            return null;
+        }
+    }
+
     /**
      * Dao Implementation to edit Questions
      *
@@ -54,6 +163,7 @@ public class QuestionDao {
     public QuestionEntity editQuestion(QuestionEntity questionEntity) {
 
         entityManager.merge(questionEntity);
+        resourceVersions.questionChanged(questionEntity.getUuid(), questionEntity.getUser().getUuid());
         return questionEntity;
     }
 
@@ -67,9 +177,119 @@ public class QuestionDao {
     public QuestionEntity deleteQuestion(QuestionEntity questionEntity) {
 
         entityManager.remove(questionEntity);
+        resourceVersions.questionDeleted(questionEntity.getUuid(), questionEntity.getUser().getUuid());
         return questionEntity;
     }
 
+    /**
+     * Dao implementation to get the Questions matching any of the given uuids with a single IN query
+     *
+     * @param uuids question uuids
+     * @return matching question entities, in no particular order
+     */
+    public List<QuestionEntity> getQuestionsByUuids(Collection<String> uuids) {
+
+        if (uuids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return entityManager.createNamedQuery("getQuestionsByUuids", QuestionEntity.class).setParameter("uuids", uuids).getResultList();
+    }
+
+    /**
+     * Dao implementation to get uuid and content of the Questions matching any of the given uuids with a single IN query.
+     * The entities are not loaded, so their answer lists are not fetched either.
+     *
+     * @param uuids question uuids
+     * @return rows of [uuid, content], in no particular order
+     */
+    public List<Object[]> getQuestionSummariesByUuids(Collection<String> uuids) {
+
+        if (uuids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return entityManager.createNamedQuery("getQuestionSummariesByUuids", Object[].class).setParameter("uuids", uuids).getResultList();
+    }
+
+    /**
+     * Dao implementation to get the Questions with any of the given uuids as scalar rows, with a single IN query
+     *
+     * @param uuids question uuids
+     * @return rows of [uuid, content, date, user uuid], in no particular order
+     */
+    public List<Object[]> getQuestionRowsByUuids(Collection<String> uuids) {
+
+        if (uuids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return entityManager.createNamedQuery("getQuestionRowsByUuids", Object[].class).setParameter("uuids", uuids).getResultList();
+    }
+
+    /**
+     * Dao implementation to get the first Questions posted by each of the given users as scalar rows, with a single query
+     *
+     * @param userUuids user uuids
+     * @param limit     maximum number of questions per user, in id order
+     * @return rows of [uuid, content, date, user uuid], in id order
+     */
+    public List<Object[]> getQuestionRowsByUserUuids(Collection<String> userUuids, int limit) {
+
+        if (userUuids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<?> rows = entityManager.createNativeQuery("SELECT uuid, content, date, user_uuid FROM"
+                + " (SELECT q.id, q.uuid, q.content, q.date, u.uuid AS user_uuid,"
+                + " ROW_NUMBER() OVER (PARTITION BY q.user_id ORDER BY q.id) AS position"
+                + " FROM QUESTION q JOIN USERS u ON u.id = q.user_id WHERE u.uuid IN (:uuids)) ranked"
+                + " WHERE position <= :limit ORDER BY id")
+                .setParameter("uuids", userUuids).setParameter("limit", limit).getResultList();
+        List<Object[]> questions = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            columns[2] = ((Timestamp) columns[2]).toLocalDateTime();
+            questions.add(columns);
+        }
+        return questions;
+    }
+
+    /**
+     * Dao implementation to resolve question uuids to their ids with a single IN query, without loading the entities
+     *
+     * @param uuids question uuids
+     * @return ids by uuid, uuids without a question are missing from the map
+     */
+    public Map<String, Integer> getQuestionIdsByUuids(Collection<String> uuids) {
+
+        Map<String, Integer> ids = new HashMap<>();
+        if (uuids.isEmpty()) {
+            return ids;
+        }
+        for (Object[] row : entityManager.createNamedQuery("getQuestionIdsByUuids", Object[].class).setParameter("uuids", uuids).getResultList()) {
+            ids.put((String) row[0], (Integer) row[1]);
+        }
+        return ids;
+    }
+
+    /**
+     * Dao implementation to retrieve uuid, content and stored MinHash signature of every Question
+     *
+     * @return rows of [uuid, content, minhash]
+     */
+    public List<Object[]> getAllQuestionSignatures() {
+
+        return entityManager.createNamedQuery("getAllQuestionSignatures", Object[].class).getResultList();
+    }
+
+    /**
+     * Dao implementation to get the uuids of the Questions posted by a user
+     *
+     * @param userEntity user
+     * @return question uuids
+     */
+    public List<String> getQuestionUuidsByUser(UserEntity userEntity) {
+
+        return entityManager.createNamedQuery("getQuestionUuidsByUser", String.class).setParameter("user", userEntity).getResultList();
+    }
+
     /**
      * Dao implementation to get Question by uuid
      *
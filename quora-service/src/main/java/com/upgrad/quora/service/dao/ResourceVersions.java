@@ -0,0 +1,189 @@
+package com.upgrad.quora.service.dao;
+
+import com.upgrad.quora.service.entity.UserEntity;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Version counters for the resources served by the read endpoints, kept in the RESOURCE_VERSION table so that
+ * every instance sees the writes of the others. The DAOs bump the counters of everything a create, edit or delete
+ * touches in the same transaction as the change, and the version tags built from them are used as strong ETags
+ * and as the keys of the response cache and of the coalesced listings.
+ * <p>
+ * Versions are drawn from the RESOURCE_VERSION_SEQ sequence, so a tag never repeats, even for a counter that was
+ * deleted with its resource and later read as 0. Counters of deleted questions and users are removed, the table
+ * holds at most one row per existing resource plus the question stripes and the global row.
+ * A question write bumps the stripe of the question's owner, a row that stays locked until the write commits, so
+ * only writes of users sharing a stripe queue behind each other. The list of all questions is tagged with the sum
+ * of the stripes, which grows with every question write whatever order the writes commit in.
+ */
+@Repository
+public class ResourceVersions {
+
+    //Bumped when a change cascades to everything, for example a user deletion
+    private static final String GLOBAL = "global";
+
+    private static final String QUESTIONS = "questions:";
+
+    private static final int QUESTION_STRIPES = 16;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @return tag of the list of all questions
+     */
+    public String questionsTag() {
+        String[] resources = new String[QUESTION_STRIPES + 1];
+        resources[0] = GLOBAL;
+        for (int stripe = 0; stripe < QUESTION_STRIPES; stripe++) {
+            resources[stripe + 1] = QUESTIONS + stripe;
+        }
+        long[] versions = versions(resources);
+        long stripes = 0;
+        for (int i = 1; i < versions.length; i++) {
+            stripes += versions[i];
+        }
+        return "q-" + versions[0] + "-" + stripes;
+    }
+
+    /**
+     * @param userUuid user whose questions are listed
+     * @return tag of the question list of the user
+     */
+    public String userQuestionsTag(final String userUuid) {
+        long[] versions = versions(GLOBAL, questionsKey(userUuid));
+        return "uq-" + userUuid + "-" + versions[0] + "-" + versions[1];
+    }
+
+    /**
+     * @param questionUuid question whose answers are listed
+     * @return tag of the answer listing of the question, which also covers the question content
+     */
+    public String answersTag(final String questionUuid) {
+        long[] versions = versions(GLOBAL, questionKey(questionUuid), answersKey(questionUuid));
+        return "a-" + versions[0] + "-" + versions[1] + "-" + versions[2];
+    }
+
+    /**
+     * @param userUuid user whose profile is fetched
+     * @return tag of the user profile
+     */
+    public String userTag(final String userUuid) {
+        long[] versions = versions(GLOBAL, userKey(userUuid));
+        return "u-" + versions[0] + "-" + versions[1];
+    }
+
+    /**
+     * Questions were created, the new questions themselves have no tag yet
+     *
+     * @param userUuids owners of the new questions, duplicates are allowed
+     */
+    public void questionsCreated(final Collection<String> userUuids) {
+        List<String> resources = new ArrayList<>(userUuids.size());
+        for (String userUuid : userUuids) {
+            resources.add(questionsKey(userUuid));
+        }
+        bump(resources);
+    }
+
+    public void questionChanged(final String questionUuid, final String userUuid) {
+        bump(Arrays.asList(questionKey(questionUuid), questionsKey(userUuid)));
+    }
+
+    public void questionDeleted(final String questionUuid, final String userUuid) {
+        delete(Arrays.asList(questionKey(questionUuid), answersKey(questionUuid)));
+        bump(Arrays.asList(questionsKey(userUuid)));
+    }
+
+    public void answersChanged(final String questionUuid) {
+        bump(Arrays.asList(answersKey(questionUuid)));
+    }
+
+    /**
+     * @param questionUuids questions whose answers changed, duplicates are allowed
+     */
+    public void answersChanged(final Collection<String> questionUuids) {
+        List<String> resources = new ArrayList<>(questionUuids.size());
+        for (String questionUuid : questionUuids) {
+            resources.add(answersKey(questionUuid));
+        }
+        bump(resources);
+    }
+
+    public void userChanged(final String userUuid) {
+        bump(Arrays.asList(userKey(userUuid)));
+    }
+
+    /**
+     * A user is deleted, which cascades to the questions and answers of the user.
+     * Must be called before the user is removed, while the questions of the user can still be found.
+     */
+    public void userDeleted(final UserEntity userEntity) {
+        entityManager.createNativeQuery("DELETE FROM RESOURCE_VERSION WHERE resource = ?1"
+                + " OR resource IN (SELECT 'q:' || uuid FROM QUESTION WHERE user_id = ?2)"
+                + " OR resource IN (SELECT 'a:' || uuid FROM QUESTION WHERE user_id = ?2)")
+                .setParameter(1, userKey(userEntity.getUuid())).setParameter(2, userEntity.getId()).executeUpdate();
+        bump(Arrays.asList(GLOBAL));
+    }
+
+    private long[] versions(final String... resources) {
+        List<?> rows = entityManager.createNativeQuery("SELECT resource, version FROM RESOURCE_VERSION WHERE resource IN (:resources)")
+                .setParameter("resources", Arrays.asList(resources)).getResultList();
+        long[] versions = new long[resources.length];
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            versions[Arrays.asList(resources).indexOf(columns[0])] = ((Number) columns[1]).longValue();
+        }
+        return versions;
+    }
+
+    //Rows are locked in key order, so that two transactions bumping the same counters cannot deadlock
+    private void bump(final Collection<String> resources) {
+        TreeSet<String> sorted = new TreeSet<>(resources);
+        if (sorted.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO RESOURCE_VERSION (resource, version) VALUES ");
+        for (int i = 0; i < sorted.size(); i++) {
+            sql.append(i == 0 ? "(?, nextval('RESOURCE_VERSION_SEQ'))" : ",(?, nextval('RESOURCE_VERSION_SEQ'))");
+        }
+        sql.append(" ON CONFLICT (resource) DO UPDATE SET version = EXCLUDED.version");
+        Query query = entityManager.createNativeQuery(sql.toString());
+        int position = 1;
+        for (String resource : sorted) {
+            query.setParameter(position++, resource);
+        }
+        query.executeUpdate();
+    }
+
+    private void delete(final Collection<String> resources) {
+        entityManager.createNativeQuery("DELETE FROM RESOURCE_VERSION WHERE resource IN (:resources)")
+                .setParameter("resources", resources).executeUpdate();
+    }
+
+    //Stripe of the questions of the user
+    private static String questionsKey(final String userUuid) {
+        return QUESTIONS + Math.floorMod(userUuid.hashCode(), QUESTION_STRIPES);
+    }
+
+    private static String questionKey(final String questionUuid) {
+        return "q:" + questionUuid;
+    }
+
+    private static String answersKey(final String questionUuid) {
+        return "a:" + questionUuid;
+    }
+
+    private static String userKey(final String userUuid) {
+        return "u:" + userUuid;
+    }
+}
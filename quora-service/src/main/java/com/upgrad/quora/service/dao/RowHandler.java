@@ -0,0 +1,16 @@
+package com.upgrad.quora.service.dao;
+
+import java.io.IOException;
+
+/**
+ * Callback receiving the rows of a scrolled query one at a time, so that large results are never held in memory.
+ */
+@FunctionalInterface
+public interface RowHandler {
+
+    /**
+     * @param row selected values, in the order of the select clause
+     * @throws IOException if the row cannot be written out
+     */
+    void handle(Object[] row) throws IOException;
+}
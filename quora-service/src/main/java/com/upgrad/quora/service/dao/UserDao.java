@@ -2,11 +2,17 @@ package com.upgrad.quora.service.dao;
 
 import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Dao Implementation for User Endpoint
@@ -15,10 +21,15 @@ import javax.persistence.PersistenceContext;
 @Repository
 public class UserDao {
 
+    private static final Logger LOG = LoggerFactory.getLogger(UserDao.class);
+
     //@persistenceContext annotation is used to change the state of userEntity from transient to persist
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     /**
      * The getUserByUsername() method is used to check email entered by user
      *
@@ -29,7 +40,7 @@ public class UserDao {
         try {
             return entityManager.createNamedQuery("userByEmail", UserEntity.class).setParameter("email", email).getSingleResult();
         } catch (NoResultException nre) {
-            System.out.println(nre.getMessage());
+            LOG.debug(nre.getMessage());
             return null;
         }
     }
@@ -44,7 +55,7 @@ public class UserDao {
         try {
             return entityManager.createNamedQuery("userByUsername", UserEntity.class).setParameter("username", username).getSingleResult();
         } catch (NoResultException nre) {
-            System.out.println(nre.getMessage());
+            LOG.debug(nre.getMessage());
             return null;
         }
     }
@@ -73,12 +84,45 @@ public class UserDao {
         try {
             return entityManager.createNamedQuery("userByUuid", UserEntity.class).setParameter("uuid", userUuid).getSingleResult();
         } catch (NoResultException nre) {
-            System.out.println(nre.getMessage());
+            LOG.debug(nre.getMessage());
             return null;
         }
     }
 
 
+    /**
+     * This method is used to read only the given profile columns of a user
+     *
+     * @param userUuid uuid of the user
+     * @param paths    JPQL expressions on "u" to select
+     * @return values in the order of paths, or null if the user does not exist
+     */
+    public Object[] getUserColumnsByUuid(final String userUuid, final List<String> paths) {
+        List<?> results = entityManager.createQuery("select " + String.join(", ", paths) + " from UserEntity u where u.uuid = :uuid")
+                .setParameter("uuid", userUuid).getResultList();
+        if (results.isEmpty()) {
+            return null;
+        }
+        Object result = results.get(0);
+        //A single selected column comes back as a plain value
+        return result instanceof Object[] ? (Object[]) result : new Object[]{result};
+    }
+
+    /**
+     * This method is used to get the profile fields of several users with a single IN query.
+     * Only scalar values are selected, so the question lists of the users are not fetched.
+     *
+     * @param userUuids uuids of the users
+     * @return rows of [uuid, firstName, lastName, username, email, country, aboutMe, dob, contactNumber], in no particular order
+     */
+    public List<Object[]> getUserProfilesByUuids(final Collection<String> userUuids) {
+        if (userUuids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return entityManager.createNamedQuery("userProfilesByUuids", Object[].class).setParameter("uuids", userUuids).getResultList();
+    }
+
+
     /**
      * This method is used to register a user in data base by storing all the user information
      *
@@ -113,7 +157,7 @@ public class UserDao {
         try {
             return entityManager.createNamedQuery("userAuthTokenByAccessToken", UserAuthTokenEntity.class).setParameter("accessToken", accessToken).getSingleResult();
         } catch (NoResultException nre) {
-            System.out.println(nre.getMessage());
+            LOG.debug(nre.getMessage());
             return null;
         }
     }
@@ -126,6 +170,7 @@ public class UserDao {
      */
     public void updateUser(final UserEntity updatedUserEntity) {
         entityManager.merge(updatedUserEntity);
+        resourceVersions.userChanged(updatedUserEntity.getUuid());
     }
 
     /**
@@ -139,6 +184,19 @@ public class UserDao {
 
     }
 
+    /**
+     * This method reads one page of users in id order for the bulk export, by keyset.
+     * Only scalar values are selected and the password and salt columns are left out.
+     *
+     * @param after id of the last row of the previous page, 0 for the first page
+     * @param limit maximum number of rows in the page
+     * @return [uuid, first name, last name, username, email, country, about me, dob, contact number, role, id] for every user
+     */
+    public List<Object[]> getUsersForExport(final int after, final int limit) {
+        return entityManager.createNamedQuery("exportUsers", Object[].class).setParameter("after", after)
+                .setMaxResults(limit).getResultList();
+    }
+
     /**
      * This Method deletes user by uuid
      *
@@ -146,6 +204,8 @@ public class UserDao {
      * @return uuid
      */
     public String deleteUser(UserEntity userEntity) {
+        //Deleting a user cascades to the questions and answers of the user
+        resourceVersions.userDeleted(userEntity);
         entityManager.remove(userEntity);
         return userEntity.getUuid();
     }
@@ -19,7 +19,11 @@ import java.time.LocalDateTime;
 @NamedQueries({
         @NamedQuery(name = "AnswerByUuid", query = "select a from AnswerEntity a where a.uuid = :uuid"),
 
-        @NamedQuery(name = "getAllAnswersByQuestionId", query = "select a from AnswerEntity a where a.question.id = :question")
+        @NamedQuery(name = "getAllAnswersByQuestionId", query = "select a from AnswerEntity a where a.question.id = :question"),
+
+        @NamedQuery(name = "exportAnswers", query = "select a.uuid, a.ans, a.date, q.uuid, u.uuid, a.id from AnswerEntity a join a.question q join a.user u where a.date >= :since and a.id > :after order by a.id"),
+
+        @NamedQuery(name = "getAllAnswerSummariesByQuestionId", query = "select a.uuid, a.ans, q.content from AnswerEntity a join a.question q where q.id = :question")
 })
 public class AnswerEntity implements Serializable {
 
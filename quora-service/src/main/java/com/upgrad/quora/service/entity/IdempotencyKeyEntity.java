@@ -0,0 +1,139 @@
+package com.upgrad.quora.service.entity;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Response stored for an idempotency key, the status is null while the original request is still running
+ */
+@Entity
+@Table(name = "IDEMPOTENCY_KEY")
+@NamedQueries({
+        @NamedQuery(name = "idempotencyKeyByKey", query = "select ik from IdempotencyKeyEntity ik where ik.idempotencyKey = :idempotencyKey"),
+        @NamedQuery(name = "completeIdempotencyKey", query = "update IdempotencyKeyEntity ik set ik.status = :status, ik.headers = :headers, ik.body = :body, "
+                + "ik.expiresAt = :expiresAt where ik.id = :id and ik.status is null"),
+        @NamedQuery(name = "deletePendingIdempotencyKey", query = "delete from IdempotencyKeyEntity ik where ik.id = :id and ik.status is null"),
+        @NamedQuery(name = "deleteExpiredIdempotencyKey", query = "delete from IdempotencyKeyEntity ik where ik.idempotencyKey = :idempotencyKey and ik.expiresAt < :now"),
+        @NamedQuery(name = "deleteExpiredIdempotencyKeys", query = "delete from IdempotencyKeyEntity ik where ik.expiresAt < :now")
+})
+public class IdempotencyKeyEntity implements Serializable {
+
+    @Id
+    @Column(name = "ID")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "IDEMPOTENCY_KEY")
+    @NotNull
+    @Size(max = 400)
+    private String idempotencyKey;
+
+    @Column(name = "FINGERPRINT")
+    @NotNull
+    @Size(max = 64)
+    private String fingerprint;
+
+    @Column(name = "STATUS")
+    private Integer status;
+
+    @Column(name = "HEADERS")
+    private String headers;
+
+    @Column(name = "BODY")
+    private byte[] body;
+
+    @Column(name = "CREATED_AT")
+    @NotNull
+    private LocalDateTime createdAt;
+
+    @Column(name = "EXPIRES_AT")
+    @NotNull
+    private LocalDateTime expiresAt;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public String getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(String headers) {
+        this.headers = headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public void setBody(byte[] body) {
+        this.body = body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return new EqualsBuilder().append(this, obj).isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder().append(this).hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.MULTI_LINE_STYLE);
+    }
+}
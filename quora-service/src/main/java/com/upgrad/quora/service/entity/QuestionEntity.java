@@ -17,7 +17,16 @@ import javax.validation.constraints.Size;
 @NamedQueries(
         {
                 @NamedQuery(name = "getAllQuestions", query = "select u from QuestionEntity u"),
-                @NamedQuery(name = "getQuestionByUuid", query = "select u from QuestionEntity u where u.uuid = :uuid")
+                @NamedQuery(name = "getQuestionByUuid", query = "select u from QuestionEntity u where u.uuid = :uuid"),
+                @NamedQuery(name = "getQuestionsByUuids", query = "select u from QuestionEntity u where u.uuid in :uuids"),
+                @NamedQuery(name = "getQuestionRowsByUuids", query = "select u.uuid, u.content, u.date, o.uuid from QuestionEntity u join u.user o where u.uuid in :uuids"),
+                @NamedQuery(name = "getQuestionSummariesByUuids", query = "select u.uuid, u.content from QuestionEntity u where u.uuid in :uuids"),
+                @NamedQuery(name = "getAllQuestionSummaries", query = "select u.uuid, u.content from QuestionEntity u"),
+                @NamedQuery(name = "exportQuestions", query = "select u.uuid, u.content, u.date, o.uuid, u.id from QuestionEntity u join u.user o where u.date >= :since and u.id > :after order by u.id"),
+                @NamedQuery(name = "getQuestionIdsByUuids", query = "select u.uuid, u.id from QuestionEntity u where u.uuid in :uuids"),
+                @NamedQuery(name = "getQuestionIdByUuid", query = "select u.id from QuestionEntity u where u.uuid = :uuid"),
+                @NamedQuery(name = "getAllQuestionSignatures", query = "select u.uuid, u.content, u.minhash from QuestionEntity u"),
+                @NamedQuery(name = "getQuestionUuidsByUser", query = "select u.uuid from QuestionEntity u where u.user = :user")
         }
 )
 
@@ -39,6 +48,9 @@ public class QuestionEntity implements Serializable {
     @Column(name = "date")
     private LocalDateTime date;
 
+    @Column(name = "minhash")
+    private byte[] minhash;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private UserEntity user;
@@ -63,6 +75,10 @@ public class QuestionEntity implements Serializable {
         return date;
     }
 
+    public byte[] getMinhash() {
+        return minhash;
+    }
+
     public UserEntity getUser() {
         return user;
     }
@@ -87,6 +103,10 @@ public class QuestionEntity implements Serializable {
         this.date = date;
     }
 
+    public void setMinhash(byte[] minhash) {
+        this.minhash = minhash;
+    }
+
     public void setUser(UserEntity user) {
         this.user = user;
     }
@@ -22,6 +22,8 @@ import java.util.List;
         @NamedQuery(name = "userByEmail", query = "select u from UserEntity u where u.email = :email"),
         @NamedQuery(name = "userByUsername", query = "select u from UserEntity u where u.username=:username"),
         @NamedQuery(name = "userByUuid",query = "select uid from UserEntity uid where uid.uuid=:uuid"),
+        @NamedQuery(name = "userProfilesByUuids", query = "select u.uuid, u.firstName, u.lastName, u.username, u.email, u.country, u.aboutMe, u.dob, u.contactNumber from UserEntity u where u.uuid in :uuids"),
+        @NamedQuery(name = "exportUsers", query = "select u.uuid, u.firstName, u.lastName, u.username, u.email, u.country, u.aboutMe, u.dob, u.contactNumber, u.role, u.id from UserEntity u where u.id > :after order by u.id"),
 
 })
 
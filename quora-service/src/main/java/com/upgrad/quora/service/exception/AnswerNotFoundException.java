@@ -11,6 +11,7 @@ public class AnswerNotFoundException extends Exception {
     private final String errorMessage;
 
     public AnswerNotFoundException(final String code, final String errorMessage) {
+        super(errorMessage, null, false, false);
         this.code = code;
         this.errorMessage = errorMessage;
     }
@@ -11,6 +11,7 @@ public class AuthorizationFailedException extends Exception {
     private final String errorMessage;
 
     public AuthorizationFailedException(final String code, final String errorMessage) {
+        super(errorMessage, null, false, false);
         this.code = code;
         this.errorMessage = errorMessage;
     }
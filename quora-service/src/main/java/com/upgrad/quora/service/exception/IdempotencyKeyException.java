@@ -0,0 +1,42 @@
+package com.upgrad.quora.service.exception;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+/**
+ * IdempotencyKeyException is thrown when a request cannot be matched with the earlier request sent under the same idempotency key.
+ */
+public class IdempotencyKeyException extends Exception {
+    private final String code;
+    private final String errorMessage;
+
+    public IdempotencyKeyException(final String code, final String errorMessage) {
+        super(errorMessage, null, false, false);
+        this.code = code;
+        this.errorMessage = errorMessage;
+    }
+
+    @Override
+    public void printStackTrace() {
+        super.printStackTrace();
+    }
+
+    @Override
+    public void printStackTrace(PrintStream s) {
+        super.printStackTrace(s);
+    }
+
+    @Override
+    public void printStackTrace(PrintWriter s) {
+        super.printStackTrace(s);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+}
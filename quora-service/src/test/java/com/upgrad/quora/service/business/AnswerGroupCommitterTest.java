@@ -0,0 +1,229 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.common.DeadlineExceededException;
+import com.upgrad.quora.service.common.RequestDeadline;
+import com.upgrad.quora.service.common.UnexpectedException;
+import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.entity.AnswerEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+public class AnswerGroupCommitterTest {
+
+    private final AnswerDao answerDao = Mockito.mock(AnswerDao.class);
+
+    private final AnswerGroupCommitter committer = new AnswerGroupCommitter();
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    //Answers of each createAnswers call, in call order
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<List<String>>());
+
+    //Holds the first write until released, so that the next answers queue up behind it
+    private final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+
+    private final CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(committer, "enabled", true);
+        ReflectionTestUtils.setField(committer, "capacity", 16);
+        ReflectionTestUtils.setField(committer, "maxBatchSize", 16);
+        ReflectionTestUtils.setField(committer, "flushIntervalMs", 5L);
+        ReflectionTestUtils.setField(committer, "enqueueTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(committer, "stopTimeoutMs", 10000L);
+        ReflectionTestUtils.setField(committer, "answerDao", answerDao);
+        ReflectionTestUtils.setField(committer, "transactionManager", Mockito.mock(PlatformTransactionManager.class));
+        when(answerDao.createAnswers(anyList())).thenAnswer(invocation -> {
+            List<AnswerEntity> answers = invocation.getArgument(0);
+            List<String> contents = new ArrayList<>();
+            for (AnswerEntity answer : answers) {
+                contents.add(answer.getAns());
+            }
+            boolean first = batches.isEmpty();
+            batches.add(contents);
+            if (first) {
+                firstWriteStarted.countDown();
+                releaseFirstWrite.await(10, TimeUnit.SECONDS);
+            }
+            if (answers.size() > 1 && contents.contains("bad")) {
+                throw new IllegalStateException("constraint violation");
+            }
+            if (contents.equals(Collections.singletonList("bad"))) {
+                throw new IllegalArgumentException("bad answer");
+            }
+            return answers.size();
+        });
+        committer.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        releaseFirstWrite.countDown();
+        committer.stop();
+        callers.shutdownNow();
+    }
+
+    //This test case passes when answers submitted while a commit is running are written together in the next batch.
+    @Test
+    public void answersQueuedDuringCommitShareOneBatch() throws Exception {
+        Future<AnswerEntity> first = submit("first");
+        assertTrue(firstWriteStarted.await(10, TimeUnit.SECONDS));
+        List<Future<AnswerEntity>> queued = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            queued.add(submit("answer" + i));
+        }
+        awaitQueueDepth(5);
+        releaseFirstWrite.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        for (Future<AnswerEntity> future : queued) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(2, batches.size());
+        assertEquals(5, batches.get(1).size());
+        assertEquals(2, committer.getBatchCount());
+        assertEquals(6, committer.getAnswerCount());
+    }
+
+    //This test case passes when a failed batch is retried answer by answer, so only the bad answer fails.
+    @Test
+    public void failedBatchIsRetriedPerAnswer() throws Exception {
+        Future<AnswerEntity> first = submit("first");
+        assertTrue(firstWriteStarted.await(10, TimeUnit.SECONDS));
+        Future<AnswerEntity> good = submit("good");
+        Future<AnswerEntity> bad = submit("bad");
+        awaitQueueDepth(2);
+        releaseFirstWrite.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        assertEquals("good", good.get(10, TimeUnit.SECONDS).getAns());
+        try {
+            bad.get(10, TimeUnit.SECONDS);
+            fail("The bad answer must fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        //The first write, the failed group, then one retry per answer
+        assertEquals(4, batches.size());
+    }
+
+    //This test case passes when stop commits the answers already queued before it returns.
+    @Test
+    public void stopCommitsQueuedAnswers() throws Exception {
+        Future<AnswerEntity> first = submit("first");
+        assertTrue(firstWriteStarted.await(10, TimeUnit.SECONDS));
+        Future<AnswerEntity> queued = submit("queued");
+        awaitQueueDepth(1);
+        Future<?> stopped = callers.submit(() -> {
+            committer.stop();
+            return null;
+        });
+        releaseFirstWrite.countDown();
+
+        stopped.get(10, TimeUnit.SECONDS);
+        first.get(10, TimeUnit.SECONDS);
+        assertEquals("queued", queued.get(1, TimeUnit.SECONDS).getAns());
+    }
+
+    //This test case passes when an answer submitted after stop is written inline instead of waiting forever for the stopped writer.
+    @Test
+    public void submitAfterStopWritesInline() throws Exception {
+        releaseFirstWrite.countDown();
+        committer.stop();
+
+        AnswerEntity answer = answer("late");
+        assertSame(answer, committer.submit(answer));
+        assertEquals(Collections.singletonList(Collections.singletonList("late")), batches);
+        assertEquals(1, committer.getInlineWrites());
+    }
+
+    //This test case passes when answers the writer cannot commit before the stop timeout fail instead of blocking their callers.
+    @Test
+    public void stopFailsAnswersLeftQueued() throws Exception {
+        ReflectionTestUtils.setField(committer, "stopTimeoutMs", 50L);
+        Future<AnswerEntity> first = submit("first");
+        assertTrue(firstWriteStarted.await(10, TimeUnit.SECONDS));
+        Future<AnswerEntity> queued = submit("queued");
+        awaitQueueDepth(1);
+
+        committer.stop();
+        try {
+            queued.get(10, TimeUnit.SECONDS);
+            fail("The queued answer must fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UnexpectedException);
+        }
+        releaseFirstWrite.countDown();
+        first.get(10, TimeUnit.SECONDS);
+    }
+
+    //This test case passes when an answer still queued as the request deadline passes fails with GEN-004 and is never written.
+    @Test
+    public void deadlineWithdrawsQueuedAnswer() throws Exception {
+        Future<AnswerEntity> first = submit("first");
+        assertTrue(firstWriteStarted.await(10, TimeUnit.SECONDS));
+        Future<AnswerEntity> late = callers.submit(() -> {
+            RequestDeadline.start(50);
+            try {
+                return committer.submit(answer("late"));
+            } finally {
+                RequestDeadline.clear();
+            }
+        });
+        try {
+            late.get(10, TimeUnit.SECONDS);
+            fail("The answer must not outlast its deadline");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof DeadlineExceededException);
+        }
+        assertEquals(0, committer.getQueueDepth());
+        releaseFirstWrite.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        committer.stop();
+        assertEquals(Collections.singletonList(Collections.singletonList("first")), batches);
+        assertEquals(1, committer.getDeadlineExpiries());
+    }
+
+    private Future<AnswerEntity> submit(final String content) {
+        return callers.submit(() -> committer.submit(answer(content)));
+    }
+
+    private void awaitQueueDepth(final int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (committer.getQueueDepth() < depth) {
+            if (System.nanoTime() > deadline) {
+                fail("Expected " + depth + " queued answers, found " + committer.getQueueDepth());
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static AnswerEntity answer(final String content) {
+        AnswerEntity answer = new AnswerEntity();
+        answer.setAns(content);
+        return answer;
+    }
+}
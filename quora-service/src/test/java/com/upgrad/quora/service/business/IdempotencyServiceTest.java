@@ -0,0 +1,133 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.common.RequestDeadline;
+import com.upgrad.quora.service.dao.IdempotencyKeyDao;
+import com.upgrad.quora.service.exception.IdempotencyKeyException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdempotencyServiceTest {
+
+    private final IdempotencyKeyDao idempotencyKeyDao = Mockito.mock(IdempotencyKeyDao.class);
+
+    private final IdempotencyService idempotencyService = new IdempotencyService();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(idempotencyService, "idempotencyKeyDao", idempotencyKeyDao);
+        ReflectionTestUtils.setField(idempotencyService, "transactionManager", Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(idempotencyService, "store", "memory");
+        ReflectionTestUtils.setField(idempotencyService, "ttlMinutes", 1440L);
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMs", 10000L);
+        ReflectionTestUtils.setField(idempotencyService, "maxDeadlineMs", 60000L);
+        ReflectionTestUtils.setField(idempotencyService, "claimMarginMs", 30000L);
+        ReflectionTestUtils.setField(idempotencyService, "pollIntervalMs", 10L);
+        ReflectionTestUtils.setField(idempotencyService, "purgeIntervalMs", 60000L);
+        idempotencyService.start();
+    }
+
+    @After
+    public void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    //This test case passes when a retry after a successful original is answered with the stored 2xx response.
+    @Test
+    public void retryReplaysCreatedResponse() throws Exception {
+        IdempotencyService.Claim claim = idempotencyService.begin("key", "fingerprint");
+        assertNull(claim.getResponse());
+        idempotencyService.complete(claim, created("question_uuid"));
+
+        IdempotentResponse replayed = idempotencyService.begin("key", "fingerprint").getResponse();
+        assertEquals(201, replayed.getStatus());
+        assertEquals(Collections.singletonList("application/json"), replayed.getHeaders().get("Content-Type"));
+        assertArrayEquals("question_uuid".getBytes(), replayed.getBody());
+    }
+
+    //This test case passes when a duplicate stops waiting for the original once its own deadline is spent.
+    @Test
+    public void duplicateWaitEndsAtItsDeadline() throws Exception {
+        idempotencyService.begin("key", "fingerprint");
+        RequestDeadline.start(200);
+        long start = System.nanoTime();
+        try {
+            idempotencyService.begin("key", "fingerprint");
+            fail();
+        } catch (IdempotencyKeyException e) {
+            assertEquals("IDEM-002", e.getCode());
+        }
+        long waitedMs = (System.nanoTime() - start) / 1000000;
+        assertTrue("waited " + waitedMs + " ms", waitedMs >= 150 && waitedMs < 5000);
+    }
+
+    //This test case passes when a request that lost its claim cannot store its response over the next claimer's.
+    @Test
+    public void staleClaimCannotCompleteTheNextClaim() throws Exception {
+        IdempotencyService.Claim first = idempotencyService.begin("key", "fingerprint");
+        idempotencyService.abandon(first);
+        IdempotencyService.Claim second = idempotencyService.begin("key", "fingerprint");
+        assertNull(second.getResponse());
+
+        idempotencyService.complete(first, created("first_uuid"));
+        idempotencyService.complete(second, created("second_uuid"));
+
+        assertArrayEquals("second_uuid".getBytes(), idempotencyService.begin("key", "fingerprint").getResponse().getBody());
+    }
+
+    //This test case passes when a database claim outlives the longest request deadline plus the margin.
+    @Test
+    public void databaseClaimOutlivesTheMaximumDeadline() throws Exception {
+        ReflectionTestUtils.setField(idempotencyService, "store", "database");
+        when(idempotencyKeyDao.claim(anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(7L);
+
+        assertNull(idempotencyService.begin("key", "fingerprint").getResponse());
+
+        ArgumentCaptor<LocalDateTime> createdAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> expiresAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(idempotencyKeyDao).claim(eq("key"), eq("fingerprint"), createdAt.capture(), expiresAt.capture());
+        assertEquals(90000, Duration.between(createdAt.getValue(), expiresAt.getValue()).toMillis());
+    }
+
+    //This test case passes when the response is stored in the row of the caller's own claim only.
+    @Test
+    public void databaseCompleteIsConditionalOnTheClaim() throws Exception {
+        ReflectionTestUtils.setField(idempotencyService, "store", "database");
+        when(idempotencyKeyDao.claim(anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(7L);
+        IdempotencyService.Claim claim = idempotencyService.begin("key", "fingerprint");
+
+        IdempotentResponse response = created("question_uuid");
+        idempotencyService.complete(claim, response);
+        verify(idempotencyKeyDao).completeIdempotencyKey(eq(7L), eq(201), anyString(), same(response.getBody()), any(LocalDateTime.class));
+
+        idempotencyService.abandon(claim);
+        verify(idempotencyKeyDao).deletePendingIdempotencyKey(7L);
+    }
+
+    private static IdempotentResponse created(final String body) {
+        Map<String, List<String>> headers = Collections.singletonMap("Content-Type", Collections.singletonList("application/json"));
+        return new IdempotentResponse(201, headers, body.getBytes());
+    }
+}
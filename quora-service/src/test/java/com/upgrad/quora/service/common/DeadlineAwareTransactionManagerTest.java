@@ -0,0 +1,65 @@
+package com.upgrad.quora.service.common;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.Assert.assertEquals;
+
+public class DeadlineAwareTransactionManagerTest {
+
+    private final DeadlineAwareTransactionManager transactionManager =
+            new DeadlineAwareTransactionManager(Mockito.mock(EntityManagerFactory.class));
+
+    @After
+    public void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    //This test case passes when a transaction outside of a request keeps its own timeout.
+    @Test
+    public void noDeadlineKeepsTheTimeout() {
+        assertEquals(TransactionDefinition.TIMEOUT_DEFAULT, transactionManager.determineTimeout(new DefaultTransactionDefinition()));
+        assertEquals(7, transactionManager.determineTimeout(timeout(7)));
+    }
+
+    //This test case passes when the time left is rounded up to whole seconds, and a budget below one second still gets one second.
+    @Test
+    public void remainingTimeIsRoundedUpToSeconds() {
+        RequestDeadline.start(2500);
+        assertEquals(3, transactionManager.determineTimeout(new DefaultTransactionDefinition()));
+        RequestDeadline.start(3000);
+        assertEquals(3, transactionManager.determineTimeout(new DefaultTransactionDefinition()));
+        RequestDeadline.start(200);
+        assertEquals(1, transactionManager.determineTimeout(new DefaultTransactionDefinition()));
+        //The deadline has passed, doBegin refuses the transaction before its timeout is used
+        RequestDeadline.start(-5000);
+        assertEquals(1, transactionManager.determineTimeout(new DefaultTransactionDefinition()));
+    }
+
+    //This test case passes when the shorter of the declared timeout and the time left is used.
+    @Test
+    public void declaredTimeoutIsBoundedByTheDeadline() {
+        RequestDeadline.start(10000);
+        assertEquals(4, transactionManager.determineTimeout(timeout(4)));
+        RequestDeadline.start(1500);
+        assertEquals(2, transactionManager.determineTimeout(timeout(4)));
+    }
+
+    //This test case passes when no transaction is begun once the deadline has passed.
+    @Test(expected = DeadlineExceededException.class)
+    public void noTransactionAfterTheDeadline() {
+        RequestDeadline.start(-1);
+        transactionManager.getTransaction(new DefaultTransactionDefinition());
+    }
+
+    private static TransactionDefinition timeout(final int seconds) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setTimeout(seconds);
+        return definition;
+    }
+}
@@ -0,0 +1,119 @@
+package com.upgrad.quora.service.common;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String> singleFlight = new SingleFlight<>(true);
+
+    private final ExecutorService leaders = Executors.newCachedThreadPool();
+
+    private final CountDownLatch leaderStarted = new CountDownLatch(1);
+
+    //Holds the leader's call until released, so that the test thread joins it as a follower
+    private final CountDownLatch releaseLeader = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        releaseLeader.countDown();
+        leaders.shutdownNow();
+        RequestDeadline.clear();
+    }
+
+    //This test case passes when a follower stops waiting for the leader once its own deadline is spent.
+    @Test
+    public void followerWaitEndsAtItsDeadline() throws Exception {
+        startLeader(null, () -> "leader");
+        RequestDeadline.start(200);
+        long start = System.nanoTime();
+        try {
+            singleFlight.execute("key", () -> "follower");
+            fail();
+        } catch (DeadlineExceededException e) {
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue("waited " + waitedMs + " ms", waitedMs >= 150 && waitedMs < 5000);
+        }
+    }
+
+    //This test case passes when a follower runs the call itself after the leader failed at the leader's own deadline.
+    @Test
+    public void followerRetriesAfterLeaderDeadline() throws Exception {
+        Future<String> leader = startLeader(50L, () -> {
+            throw new DeadlineExceededException();
+        });
+        releaseLeaderAfter(200);
+        RequestDeadline.start(5000);
+        assertEquals("follower", singleFlight.execute("key", () -> "follower"));
+        assertLeaderFailed(leader);
+        assertEquals(2, singleFlight.getExecutions());
+    }
+
+    //This test case passes when a follower gets the failure of a leader that still had time left.
+    @Test
+    public void followerSharesLeaderFailure() throws Exception {
+        final IllegalArgumentException failure = new IllegalArgumentException("bad key");
+        Future<String> leader = startLeader(60000L, () -> {
+            throw failure;
+        });
+        releaseLeaderAfter(100);
+        try {
+            singleFlight.execute("key", () -> "follower");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertSame(failure, e);
+        }
+        assertLeaderFailed(leader);
+        assertEquals(1, singleFlight.getExecutions());
+    }
+
+    //Runs the call as leader on another thread, the call starts at once and ends once released
+    private Future<String> startLeader(final Long deadlineMs, final Supplier<String> call) throws InterruptedException {
+        Future<String> leader = leaders.submit(() -> {
+            if (deadlineMs != null) {
+                RequestDeadline.start(deadlineMs);
+            }
+            return singleFlight.execute("key", () -> {
+                leaderStarted.countDown();
+                try {
+                    releaseLeader.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return call.get();
+            });
+        });
+        assertTrue(leaderStarted.await(10, TimeUnit.SECONDS));
+        return leader;
+    }
+
+    //Releases the leader while the test thread waits for it as a follower
+    private void releaseLeaderAfter(final long delayMs) {
+        leaders.submit(() -> {
+            Thread.sleep(delayMs);
+            releaseLeader.countDown();
+            return null;
+        });
+    }
+
+    private static void assertLeaderFailed(final Future<String> leader) throws InterruptedException {
+        try {
+            leader.get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (Exception e) {
+            assertTrue(e.getCause() instanceof RuntimeException);
+        }
+    }
+}